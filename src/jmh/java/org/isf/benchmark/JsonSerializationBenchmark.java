@@ -0,0 +1,113 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.isf.accounting.data.BillHelper;
+import org.isf.accounting.dto.BillDTO;
+import org.isf.accounting.mapper.BillMapper;
+import org.isf.admission.data.AdmissionHelper;
+import org.isf.admission.dto.AdmissionDTO;
+import org.isf.admission.mapper.AdmissionMapper;
+import org.isf.patient.data.PatientHelper;
+import org.isf.patient.dto.PatientDTO;
+import org.isf.patient.mapper.PatientMapper;
+import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
+import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
+import org.isf.shared.mapper.mappings.PatientMapping;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.module.jsr310.Jsr310Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Cost of writing the largest response bodies with an {@link ObjectMapper} built the way Spring MVC builds its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	public int size;
+
+	private ObjectMapper objectMapper;
+
+	private List<AdmissionDTO> admissions;
+	private List<PatientDTO> patients;
+	private List<BillDTO> bills;
+
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+		ModelMapper modelMapper = new ModelMapper();
+		modelMapper.addConverter(new BlobToByteArrayConverter());
+		modelMapper.addConverter(new ByteArrayToBlobConverter());
+		modelMapper.registerModule(new Jsr310Module());
+		PatientMapping.addMapping(modelMapper);
+		AdmissionMapper admissionMapper = new AdmissionMapper();
+		PatientMapper patientMapper = new PatientMapper();
+		BillMapper billMapper = new BillMapper();
+		ReflectionTestUtils.setField(admissionMapper, "modelMapper", modelMapper);
+		ReflectionTestUtils.setField(patientMapper, "modelMapper", modelMapper);
+		ReflectionTestUtils.setField(billMapper, "modelMapper", modelMapper);
+
+		admissions = admissionMapper.map2DTOList(AdmissionHelper.setupAdmissionList(size));
+		patients = patientMapper.map2DTOList(PatientHelper.setupPatientList(size));
+		bills = billMapper.map2DTOList(BillHelper.genList(size));
+	}
+
+	@Benchmark
+	public byte[] admissions() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(admissions);
+	}
+
+	@Benchmark
+	public byte[] patients() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(patients);
+	}
+
+	@Benchmark
+	public byte[] bills() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(bills);
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.isf.accounting.data.BillHelper;
+import org.isf.accounting.dto.BillDTO;
+import org.isf.accounting.mapper.BillMapper;
+import org.isf.accounting.model.Bill;
+import org.isf.admission.data.AdmissionHelper;
+import org.isf.admission.dto.AdmissionDTO;
+import org.isf.admission.mapper.AdmissionMapper;
+import org.isf.admission.model.Admission;
+import org.isf.patient.data.PatientHelper;
+import org.isf.patient.dto.PatientDTO;
+import org.isf.patient.mapper.PatientMapper;
+import org.isf.patient.model.Patient;
+import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
+import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
+import org.isf.shared.mapper.mappings.PatientMapping;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.module.jsr310.Jsr310Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Cost of {@code GenericMapper.map2DTO()} and {@code map2DTOList()} on the entity graphs returned by the busiest
+ * endpoints, built with the test data helpers. The mappers are configured as in the controller tests, so lists are
+ * mapped sequentially.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Mappers {
+
+		AdmissionMapper admissionMapper = new AdmissionMapper();
+		PatientMapper patientMapper = new PatientMapper();
+		BillMapper billMapper = new BillMapper();
+
+		@Setup
+		public void setup() {
+			ModelMapper modelMapper = new ModelMapper();
+			modelMapper.addConverter(new BlobToByteArrayConverter());
+			modelMapper.addConverter(new ByteArrayToBlobConverter());
+			modelMapper.registerModule(new Jsr310Module());
+			PatientMapping.addMapping(modelMapper);
+			ReflectionTestUtils.setField(admissionMapper, "modelMapper", modelMapper);
+			ReflectionTestUtils.setField(patientMapper, "modelMapper", modelMapper);
+			ReflectionTestUtils.setField(billMapper, "modelMapper", modelMapper);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Data {
+
+		@Param({ "1", "100", "1000" })
+		public int size;
+
+		List<Admission> admissions;
+		List<Patient> patients;
+		List<Bill> bills;
+
+		@Setup
+		public void setup() {
+			admissions = AdmissionHelper.setupAdmissionList(size);
+			patients = PatientHelper.setupPatientList(size);
+			bills = BillHelper.genList(size);
+		}
+	}
+
+	@Benchmark
+	public AdmissionDTO admissionToDTO(Mappers mappers, Data data) {
+		return mappers.admissionMapper.map2DTO(data.admissions.get(0));
+	}
+
+	@Benchmark
+	public List<AdmissionDTO> admissionListToDTO(Mappers mappers, Data data) {
+		return mappers.admissionMapper.map2DTOList(data.admissions);
+	}
+
+	@Benchmark
+	public PatientDTO patientToDTO(Mappers mappers, Data data) {
+		return mappers.patientMapper.map2DTO(data.patients.get(0));
+	}
+
+	@Benchmark
+	public List<PatientDTO> patientListToDTO(Mappers mappers, Data data) {
+		return mappers.patientMapper.map2DTOList(data.patients);
+	}
+
+	@Benchmark
+	public BillDTO billToDTO(Mappers mappers, Data data) {
+		return mappers.billMapper.map2DTO(data.bills.get(0));
+	}
+
+	@Benchmark
+	public List<BillDTO> billListToDTO(Mappers mappers, Data data) {
+		return mappers.billMapper.map2DTOList(data.bills);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.isf.security.jwt.TokenProvider;
+import org.isf.security.jwt.TokenRevocationList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Per-request cost of the JWT handling in {@link TokenProvider}: issuing a token at login, validating it through the
+ * cache of verified tokens (the path of every authenticated request) and a full signature check and parse (a cache
+ * miss), plus the {@link TokenRevocationList} check of every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenProviderBenchmark {
+
+	/* HS512 needs a key of at least 64 bytes */
+	private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+
+	private TokenProvider tokenProvider;
+
+	private Authentication authentication;
+
+	private String token;
+
+	private TokenRevocationList tokenRevocationList;
+
+	private String tokenId;
+
+	@Setup
+	public void setup() {
+		tokenProvider = new TokenProvider();
+		ReflectionTestUtils.setField(tokenProvider, "env", new MockEnvironment().withProperty("jwt.token.secret", SECRET));
+		tokenProvider.init();
+		authentication = new UsernamePasswordAuthenticationToken("admin", null,
+				Collections.singletonList(new SimpleGrantedAuthority("admin")));
+		token = tokenProvider.generateJwtToken(authentication, false);
+		tokenId = tokenProvider.verifyToken(token).getTokenId();
+
+		tokenRevocationList = new TokenRevocationList();
+		ReflectionTestUtils.setField(tokenRevocationList, "env", new MockEnvironment());
+		tokenRevocationList.init();
+		long expiresAt = System.currentTimeMillis() + 3_600_000L;
+		for (int i = 0; i < 10000; i++) {
+			tokenRevocationList.revoke("revoked-" + i, expiresAt);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		tokenRevocationList.shutdown();
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return tokenProvider.generateJwtToken(authentication, false);
+	}
+
+	@Benchmark
+	public boolean validateToken() {
+		return tokenProvider.validateToken(token);
+	}
+
+	@Benchmark
+	public Authentication getAuthentication() {
+		return tokenProvider.getAuthentication(token);
+	}
+
+	@Benchmark
+	public boolean isRevoked() {
+		return tokenRevocationList.isRevoked(tokenId);
+	}
+
+	@Benchmark
+	public String parseToken() {
+		return tokenProvider.getUsernameFromToken(token);
+	}
+}
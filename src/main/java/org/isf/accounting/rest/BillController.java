@@ -40,11 +40,13 @@ import org.isf.patient.model.Patient;
 import org.isf.priceslist.manager.PriceListManager;
 import org.isf.priceslist.model.PriceList;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.streaming.JsonListStreamer;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -54,8 +56,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.Authorization;
@@ -84,15 +88,19 @@ public class BillController {
 	@Autowired
 	protected BillPaymentsMapper billPaymentsMapper;
 
+	@Autowired
+	protected JsonListStreamer jsonListStreamer;
+
 	public BillController(BillBrowserManager billManager, PriceListManager priceListManager,
 			PatientBrowserManager patientManager, BillMapper billMapper, BillItemsMapper billItemsMapper,
-			BillPaymentsMapper billPaymentsMapper) {
+			BillPaymentsMapper billPaymentsMapper, JsonListStreamer jsonListStreamer) {
 		this.billManager = billManager;
 		this.priceListManager = priceListManager;
 		this.patientManager = patientManager;
 		this.billMapper = billMapper;
 		this.billItemsMapper = billItemsMapper;
 		this.billPaymentsMapper = billPaymentsMapper;
+		this.jsonListStreamer = jsonListStreamer;
 	}
 
 	/**
@@ -198,15 +206,14 @@ public class BillController {
 	 * @return a list of retrieved {@link Bill}s or {@code null} if an error occurred.
 	 * @throws OHServiceException
 	 */
-	@GetMapping(value = "/bills", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<BillDTO>> searchBills(@RequestParam(value = "datefrom") @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'") LocalDateTime dateFrom,
+	@GetMapping(value = "/bills", produces = { MediaType.APPLICATION_JSON_VALUE, JsonListStreamer.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<StreamingResponseBody> searchBills(@RequestParam(value = "datefrom") @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'") LocalDateTime dateFrom,
 			@RequestParam(value = "dateto") @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'") LocalDateTime dateTo,
-			@RequestParam(value = "patient_code", required = false, defaultValue = "") Integer code) throws OHServiceException {
+			@RequestParam(value = "patient_code", required = false, defaultValue = "") Integer code,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws OHServiceException {
 
 		List<Bill> bills;
 
-		List<BillDTO> billDTOS;
-
 		if (code == null) {
 			LOGGER.info("Get payments datefrom: {}  dateTo: {}", dateFrom, dateTo);
 			bills = billManager.getBills(dateFrom, dateTo);
@@ -217,12 +224,7 @@ public class BillController {
 			bills = billManager.getBills(dateFrom, dateTo, pat);
 		}
 
-		billDTOS = billMapper.map2DTOList(bills);
-
-		if (billDTOS.isEmpty()) {
-			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(billDTOS);
-		}
-		return ResponseEntity.ok(billDTOS);
+		return jsonListStreamer.stream(bills, billMapper::map2DTO, accept);
 	}
 
 	/**
@@ -233,17 +235,16 @@ public class BillController {
 	 * @return the list of payments
 	 * @throws OHServiceException
 	 */
-	@GetMapping(value = "/bills/payments", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<BillPaymentsDTO>> searchBillsPayments(
+	@GetMapping(value = "/bills/payments", produces = { MediaType.APPLICATION_JSON_VALUE, JsonListStreamer.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<StreamingResponseBody> searchBillsPayments(
 			@RequestParam(value="datefrom") @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'") LocalDateTime dateFrom,
 			@RequestParam(value="dateto") @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'") LocalDateTime dateTo, 
-			@RequestParam(value="patient_code", required=false, defaultValue="") Integer code) throws OHServiceException {
+			@RequestParam(value="patient_code", required=false, defaultValue="") Integer code,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws OHServiceException {
 		LOGGER.info("Get Payments datefrom: {}  dateTo: {} patient: {}", dateFrom, dateTo, code);
 
 		List<BillPayments> payments;
 
-		List<BillPaymentsDTO> paymentsDTOS;
-
 		LOGGER.info("Get getPayments datefrom: {}  dateTo: {}", dateFrom, dateTo);
 
 		if (code == null) {
@@ -253,12 +254,7 @@ public class BillController {
 			payments = billManager.getPayments(dateFrom, dateTo, pat);
 		}
 
-		paymentsDTOS = billPaymentsMapper.map2DTOList(payments);
-
-		if (paymentsDTOS.isEmpty()) {
-			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
-		}
-		return ResponseEntity.ok(paymentsDTOS);
+		return jsonListStreamer.stream(payments, billPaymentsMapper::map2DTO, accept);
 	}
 
 	/**
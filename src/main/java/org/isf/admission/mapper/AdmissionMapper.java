@@ -38,7 +38,7 @@ public class AdmissionMapper extends GenericMapper<Admission, AdmissionDTO> {
 
 	@Override
 	public List<AdmissionDTO> map2DTOList(List<Admission> list) {
-		return list.stream().map(it -> map2DTO(it)).collect(Collectors.toList());
+		return mapList(list, this::map2DTO);
 	}
 
 	@Override
@@ -23,6 +23,7 @@ package org.isf.admission.rest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import javax.validation.Valid;
@@ -34,6 +35,7 @@ import org.isf.admission.mapper.AdmissionMapper;
 import org.isf.admission.mapper.AdmittedPatientMapper;
 import org.isf.admission.model.Admission;
 import org.isf.admission.model.AdmittedPatient;
+import org.isf.admission.service.AdmissionKeysetLoader;
 import org.isf.admtype.model.AdmissionType;
 import org.isf.disctype.manager.DischargeTypeBrowserManager;
 import org.isf.disctype.mapper.DischargeTypeMapper;
@@ -44,12 +46,17 @@ import org.isf.dlvrrestype.manager.DeliveryResultTypeBrowserManager;
 import org.isf.dlvrrestype.model.DeliveryResultType;
 import org.isf.dlvrtype.manager.DeliveryTypeBrowserManager;
 import org.isf.dlvrtype.model.DeliveryType;
+import org.isf.events.dto.WardEventType;
+import org.isf.events.service.WardEventBroadcaster;
 import org.isf.operation.manager.OperationBrowserManager;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
 import org.isf.pregtreattype.manager.PregnantTreatmentTypeBrowserManager;
 import org.isf.pregtreattype.model.PregnantTreatmentType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.pagination.KeysetCursor;
+import org.isf.shared.pagination.KeysetPage;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.isf.ward.manager.WardBrowserManager;
@@ -117,10 +124,21 @@ public class AdmissionController {
 	@Autowired
 	private DischargeTypeMapper dischargeTypeMapper; // not used for now, maybe in future?
 
+	@Autowired
+	private ReferenceDataCache referenceDataCache;
+
+	@Autowired
+	private AdmissionKeysetLoader admissionKeysetLoader;
+
+	@Autowired
+	private WardEventBroadcaster wardEventBroadcaster;
+
 	public AdmissionController(AdmissionBrowserManager admissionManager, PatientBrowserManager patientManager, WardBrowserManager wardManager,
 					DiseaseBrowserManager diseaseManager, OperationBrowserManager operationManager, PregnantTreatmentTypeBrowserManager pregTraitTypeManager,
 					DeliveryTypeBrowserManager dlvrTypeManager, DeliveryResultTypeBrowserManager dlvrrestTypeManager, AdmissionMapper admissionMapper,
-					AdmittedPatientMapper admittedMapper, DischargeTypeBrowserManager dischargeTypeManager, DischargeTypeMapper dischargeTypeMapper) {
+					AdmittedPatientMapper admittedMapper, DischargeTypeBrowserManager dischargeTypeManager, DischargeTypeMapper dischargeTypeMapper,
+					ReferenceDataCache referenceDataCache, AdmissionKeysetLoader admissionKeysetLoader,
+					WardEventBroadcaster wardEventBroadcaster) {
 		this.admissionManager = admissionManager;
 		this.patientManager = patientManager;
 		this.wardManager = wardManager;
@@ -132,6 +150,9 @@ public class AdmissionController {
 		this.admittedMapper = admittedMapper;
 		this.dischargeTypeManager = dischargeTypeManager;
 		this.dischargeTypeMapper = dischargeTypeMapper;
+		this.referenceDataCache = referenceDataCache;
+		this.admissionKeysetLoader = admissionKeysetLoader;
+		this.wardEventBroadcaster = wardEventBroadcaster;
 	}
 
 	/**
@@ -221,8 +242,15 @@ public class AdmissionController {
 
 	/**
 	 * Get all the {@link Admission}s that start in the specified range
+	 * <p>
+	 * When a {@code cursor} is given (empty for the first page) {@code page} is ignored and the page
+	 * that follows the cursor is returned, with the cursor of the next one in the
+	 * {@value KeysetCursor#NEXT_CURSOR_HEADER} header.
 	 * 
 	 * @param admissionRange
+	 * @param page
+	 * @param size
+	 * @param cursor
 	 * @return the {@link List} of found {@link Admission} or NO_CONTENT otherwise.
 	 * @throws OHServiceException
 	 */
@@ -230,10 +258,15 @@ public class AdmissionController {
 	public ResponseEntity<List<AdmissionDTO>> getAdmissions(
 					@RequestParam(name = "admissionrange") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime[] admissionRange,
 					@RequestParam(value = "page", required = false, defaultValue = "0") int page,
-					@RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size)
+					@RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+					@RequestParam(value = "cursor", required = false) String cursor)
 					throws OHServiceException {
 		LOGGER.debug("Get admissions started between {} and {}", admissionRange[0], admissionRange[1]);
 
+		if (cursor != null) {
+			checkPageSize(size);
+			return toResponse(admissionKeysetLoader.getAdmissions(admissionRange[0], admissionRange[1], KeysetCursor.decode(cursor), size));
+		}
 		List<Admission> admissions = admissionManager.getAdmissions(admissionRange[0], admissionRange[1], page, size);
 
 		if (admissions.isEmpty()) {
@@ -244,8 +277,15 @@ public class AdmissionController {
 
 	/**
 	 * Get all the {@link Admission}s that end in the specified range
+	 * <p>
+	 * When a {@code cursor} is given (empty for the first page) {@code page} is ignored and the page
+	 * that follows the cursor is returned, with the cursor of the next one in the
+	 * {@value KeysetCursor#NEXT_CURSOR_HEADER} header.
 	 * 
 	 * @param dischargeRange
+	 * @param page
+	 * @param size
+	 * @param cursor
 	 * @return the {@link List} of found {@link Admission} or NO_CONTENT otherwise.
 	 * @throws OHServiceException
 	 */
@@ -253,10 +293,15 @@ public class AdmissionController {
 	public ResponseEntity<List<AdmissionDTO>> getDischarges(
 					@RequestParam(name = "dischargerange") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime[] dischargeRange,
 					@RequestParam(value = "page", required = false, defaultValue = "0") int page,
-					@RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size)
+					@RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+					@RequestParam(value = "cursor", required = false) String cursor)
 					throws OHServiceException {
 		LOGGER.debug("Get admissions that end between {} and {}", dischargeRange[0], dischargeRange[1]);
 
+		if (cursor != null) {
+			checkPageSize(size);
+			return toResponse(admissionKeysetLoader.getDischarges(dischargeRange[0], dischargeRange[1], KeysetCursor.decode(cursor), size));
+		}
 		List<Admission> admissions = admissionManager.getDischarges(dischargeRange[0], dischargeRange[1], page, size);
 
 		if (admissions.isEmpty()) {
@@ -265,6 +310,19 @@ public class AdmissionController {
 		return ResponseEntity.ok(admissionMapper.map2DTOList(admissions));
 	}
 
+	private void checkPageSize(int size) throws OHAPIException {
+		if (size < 1) {
+			throw new OHAPIException(new OHExceptionMessage("Page size must be positive."));
+		}
+	}
+
+	private ResponseEntity<List<AdmissionDTO>> toResponse(KeysetPage<Admission> admissionPage) {
+		if (admissionPage.getItems().isEmpty()) {
+			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
+		}
+		return ResponseEntity.ok().headers(admissionPage.getHeaders()).body(admissionMapper.map2DTOList(admissionPage.getItems()));
+	}
+
 	/**
 	 * Get the next prog in the year for specified {@link Ward} code.
 	 * 
@@ -315,6 +373,9 @@ public class AdmissionController {
 		Admission admission = admissionManager.getAdmission(id);
 		if (admission != null) {
 			isDeleted = admissionManager.setDeleted(id);
+			if (isDeleted) {
+				wardEventBroadcaster.publish(WardEventType.ADMISSION_DELETED, wardCode(admission), null, id, patientCode(admission));
+			}
 		} else {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
 		}
@@ -364,6 +425,9 @@ public class AdmissionController {
 		}
 		adm.setAdmitted(0);
 		admissionUpdated = admissionManager.updateAdmission(adm);
+		if (admissionUpdated != null) {
+			wardEventBroadcaster.publish(WardEventType.DISCHARGE, wardCode(admission), null, admission.getId(), patientCode);
+		}
 
 		return ResponseEntity.status(HttpStatus.OK).body(admissionUpdated != null);
 	}
@@ -382,25 +446,22 @@ public class AdmissionController {
 		Admission newAdmission = admissionMapper.map2Model(newAdmissionDTO);
 		if (newAdmissionDTO.getWard() != null && newAdmissionDTO.getWard().getCode() != null
 						&& !newAdmissionDTO.getWard().getCode().trim().isEmpty()) {
-			List<Ward> wards = wardManager.getWards().stream()
-							.filter(w -> w.getCode().equals(newAdmissionDTO.getWard().getCode())).collect(Collectors.toList());
-			if (wards.isEmpty()) {
+			Ward ward = referenceDataCache.getWard(newAdmissionDTO.getWard().getCode());
+			if (ward == null) {
 				throw new OHAPIException(new OHExceptionMessage("Ward not found."));
 			}
-			newAdmission.setWard(wards.get(0));
+			newAdmission.setWard(ward);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("Ward field is required."));
 		}
 
 		if (newAdmissionDTO.getAdmType() != null && newAdmissionDTO.getAdmType().getCode() != null
 						&& !newAdmissionDTO.getAdmType().getCode().trim().isEmpty()) {
-			List<AdmissionType> types = admissionManager.getAdmissionType().stream()
-							.filter(admt -> admt.getCode().equals(newAdmissionDTO.getAdmType().getCode()))
-							.collect(Collectors.toList());
-			if (types.isEmpty()) {
+			AdmissionType admType = referenceDataCache.getAdmissionType(newAdmissionDTO.getAdmType().getCode());
+			if (admType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Admission type not found."));
 			}
-			newAdmission.setAdmType(types.get(0));
+			newAdmission.setAdmType(admType);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("Admission type field is required."));
 		}
@@ -414,94 +475,73 @@ public class AdmissionController {
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("Patient field is required."));
 		}
-		List<Disease> diseases = diseaseManager.getDiseaseAll();
 
 		if (newAdmissionDTO.getDiseaseIn() != null && newAdmissionDTO.getDiseaseIn().getCode() != null) {
-			List<Disease> dIns = diseases.stream()
-							.filter(d -> d.getCode().equals(newAdmissionDTO.getDiseaseIn().getCode()))
-							.collect(Collectors.toList());
-			if (dIns.isEmpty()) {
+			Disease dIn = referenceDataCache.getDisease(newAdmissionDTO.getDiseaseIn().getCode());
+			if (dIn == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease in not found."));
 			}
-			newAdmission.setDiseaseIn(dIns.get(0));
+			newAdmission.setDiseaseIn(dIn);
 		}
 
 		if (newAdmissionDTO.getDiseaseOut1() != null && newAdmissionDTO.getDiseaseOut1().getCode() != null) {
-			List<Disease> dOut1 = diseases.stream()
-							.filter(d -> d.getCode().equals(newAdmissionDTO.getDiseaseOut1().getCode()))
-							.collect(Collectors.toList());
-			if (dOut1.isEmpty()) {
+			Disease dOut1 = referenceDataCache.getDisease(newAdmissionDTO.getDiseaseOut1().getCode());
+			if (dOut1 == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease out 1 not found."));
 			}
-			newAdmission.setDiseaseOut1(dOut1.get(0));
+			newAdmission.setDiseaseOut1(dOut1);
 		}
 
 		if (newAdmissionDTO.getDiseaseOut2() != null && newAdmissionDTO.getDiseaseOut2().getCode() != null) {
-			List<Disease> dOut2 = diseases.stream()
-							.filter(d -> d.getCode().equals(newAdmissionDTO.getDiseaseOut2().getCode()))
-							.collect(Collectors.toList());
-			if (dOut2.isEmpty()) {
+			Disease dOut2 = referenceDataCache.getDisease(newAdmissionDTO.getDiseaseOut2().getCode());
+			if (dOut2 == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease out 2 not found."));
 			}
-			newAdmission.setDiseaseOut2(dOut2.get(0));
+			newAdmission.setDiseaseOut2(dOut2);
 		}
 
 		if (newAdmissionDTO.getDiseaseOut3() != null && newAdmissionDTO.getDiseaseOut3().getCode() != null) {
-			List<Disease> dOut3 = diseases.stream()
-							.filter(d -> d.getCode().equals(newAdmissionDTO.getDiseaseOut3().getCode()))
-							.collect(Collectors.toList());
-			if (dOut3.isEmpty()) {
+			Disease dOut3 = referenceDataCache.getDisease(newAdmissionDTO.getDiseaseOut3().getCode());
+			if (dOut3 == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease out 3 not found."));
 			}
-			newAdmission.setDiseaseOut3(dOut3.get(0));
+			newAdmission.setDiseaseOut3(dOut3);
 		}
 
 		if (newAdmissionDTO.getDisType() != null && newAdmissionDTO.getDisType().getCode() != null
 						&& !newAdmissionDTO.getDisType().getCode().trim().isEmpty()) {
-			List<DischargeType> disTypes = admissionManager.getDischargeType();
-			List<DischargeType> disTypesF = disTypes.stream()
-							.filter(dtp -> dtp.getCode().equals(newAdmissionDTO.getDisType().getCode()))
-							.collect(Collectors.toList());
-			if (disTypesF.isEmpty()) {
+			DischargeType disType = referenceDataCache.getDischargeType(newAdmissionDTO.getDisType().getCode());
+			if (disType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Discharge type not found."));
 			}
-			newAdmission.setDisType(disTypesF.get(0));
+			newAdmission.setDisType(disType);
 		}
 
 		if (newAdmissionDTO.getPregTreatmentType() != null && newAdmissionDTO.getPregTreatmentType().getCode() != null
 						&& !newAdmissionDTO.getPregTreatmentType().getCode().trim().isEmpty()) {
-			List<PregnantTreatmentType> pregTTypes = pregTraitTypeManager.getPregnantTreatmentType();
-			List<PregnantTreatmentType> pregTTypesF = pregTTypes.stream()
-							.filter(pregtt -> pregtt.getCode().equals(newAdmissionDTO.getPregTreatmentType().getCode()))
-							.collect(Collectors.toList());
-			if (pregTTypesF.isEmpty()) {
+			PregnantTreatmentType pregTType = referenceDataCache.getPregnantTreatmentType(newAdmissionDTO.getPregTreatmentType().getCode());
+			if (pregTType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Pregnant treatment type not found."));
 			}
-			newAdmission.setPregTreatmentType(pregTTypesF.get(0));
+			newAdmission.setPregTreatmentType(pregTType);
 		}
 
 		if (newAdmissionDTO.getDeliveryType() != null && newAdmissionDTO.getDeliveryType().getCode() != null
 						&& !newAdmissionDTO.getDeliveryType().getCode().trim().isEmpty()) {
-			List<DeliveryType> dlvrTypes = dlvrTypeManager.getDeliveryType();
-			List<DeliveryType> dlvrTypesF = dlvrTypes.stream()
-							.filter(dlvrType -> dlvrType.getCode().equals(newAdmissionDTO.getDeliveryType().getCode()))
-							.collect(Collectors.toList());
-			if (dlvrTypesF.isEmpty()) {
+			DeliveryType dlvrType = referenceDataCache.getDeliveryType(newAdmissionDTO.getDeliveryType().getCode());
+			if (dlvrType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Delivery type not found."));
 			}
-			newAdmission.setDeliveryType(dlvrTypesF.get(0));
+			newAdmission.setDeliveryType(dlvrType);
 		}
 
 		if (newAdmissionDTO.getDeliveryResult() != null && newAdmissionDTO.getDeliveryResult().getCode() != null
 						&& !newAdmissionDTO.getDeliveryResult().getCode().trim().isEmpty()) {
-			List<DeliveryResultType> dlvrrestTypes = dlvrrestTypeManager.getDeliveryResultType();
-			List<DeliveryResultType> dlvrrestTypesF = dlvrrestTypes.stream().filter(
-							dlvrrestType -> dlvrrestType.getCode().equals(newAdmissionDTO.getDeliveryResult().getCode()))
-							.collect(Collectors.toList());
-			if (dlvrrestTypesF.isEmpty()) {
+			DeliveryResultType dlvrrestType = referenceDataCache.getDeliveryResultType(newAdmissionDTO.getDeliveryResult().getCode());
+			if (dlvrrestType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Delivery result type not found."));
 			}
-			newAdmission.setDeliveryResult(dlvrrestTypesF.get(0));
+			newAdmission.setDeliveryResult(dlvrrestType);
 		}
 
 		String name = StringUtils.hasLength(newAdmission.getPatient().getName())
@@ -511,6 +551,7 @@ public class AdmissionController {
 		int aId = admissionManager.newAdmissionReturnKey(newAdmission);
 		if (aId > 0) {
 			newAdmission.setId(aId);
+			wardEventBroadcaster.publish(WardEventType.ADMISSION_CREATED, wardCode(newAdmission), null, aId, patientCode(newAdmission));
 		}
 		AdmissionDTO admDTO = admissionMapper.map2DTO(newAdmission);
 		return ResponseEntity.status(HttpStatus.CREATED).body(admDTO);
@@ -540,25 +581,22 @@ public class AdmissionController {
 
 		if (updateAdmissionDTO.getWard() != null && updateAdmissionDTO.getWard().getCode() != null
 						&& !updateAdmissionDTO.getWard().getCode().trim().isEmpty()) {
-			List<Ward> wards = wardManager.getWards().stream()
-							.filter(w -> w.getCode().equals(updateAdmissionDTO.getWard().getCode())).collect(Collectors.toList());
-			if (wards.isEmpty()) {
+			Ward ward = referenceDataCache.getWard(updateAdmissionDTO.getWard().getCode());
+			if (ward == null) {
 				throw new OHAPIException(new OHExceptionMessage("Ward not found."));
 			}
-			updateAdmission.setWard(wards.get(0));
+			updateAdmission.setWard(ward);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("Ward field is required."));
 		}
 
 		if (updateAdmissionDTO.getAdmType() != null && updateAdmissionDTO.getAdmType().getCode() != null
 						&& !updateAdmissionDTO.getAdmType().getCode().trim().isEmpty()) {
-			List<AdmissionType> types = admissionManager.getAdmissionType().stream()
-							.filter(admt -> admt.getCode().equals(updateAdmissionDTO.getAdmType().getCode()))
-							.collect(Collectors.toList());
-			if (types.isEmpty()) {
+			AdmissionType admType = referenceDataCache.getAdmissionType(updateAdmissionDTO.getAdmType().getCode());
+			if (admType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Admission type not found."));
 			}
-			updateAdmission.setAdmType(types.get(0));
+			updateAdmission.setAdmType(admType);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("Admission type field is required."));
 		}
@@ -572,93 +610,73 @@ public class AdmissionController {
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("Patient field is required."));
 		}
-		List<Disease> diseases = diseaseManager.getDiseaseAll();
+
 		if (updateAdmissionDTO.getDiseaseIn() != null && updateAdmissionDTO.getDiseaseIn().getCode() != null) {
-			List<Disease> dIns = diseases.stream()
-							.filter(d -> d.getCode().equals(updateAdmissionDTO.getDiseaseIn().getCode()))
-							.collect(Collectors.toList());
-			if (dIns.isEmpty()) {
+			Disease dIn = referenceDataCache.getDisease(updateAdmissionDTO.getDiseaseIn().getCode());
+			if (dIn == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease in not found."));
 			}
-			updateAdmission.setDiseaseIn(dIns.get(0));
+			updateAdmission.setDiseaseIn(dIn);
 		}
 
 		if (updateAdmissionDTO.getDiseaseOut1() != null && updateAdmissionDTO.getDiseaseOut1().getCode() != null) {
-			List<Disease> dOut1s = diseases.stream()
-							.filter(d -> d.getCode().equals(updateAdmissionDTO.getDiseaseOut1().getCode()))
-							.collect(Collectors.toList());
-			if (dOut1s.isEmpty()) {
+			Disease dOut1 = referenceDataCache.getDisease(updateAdmissionDTO.getDiseaseOut1().getCode());
+			if (dOut1 == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease out 1 not found."));
 			}
-			updateAdmission.setDiseaseOut1(dOut1s.get(0));
+			updateAdmission.setDiseaseOut1(dOut1);
 		}
 
 		if (updateAdmissionDTO.getDiseaseOut2() != null && updateAdmissionDTO.getDiseaseOut2().getCode() != null) {
-			List<Disease> dOut2s = diseases.stream()
-							.filter(d -> d.getCode().equals(updateAdmissionDTO.getDiseaseOut2().getCode()))
-							.collect(Collectors.toList());
-			if (dOut2s.isEmpty()) {
+			Disease dOut2 = referenceDataCache.getDisease(updateAdmissionDTO.getDiseaseOut2().getCode());
+			if (dOut2 == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease out 2 not found."));
 			}
-			updateAdmission.setDiseaseOut2(dOut2s.get(0));
+			updateAdmission.setDiseaseOut2(dOut2);
 		}
 
 		if (updateAdmissionDTO.getDiseaseOut3() != null && updateAdmissionDTO.getDiseaseOut3().getCode() != null) {
-			List<Disease> dOut3s = diseases.stream()
-							.filter(d -> d.getCode().equals(updateAdmissionDTO.getDiseaseOut3().getCode()))
-							.collect(Collectors.toList());
-			if (dOut3s.isEmpty()) {
+			Disease dOut3 = referenceDataCache.getDisease(updateAdmissionDTO.getDiseaseOut3().getCode());
+			if (dOut3 == null) {
 				throw new OHAPIException(new OHExceptionMessage("Disease out 3 not found."));
 			}
-			updateAdmission.setDiseaseOut3(dOut3s.get(0));
+			updateAdmission.setDiseaseOut3(dOut3);
 		}
 
 		if (updateAdmissionDTO.getDisType() != null && updateAdmissionDTO.getDisType().getCode() != null
 						&& !updateAdmissionDTO.getDisType().getCode().trim().isEmpty()) {
-			List<DischargeType> disTypes = admissionManager.getDischargeType();
-			List<DischargeType> disTypesF = disTypes.stream()
-							.filter(dtp -> dtp.getCode().equals(updateAdmissionDTO.getDisType().getCode()))
-							.collect(Collectors.toList());
-			if (disTypesF.isEmpty()) {
+			DischargeType disType = referenceDataCache.getDischargeType(updateAdmissionDTO.getDisType().getCode());
+			if (disType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Discharge type not found."));
 			}
-			updateAdmission.setDisType(disTypesF.get(0));
+			updateAdmission.setDisType(disType);
 		}
 
 		if (updateAdmissionDTO.getPregTreatmentType() != null && updateAdmissionDTO.getPregTreatmentType().getCode() != null
 						&& !updateAdmissionDTO.getPregTreatmentType().getCode().trim().isEmpty()) {
-			List<PregnantTreatmentType> pregTTypes = pregTraitTypeManager.getPregnantTreatmentType();
-			List<PregnantTreatmentType> pregTTypesF = pregTTypes.stream()
-							.filter(pregtt -> pregtt.getCode().equals(updateAdmissionDTO.getPregTreatmentType().getCode()))
-							.collect(Collectors.toList());
-			if (pregTTypesF.isEmpty()) {
+			PregnantTreatmentType pregTType = referenceDataCache.getPregnantTreatmentType(updateAdmissionDTO.getPregTreatmentType().getCode());
+			if (pregTType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Pregnant treatment type not found."));
 			}
-			updateAdmission.setPregTreatmentType(pregTTypesF.get(0));
+			updateAdmission.setPregTreatmentType(pregTType);
 		}
 
 		if (updateAdmissionDTO.getDeliveryType() != null && updateAdmissionDTO.getDeliveryType().getCode() != null
 						&& !updateAdmissionDTO.getDeliveryType().getCode().trim().isEmpty()) {
-			List<DeliveryType> dlvrTypes = dlvrTypeManager.getDeliveryType();
-			List<DeliveryType> dlvrTypesF = dlvrTypes.stream()
-							.filter(dlvrType -> dlvrType.getCode().equals(updateAdmissionDTO.getDeliveryType().getCode()))
-							.collect(Collectors.toList());
-			if (dlvrTypesF.isEmpty()) {
+			DeliveryType dlvrType = referenceDataCache.getDeliveryType(updateAdmissionDTO.getDeliveryType().getCode());
+			if (dlvrType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Delivery type not found."));
 			}
-			updateAdmission.setDeliveryType(dlvrTypesF.get(0));
+			updateAdmission.setDeliveryType(dlvrType);
 		}
 
 		if (updateAdmissionDTO.getDeliveryResult() != null && updateAdmissionDTO.getDeliveryResult().getCode() != null
 						&& !updateAdmissionDTO.getDeliveryResult().getCode().trim().isEmpty()) {
-			List<DeliveryResultType> dlvrrestTypes = dlvrrestTypeManager.getDeliveryResultType();
-			List<DeliveryResultType> dlvrrestTypesF = dlvrrestTypes.stream().filter(
-							dlvrrestType -> dlvrrestType.getCode().equals(updateAdmissionDTO.getDeliveryResult().getCode()))
-							.collect(Collectors.toList());
-			if (dlvrrestTypesF.isEmpty()) {
+			DeliveryResultType dlvrrestType = referenceDataCache.getDeliveryResultType(updateAdmissionDTO.getDeliveryResult().getCode());
+			if (dlvrrestType == null) {
 				throw new OHAPIException(new OHExceptionMessage("Delivery result type not found."));
 			}
-			updateAdmission.setDeliveryResult(dlvrrestTypesF.get(0));
+			updateAdmission.setDeliveryResult(dlvrrestType);
 		}
 
 		String name = StringUtils.hasLength(updateAdmission.getPatient().getName())
@@ -669,9 +687,21 @@ public class AdmissionController {
 		if (isUpdatedAdmission == null) {
 			throw new OHAPIException(new OHExceptionMessage("Admission not updated."));
 		}
+		String oldWard = wardCode(old);
+		String newWard = wardCode(isUpdatedAdmission);
+		wardEventBroadcaster.publish(WardEventType.ADMISSION_UPDATED, oldWard, Objects.equals(oldWard, newWard) ? null : newWard,
+						isUpdatedAdmission.getId(), patientCode(isUpdatedAdmission));
 
 		AdmissionDTO admDTO = admissionMapper.map2DTO(isUpdatedAdmission);
 		return ResponseEntity.ok(admDTO);
 	}
 
+	private static String wardCode(Admission admission) {
+		return admission.getWard() == null ? null : admission.getWard().getCode();
+	}
+
+	private static Integer patientCode(Admission admission) {
+		return admission.getPatient() == null ? null : admission.getPatient().getCode();
+	}
+
 }
@@ -0,0 +1,98 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.admission.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.isf.admission.model.Admission;
+import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.pagination.KeysetCursor;
+import org.isf.shared.pagination.KeysetPage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the admissions and the discharges of a date range page by page, seeking on (date, id)
+ * instead of skipping rows with an OFFSET.
+ */
+@Component
+public class AdmissionKeysetLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get the not deleted {@link Admission}s started in the specified range that follow the cursor,
+	 * ordered by admission date and id.
+	 *
+	 * @param dateFrom the start of the range
+	 * @param dateTo the end of the range
+	 * @param cursor the position of the last admission already read, {@code null} for the first page
+	 * @param size the page size
+	 * @return the page of admissions
+	 * @throws OHAPIException if the cursor is not an admission cursor
+	 */
+	@Transactional(readOnly = true)
+	public KeysetPage<Admission> getAdmissions(LocalDateTime dateFrom, LocalDateTime dateTo, KeysetCursor cursor, int size)
+					throws OHAPIException {
+		List<Admission> rows = query("admDate", dateFrom, dateTo, cursor, size).getResultList();
+		return KeysetPage.of(rows, size, admission -> KeysetCursor.of(admission.getAdmDate(), admission.getId()));
+	}
+
+	/**
+	 * Get the not deleted {@link Admission}s ended in the specified range that follow the cursor,
+	 * ordered by discharge date and id.
+	 *
+	 * @param dateFrom the start of the range
+	 * @param dateTo the end of the range
+	 * @param cursor the position of the last discharge already read, {@code null} for the first page
+	 * @param size the page size
+	 * @return the page of discharges
+	 * @throws OHAPIException if the cursor is not a discharge cursor
+	 */
+	@Transactional(readOnly = true)
+	public KeysetPage<Admission> getDischarges(LocalDateTime dateFrom, LocalDateTime dateTo, KeysetCursor cursor, int size)
+					throws OHAPIException {
+		List<Admission> rows = query("disDate", dateFrom, dateTo, cursor, size).getResultList();
+		return KeysetPage.of(rows, size, admission -> KeysetCursor.of(admission.getDisDate(), admission.getId()));
+	}
+
+	private TypedQuery<Admission> query(String dateField, LocalDateTime dateFrom, LocalDateTime dateTo, KeysetCursor cursor, int size)
+					throws OHAPIException {
+		String date = "a." + dateField;
+		TypedQuery<Admission> query = entityManager.createQuery("SELECT a FROM Admission a "
+				+ "WHERE a.deleted = 'N' AND " + date + " >= :dateFrom AND " + date + " <= :dateTo"
+				+ (cursor == null ? "" : " AND (" + date + " > :key OR (" + date + " = :key AND a.id > :id))")
+				+ " ORDER BY " + date + ", a.id", Admission.class)
+				.setParameter("dateFrom", dateFrom)
+				.setParameter("dateTo", dateTo);
+		if (cursor != null) {
+			query.setParameter("key", cursor.getDateKey()).setParameter("id", cursor.getId());
+		}
+		return query.setMaxResults(size + 1);
+	}
+}
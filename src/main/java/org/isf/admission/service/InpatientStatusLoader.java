@@ -0,0 +1,59 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.admission.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.isf.shared.query.ChunkedInQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tells which patients of a page are currently admitted, instead of one
+ * {@code AdmissionBrowserManager.getCurrentAdmission()} call per patient.
+ */
+@Component
+public class InpatientStatusLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get the codes of the specified patients that have an open (admitted and not deleted) admission.
+	 *
+	 * @param patientCodes the patient codes
+	 * @return the subset of {@code patientCodes} currently admitted
+	 */
+	@Transactional(readOnly = true)
+	public Set<Integer> getAdmittedPatientCodes(Collection<Integer> patientCodes) {
+		return new HashSet<>(ChunkedInQuery.getResultList(patientCodes, codes -> entityManager
+				.createQuery("SELECT DISTINCT a.patient.code FROM Admission a "
+						+ "WHERE a.patient.code IN :codes AND a.admitted = 1 AND a.deleted = 'N'", Integer.class)
+				.setParameter("codes", codes)
+				.getResultList()));
+	}
+}
@@ -28,6 +28,7 @@ import org.isf.admtype.dto.AdmissionTypeDTO;
 import org.isf.admtype.manager.AdmissionTypeBrowserManager;
 import org.isf.admtype.mapper.AdmissionTypeMapper;
 import org.isf.admtype.model.AdmissionType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -58,9 +59,14 @@ public class AdmissionTypeController {
 	@Autowired
 	protected AdmissionTypeMapper mapper;
 
-	public AdmissionTypeController(AdmissionTypeBrowserManager admtManager, AdmissionTypeMapper admissionTypemapper) {
+	@Autowired
+	protected ReferenceDataCache referenceDataCache;
+
+	public AdmissionTypeController(AdmissionTypeBrowserManager admtManager, AdmissionTypeMapper admissionTypemapper,
+			ReferenceDataCache referenceDataCache) {
 		this.admtManager = admtManager;
 		this.mapper = admissionTypemapper;
+		this.referenceDataCache = referenceDataCache;
 	}
 
 	/**
@@ -74,6 +80,7 @@ public class AdmissionTypeController {
 		String code = admissionTypeDTO.getCode();
 		LOGGER.info("Create Admission Type {}", code);
 		boolean isCreated = admtManager.newAdmissionType(mapper.map2Model(admissionTypeDTO));
+		referenceDataCache.invalidateAdmissionTypes();
 		AdmissionType admtCreated = null;
 		List<AdmissionType> admtFounds = admtManager.getAdmissionType().stream().filter(ad -> ad.getCode().equals(code))
 				.collect(Collectors.toList());
@@ -101,6 +108,7 @@ public class AdmissionTypeController {
 			throw new OHAPIException(new OHExceptionMessage("Admission Type not found."));
 		}
 		boolean isUpdated = admtManager.updateAdmissionType(admt);
+		referenceDataCache.invalidateAdmissionTypes();
 		if (!isUpdated) {
 			throw new OHAPIException(new OHExceptionMessage("Admission Type is not updated."), HttpStatus.INTERNAL_SERVER_ERROR);
 		}
@@ -140,6 +148,7 @@ public class AdmissionTypeController {
 					.collect(Collectors.toList());
 			if (!admtFounds.isEmpty()) {
 				isDeleted = admtManager.deleteAdmissionType(admtFounds.get(0));
+				referenceDataCache.invalidateAdmissionTypes();
 			}
 		} else {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
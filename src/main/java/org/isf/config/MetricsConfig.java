@@ -0,0 +1,115 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.config;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.isf.events.service.WardEventBroadcaster;
+import org.isf.login.service.SessionAuditRecorder;
+import org.isf.security.PasswordHashExecutor;
+import org.isf.security.jwt.TokenRevocationList;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Metrics exposed at {@code /actuator/prometheus}, {@code /actuator/metrics} and {@code /metrics/endpoints}, on top of
+ * the ones of Spring Boot ({@code http.server.requests}, JVM, Jetty, Hikari):
+ * <ul>
+ * <li>{@code oh.http.server.queries}: SQL statements per request, see {@code RequestMetricsFilter}</li>
+ * <li>{@code oh.mapping}: time spent mapping entity lists to DTOs per mapper, see {@code GenericMapper}</li>
+ * <li>{@code oh.jwt.*}: JWT generation and verification time, see {@code TokenProvider}</li>
+ * <li>{@code oh.password.checks} and {@code oh.password.checks.wait}: password hash and queue time, see
+ * {@code PasswordHashExecutor}</li>
+ * <li>the counters of the password checks, of the ward events stream and of the session audit</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig {
+
+	/**
+	 * Tag {@code http.server.requests} with the controller method, e.g. {@code OpdController.getOpdByPatient}.
+	 */
+	@Bean
+	public WebMvcTagsContributor handlerTagsContributor() {
+		return new WebMvcTagsContributor() {
+
+			@Override
+			public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler, Throwable exception) {
+				return Tags.of("handler", handlerName(handler));
+			}
+
+			@Override
+			public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+				return Tags.of("handler", handlerName(handler));
+			}
+		};
+	}
+
+	@Bean
+	public MeterBinder passwordHashMetrics(PasswordHashExecutor passwordHashExecutor) {
+		return registry -> {
+			FunctionCounter.builder("oh.password.checks.rejected", passwordHashExecutor, PasswordHashExecutor::getRejectedCount)
+							.description("Logins rejected because the password checks were saturated").register(registry);
+			Gauge.builder("oh.password.checks.queued", passwordHashExecutor, PasswordHashExecutor::getQueuedCount)
+							.description("Password checks waiting in the queue").register(registry);
+		};
+	}
+
+	@Bean
+	public MeterBinder tokenRevocationMetrics(TokenRevocationList tokenRevocationList) {
+		return registry -> Gauge.builder("oh.jwt.revoked", tokenRevocationList, TokenRevocationList::getRevokedCount)
+						.description("Revoked tokens not expired yet").register(registry);
+	}
+
+	@Bean
+	public MeterBinder wardEventMetrics(WardEventBroadcaster wardEventBroadcaster) {
+		return registry -> {
+			Gauge.builder("oh.events.subscribers", wardEventBroadcaster, WardEventBroadcaster::getSubscriberCount)
+							.description("Open ward event streams").register(registry);
+			FunctionCounter.builder("oh.events.dropped", wardEventBroadcaster, WardEventBroadcaster::getDroppedCount)
+							.description("Ward events dropped because the dispatch queue was full").register(registry);
+		};
+	}
+
+	@Bean
+	public MeterBinder sessionAuditMetrics(SessionAuditRecorder sessionAuditRecorder) {
+		return registry -> Gauge.builder("oh.session.audit.queued", sessionAuditRecorder, SessionAuditRecorder::getQueuedCount)
+						.description("Logins and logouts waiting to be stored in the session audit").register(registry);
+	}
+
+	private static String handlerName(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			HandlerMethod handlerMethod = (HandlerMethod) handler;
+			return handlerMethod.getBeanType().getSimpleName() + '.' + handlerMethod.getMethod().getName();
+		}
+		return "none";
+	}
+}
@@ -23,14 +23,19 @@ package org.isf.config;
 
 import java.util.Arrays;
 
+import org.isf.metrics.service.RequestMetricsFilter;
 import org.isf.security.CustomLogoutHandler;
 import org.isf.security.OHSimpleUrlAuthenticationSuccessHandler;
+import org.isf.security.PasswordHashExecutor;
 import org.isf.security.RestAuthenticationEntryPoint;
 import org.isf.security.jwt.JWTConfigurer;
 import org.isf.security.jwt.TokenProvider;
+import org.isf.security.jwt.TokenRevocationList;
+import org.isf.shared.pagination.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.access.expression.SecurityExpressionHandler;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
@@ -62,21 +67,25 @@ public class SecurityConfig {
 
 	private final TokenProvider tokenProvider;
 
+	private final TokenRevocationList tokenRevocationList;
+
 	@Autowired
 	private RestAuthenticationEntryPoint restAuthenticationEntryPoint;
 
-	public SecurityConfig(TokenProvider tokenProvider) {
+	public SecurityConfig(TokenProvider tokenProvider, TokenRevocationList tokenRevocationList) {
 		this.tokenProvider = tokenProvider;
+		this.tokenRevocationList = tokenRevocationList;
 	}
 
 	@Autowired
 	private CustomLogoutHandler customLogoutHandler;
 
 	@Bean
-	public DaoAuthenticationProvider authenticationProvider() {
+	public DaoAuthenticationProvider authenticationProvider(PasswordHashExecutor passwordHashExecutor) {
 		DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 		authProvider.setUserDetailsService(userDetailsService);
-		authProvider.setPasswordEncoder(encoder());
+		// HTTP Basic logins check the password on the hashing pool too
+		authProvider.setPasswordEncoder(passwordHashExecutor.asPasswordEncoder());
 		return authProvider;
 	}
 
@@ -91,6 +100,10 @@ public class SecurityConfig {
 
 		CorsConfiguration config = new CorsConfiguration();
 		config.addAllowedHeader("*");
+		// readable by the cross-origin UI
+		config.addExposedHeader(RequestMetricsFilter.QUERY_COUNT_HEADER);
+		config.addExposedHeader(KeysetCursor.NEXT_CURSOR_HEADER);
+		config.addExposedHeader(HttpHeaders.RETRY_AFTER);
 		// config.setAllowedHeaders(Arrays.asList("Accept", "Accept-Encoding", "Accept-Language", "Authorization", "Content-Type", "Cache-Control",
 		// "Connection", "Cookie", "Host", "Pragma", "Referer, User-Agent"));
 		config.setAllowedMethods(Arrays.asList("*"));
@@ -140,7 +153,9 @@ public class SecurityConfig {
 						.hasAnyAuthority("admin", "guest").antMatchers(HttpMethod.POST, "/wards/**").hasAuthority("admin")
 						.antMatchers(HttpMethod.PUT, "/wards/**").hasAuthority("admin").antMatchers(HttpMethod.DELETE, "/wards/**").hasAuthority("admin")
 						.antMatchers(HttpMethod.PATCH, "/wards/**").hasAuthority("admin").antMatchers(HttpMethod.GET, "/wards/**")
-						.hasAnyAuthority("admin", "guest").antMatchers(HttpMethod.POST, "/exams/**").hasAuthority("admin")
+						.hasAnyAuthority("admin", "guest").antMatchers(HttpMethod.GET, "/events/**").hasAnyAuthority("admin", "guest")
+						.antMatchers(HttpMethod.GET, "/metrics/**").hasAuthority("admin").antMatchers("/actuator/**").hasAuthority("admin")
+						.antMatchers(HttpMethod.POST, "/exams/**").hasAuthority("admin")
 						.antMatchers(HttpMethod.PUT, "/exams/**").hasAuthority("admin").antMatchers(HttpMethod.DELETE, "/exams/**").hasAuthority("admin")
 						.antMatchers(HttpMethod.PATCH, "/exams/**").hasAuthority("admin").antMatchers(HttpMethod.GET, "/exams/**")
 						.hasAnyAuthority("admin", "guest").antMatchers(HttpMethod.POST, "/examrows/**").hasAuthority("admin")
@@ -209,13 +224,13 @@ public class SecurityConfig {
 //				 .successHandler(successHandler())
 //				 .failureHandler(failureHandler())
 //			.and()
-						.apply(securityConfigurerAdapter()).and().httpBasic().and().logout().logoutUrl("/auth/logout").addLogoutHandler(customLogoutHandler)
+						.apply(securityConfigurerAdapter()).and().httpBasic().authenticationEntryPoint(restAuthenticationEntryPoint).and().logout().logoutUrl("/auth/logout").addLogoutHandler(customLogoutHandler)
 						.permitAll();
 		return http.build();
 	}
 
 	private JWTConfigurer securityConfigurerAdapter() {
-		return new JWTConfigurer(tokenProvider);
+		return new JWTConfigurer(tokenProvider, tokenRevocationList);
 	}
 
 	@Bean
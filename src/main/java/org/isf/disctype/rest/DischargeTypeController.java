@@ -28,6 +28,7 @@ import org.isf.disctype.dto.DischargeTypeDTO;
 import org.isf.disctype.manager.DischargeTypeBrowserManager;
 import org.isf.disctype.mapper.DischargeTypeMapper;
 import org.isf.disctype.model.DischargeType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -58,9 +59,14 @@ public class DischargeTypeController {
 	@Autowired
 	protected DischargeTypeMapper mapper;
 
-	public DischargeTypeController(DischargeTypeBrowserManager discTypeManager, DischargeTypeMapper dischargeTypemapper) {
+	@Autowired
+	protected ReferenceDataCache referenceDataCache;
+
+	public DischargeTypeController(DischargeTypeBrowserManager discTypeManager, DischargeTypeMapper dischargeTypemapper,
+			ReferenceDataCache referenceDataCache) {
 		this.discTypeManager = discTypeManager;
 		this.mapper = dischargeTypemapper;
+		this.referenceDataCache = referenceDataCache;
 	}
 
 	/**
@@ -74,6 +80,7 @@ public class DischargeTypeController {
 		String code = dischTypeDTO.getCode();
 		LOGGER.info("Create discharge type {}", code);
 		boolean isCreated = discTypeManager.newDischargeType(mapper.map2Model(dischTypeDTO));
+		referenceDataCache.invalidateDischargeTypes();
 		DischargeType dischTypeCreated = null;
 		List<DischargeType> dischTypeFounds = discTypeManager.getDischargeType().stream().filter(ad -> ad.getCode().equals(code))
 				.collect(Collectors.toList());
@@ -100,6 +107,7 @@ public class DischargeTypeController {
 			throw new OHAPIException(new OHExceptionMessage("Discharge Type not found."));
 		}
 		boolean isUpdated = discTypeManager.updateDischargeType(dischType);
+		referenceDataCache.invalidateDischargeTypes();
 		if (!isUpdated) {
 			throw new OHAPIException(new OHExceptionMessage("Discharge Type is not updated."), HttpStatus.INTERNAL_SERVER_ERROR);
 		}
@@ -139,6 +147,7 @@ public class DischargeTypeController {
 					.collect(Collectors.toList());
 			if (!dischTypeFounds.isEmpty()) {
 				isDeleted = discTypeManager.deleteDischargeType(dischTypeFounds.get(0));
+				referenceDataCache.invalidateDischargeTypes();
 			}
 		} else {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -31,7 +31,10 @@ import org.isf.disease.dto.DiseaseDTO;
 import org.isf.disease.manager.DiseaseBrowserManager;
 import org.isf.disease.mapper.DiseaseMapper;
 import org.isf.disease.model.Disease;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.stats.service.ReportGenerator;
+import org.isf.stats.service.ReportGenerator.Report;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
@@ -62,9 +65,18 @@ public class DiseaseController {
 	@Autowired
 	protected DiseaseMapper mapper;
 
-	public DiseaseController(DiseaseBrowserManager diseaseManager, DiseaseMapper diseaseMapper) {
+	@Autowired
+	protected ReferenceDataCache referenceDataCache;
+
+	@Autowired
+	protected ReportGenerator reportGenerator;
+
+	public DiseaseController(DiseaseBrowserManager diseaseManager, DiseaseMapper diseaseMapper, ReferenceDataCache referenceDataCache,
+			ReportGenerator reportGenerator) {
 		this.diseaseManager = diseaseManager;
 		this.mapper = diseaseMapper;
+		this.referenceDataCache = referenceDataCache;
+		this.reportGenerator = reportGenerator;
 	}
 	
 	/**
@@ -251,6 +263,8 @@ public class DiseaseController {
 		}
 
 		if (diseaseManager.newDisease(disease) != null) {
+			referenceDataCache.invalidateDiseases();
+			reportGenerator.invalidate(Report.DISEASES_LIST);
 			return ResponseEntity.status(HttpStatus.CREATED).body(diseaseDTO);
 		}
 		throw new OHAPIException(new OHExceptionMessage("Disease not created."), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -270,6 +284,8 @@ public class DiseaseController {
 		}
 		disease.setLock(diseaseDTO.getLock());
 		if (diseaseManager.updateDisease(disease) != null) {
+			referenceDataCache.invalidateDiseases();
+			reportGenerator.invalidate(Report.DISEASES_LIST);
         	return ResponseEntity.ok(diseaseDTO);
         } else {
         	throw new OHAPIException(new OHExceptionMessage("Disease not updated."), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -288,6 +304,8 @@ public class DiseaseController {
 		if (disease != null) {
 			Map<String, Boolean> result = new HashMap<>();
 			result.put("deleted", diseaseManager.deleteDisease(disease));
+			referenceDataCache.invalidateDiseases();
+			reportGenerator.invalidate(Report.DISEASES_LIST);
 			return ResponseEntity.ok(result);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("No disease found with the specified code."), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -33,6 +33,8 @@ import org.isf.distype.manager.DiseaseTypeBrowserManager;
 import org.isf.distype.mapper.DiseaseTypeMapper;
 import org.isf.distype.model.DiseaseType;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.stats.service.ReportGenerator;
+import org.isf.stats.service.ReportGenerator.Report;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
@@ -63,9 +65,13 @@ public class DiseaseTypeController {
 	@Autowired
 	protected DiseaseTypeMapper mapper;
 
-	public DiseaseTypeController(DiseaseTypeBrowserManager diseaseTypeManager, DiseaseTypeMapper diseaseTypeMapper) {
+	@Autowired
+	protected ReportGenerator reportGenerator;
+
+	public DiseaseTypeController(DiseaseTypeBrowserManager diseaseTypeManager, DiseaseTypeMapper diseaseTypeMapper, ReportGenerator reportGenerator) {
 		this.diseaseTypeManager = diseaseTypeManager;
 		this.mapper = diseaseTypeMapper;
+		this.reportGenerator = reportGenerator;
 	}
 	
 	/**
@@ -118,6 +124,8 @@ public class DiseaseTypeController {
         }
         
         if (diseaseTypeManager.updateDiseaseType(diseaseType)) {
+        	// the diseases list shows the type descriptions
+        	reportGenerator.invalidate(Report.DISEASES_LIST);
         	return ResponseEntity.ok(diseaseTypeDTO);
         } else {
         	throw new OHAPIException(new OHExceptionMessage("Disease Type not updated."), HttpStatus.INTERNAL_SERVER_ERROR);
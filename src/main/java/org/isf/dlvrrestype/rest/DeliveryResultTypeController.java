@@ -28,6 +28,7 @@ import org.isf.dlvrrestype.dto.DeliveryResultTypeDTO;
 import org.isf.dlvrrestype.manager.DeliveryResultTypeBrowserManager;
 import org.isf.dlvrrestype.mapper.DeliveryResultTypeMapper;
 import org.isf.dlvrrestype.model.DeliveryResultType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -58,9 +59,14 @@ public class DeliveryResultTypeController {
 	@Autowired
 	protected DeliveryResultTypeMapper mapper;
 
-	public DeliveryResultTypeController(DeliveryResultTypeBrowserManager dlvrrestManager, DeliveryResultTypeMapper deliveryResultTypeMapper) {
+	@Autowired
+	protected ReferenceDataCache referenceDataCache;
+
+	public DeliveryResultTypeController(DeliveryResultTypeBrowserManager dlvrrestManager, DeliveryResultTypeMapper deliveryResultTypeMapper,
+			ReferenceDataCache referenceDataCache) {
 		this.dlvrrestManager = dlvrrestManager;
 		this.mapper = deliveryResultTypeMapper;
+		this.referenceDataCache = referenceDataCache;
 	}
 
 	/**
@@ -76,6 +82,7 @@ public class DeliveryResultTypeController {
 		LOGGER.info("Create Delivery result type {}", code);
 		boolean isCreated = dlvrrestManager
 				.newDeliveryResultType(mapper.map2Model(dlvrrestTypeDTO));
+		referenceDataCache.invalidateDeliveryResultTypes();
 		DeliveryResultType dlvrrestTypeCreated = null;
 		List<DeliveryResultType> dlvrrestTypeFounds = dlvrrestManager.getDeliveryResultType().stream()
 				.filter(ad -> ad.getCode().equals(code)).collect(Collectors.toList());
@@ -103,6 +110,7 @@ public class DeliveryResultTypeController {
 			throw new OHAPIException(new OHExceptionMessage("Delivery Result Type not found."));
 		}
 		boolean isUpdated = dlvrrestManager.updateDeliveryResultType(dlvrrestType);
+		referenceDataCache.invalidateDeliveryResultTypes();
 		if (!isUpdated) {
 			throw new OHAPIException(new OHExceptionMessage("Delivery Result Type is not updated."), HttpStatus.INTERNAL_SERVER_ERROR);
 		}
@@ -143,6 +151,7 @@ public class DeliveryResultTypeController {
 					.collect(Collectors.toList());
 			if (!dlvrrestTypeFounds.isEmpty()) {
 				isDeleted = dlvrrestManager.deleteDeliveryResultType(dlvrrestTypeFounds.get(0));
+				referenceDataCache.invalidateDeliveryResultTypes();
 			}
 		} else {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
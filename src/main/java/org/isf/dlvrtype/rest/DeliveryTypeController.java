@@ -28,6 +28,7 @@ import org.isf.dlvrtype.dto.DeliveryTypeDTO;
 import org.isf.dlvrtype.manager.DeliveryTypeBrowserManager;
 import org.isf.dlvrtype.mapper.DeliveryTypeMapper;
 import org.isf.dlvrtype.model.DeliveryType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -58,9 +59,14 @@ public class DeliveryTypeController {
 	@Autowired
 	protected DeliveryTypeMapper deliveryTypeMapper;
 
-	public DeliveryTypeController(DeliveryTypeBrowserManager dlvrtypeManager, DeliveryTypeMapper deliveryTypeMapper) {
+	@Autowired
+	protected ReferenceDataCache referenceDataCache;
+
+	public DeliveryTypeController(DeliveryTypeBrowserManager dlvrtypeManager, DeliveryTypeMapper deliveryTypeMapper,
+			ReferenceDataCache referenceDataCache) {
 		this.dlvrtypeManager = dlvrtypeManager;
 		this.deliveryTypeMapper = deliveryTypeMapper;
+		this.referenceDataCache = referenceDataCache;
 	}
 
 	/**
@@ -74,6 +80,7 @@ public class DeliveryTypeController {
 		String code = dlvrTypeDTO.getCode();
 		LOGGER.info("Create Delivery type {}", code);
 		boolean isCreated = dlvrtypeManager.newDeliveryType(deliveryTypeMapper.map2Model(dlvrTypeDTO));
+		referenceDataCache.invalidateDeliveryTypes();
 		DeliveryType dlvrTypeCreated = null;
 		List<DeliveryType> dlvrTypeFounds = dlvrtypeManager.getDeliveryType().stream().filter(ad -> ad.getCode().equals(code))
 				.collect(Collectors.toList());
@@ -100,6 +107,7 @@ public class DeliveryTypeController {
 			throw new OHAPIException(new OHExceptionMessage("Delivery Type not found."));
 		}
 		boolean isUpdated = dlvrtypeManager.updateDeliveryType(dlvrType);
+		referenceDataCache.invalidateDeliveryTypes();
 		if (!isUpdated) {
 			throw new OHAPIException(new OHExceptionMessage("Delivery Type is not updated."));
 		}
@@ -139,6 +147,7 @@ public class DeliveryTypeController {
 					.collect(Collectors.toList());
 			if (!dlvrTypeFounds.isEmpty()) {
 				isDeleted = dlvrtypeManager.deleteDeliveryType(dlvrTypeFounds.get(0));
+				referenceDataCache.invalidateDeliveryTypes();
 			}
 		} else {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -0,0 +1,106 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.events.dto;
+
+import java.time.LocalDateTime;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class WardEventDTO {
+
+	@ApiModelProperty(notes = "the kind of change")
+	private WardEventType type;
+
+	@ApiModelProperty(notes = "the ward of the changed record, null if unknown", example = "M")
+	private String ward;
+
+	@ApiModelProperty(notes = "the target ward of a movement", example = "I")
+	private String wardTo;
+
+	@ApiModelProperty(notes = "the id of the changed admission, opd or movement", example = "42")
+	private Integer id;
+
+	@ApiModelProperty(notes = "the code of the patient concerned", example = "1")
+	private Integer patientCode;
+
+	private LocalDateTime timestamp;
+
+	public WardEventDTO() {
+	}
+
+	public WardEventDTO(WardEventType type, String ward, String wardTo, Integer id, Integer patientCode) {
+		this.type = type;
+		this.ward = ward;
+		this.wardTo = wardTo;
+		this.id = id;
+		this.patientCode = patientCode;
+		this.timestamp = LocalDateTime.now();
+	}
+
+	public WardEventType getType() {
+		return this.type;
+	}
+
+	public String getWard() {
+		return this.ward;
+	}
+
+	public String getWardTo() {
+		return this.wardTo;
+	}
+
+	public Integer getId() {
+		return this.id;
+	}
+
+	public Integer getPatientCode() {
+		return this.patientCode;
+	}
+
+	public LocalDateTime getTimestamp() {
+		return this.timestamp;
+	}
+
+	public void setType(WardEventType type) {
+		this.type = type;
+	}
+
+	public void setWard(String ward) {
+		this.ward = ward;
+	}
+
+	public void setWardTo(String wardTo) {
+		this.wardTo = wardTo;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public void setPatientCode(Integer patientCode) {
+		this.patientCode = patientCode;
+	}
+
+	public void setTimestamp(LocalDateTime timestamp) {
+		this.timestamp = timestamp;
+	}
+}
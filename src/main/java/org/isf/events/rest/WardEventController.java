@@ -0,0 +1,68 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.events.rest;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.isf.events.service.WardEventBroadcaster;
+import org.isf.shared.exceptions.OHAPIException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.Authorization;
+
+@RestController
+@Api(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE, authorizations = {@Authorization(value="apiKey")})
+public class WardEventController {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(WardEventController.class);
+
+	@Autowired
+	private WardEventBroadcaster wardEventBroadcaster;
+
+	public WardEventController(WardEventBroadcaster wardEventBroadcaster) {
+		this.wardEventBroadcaster = wardEventBroadcaster;
+	}
+
+	/**
+	 * Open a Server-Sent Events stream of the changes of admissions, discharges, OPDs and ward movements.
+	 * <p>
+	 * Every event is named after its {@code WardEventType} and carries a {@code WardEventDTO}; events whose ward is
+	 * unknown (e.g. OPD deletions) are sent to every stream.
+	 *
+	 * @param wards the ward codes to follow, all the wards if omitted
+	 * @return the event stream
+	 * @throws OHAPIException if the server already serves the maximum number of streams
+	 */
+	@GetMapping(value = "/events/wards", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter getWardEvents(@RequestParam(name = "ward", required = false) List<String> wards) throws OHAPIException {
+		LOGGER.info("Subscribe to ward events for wards: {}", wards);
+		return wardEventBroadcaster.subscribe(wards == null ? null : new HashSet<>(wards));
+	}
+}
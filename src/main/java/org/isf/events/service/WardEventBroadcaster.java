@@ -0,0 +1,228 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.events.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.isf.events.dto.WardEventDTO;
+import org.isf.events.dto.WardEventType;
+import org.isf.shared.exceptions.OHAPIException;
+import org.isf.utils.exception.model.OHExceptionMessage;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the changes of admissions, OPDs and ward movements to the clients subscribed to {@code /events/wards}.
+ * <p>
+ * The write endpoints call {@link #publish} once their change is stored; the events are queued and sent by a single
+ * dispatcher thread, so a slow client never delays a write. The event ids are consecutive within each stream; when the
+ * queue is full the newest events are dropped and counted, and every stream then skips an id, so clients that care
+ * about gaps know that they may have missed an event.
+ */
+@Component
+public class WardEventBroadcaster {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(WardEventBroadcaster.class);
+
+	private static final long DEFAULT_TIMEOUT_MINUTES = 30L;
+	private static final int DEFAULT_MAX_SUBSCRIBERS = 500;
+	private static final int DEFAULT_QUEUE_SIZE = 1000;
+	private static final long DEFAULT_HEARTBEAT_SECONDS = 25L;
+
+	@Autowired
+	private Environment env;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	/* reserved before a subscriber is added and released when it is removed, so the cap holds under concurrent subscriptions */
+	private final AtomicInteger slots = new AtomicInteger();
+
+	/* set when an event is dropped, cleared by the next dispatch */
+	private final AtomicBoolean lost = new AtomicBoolean();
+
+	private final LongAdder dropped = new LongAdder();
+
+	private long timeoutMillis;
+	private int maxSubscribers;
+	private ThreadPoolExecutor dispatcher;
+	private ScheduledExecutorService heartbeat;
+
+	@PostConstruct
+	public void init() {
+		timeoutMillis = TimeUnit.MINUTES.toMillis(env.getProperty("events.sse.timeout", Long.class, DEFAULT_TIMEOUT_MINUTES));
+		maxSubscribers = env.getProperty("events.sse.max.subscribers", Integer.class, DEFAULT_MAX_SUBSCRIBERS);
+		int queueSize = Math.max(1, env.getProperty("events.sse.queue.size", Integer.class, DEFAULT_QUEUE_SIZE));
+		long heartbeatSeconds = env.getProperty("events.sse.heartbeat", Long.class, DEFAULT_HEARTBEAT_SECONDS);
+		dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+			Thread thread = new Thread(runnable, "oh-events-dispatcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "oh-events-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		heartbeat.shutdownNow();
+		dispatcher.shutdownNow();
+		subscribers.forEach(subscriber -> subscriber.emitter.complete());
+		subscribers.clear();
+	}
+
+	/**
+	 * Open a new event stream.
+	 *
+	 * @param wards the ward codes the client is interested in, empty for all the wards
+	 * @return the emitter of the stream
+	 * @throws OHAPIException if the maximum number of streams is reached
+	 */
+	public SseEmitter subscribe(Set<String> wards) throws OHAPIException {
+		if (slots.incrementAndGet() > maxSubscribers) {
+			slots.decrementAndGet();
+			throw new OHAPIException(new OHExceptionMessage("Too many event subscribers."), HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		SseEmitter emitter = newEmitter(timeoutMillis);
+		Subscriber subscriber = new Subscriber(emitter, wards == null ? Collections.emptySet() : wards);
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(e -> remove(subscriber));
+		subscribers.add(subscriber);
+		LOGGER.debug("Event subscriber added for wards {}, {} subscribers", subscriber.wards, subscribers.size());
+		return emitter;
+	}
+
+	/**
+	 * Queue an event for the subscribers of the wards concerned.
+	 *
+	 * @param type the kind of change
+	 * @param ward the ward of the changed record, {@code null} if unknown: the event then goes to every subscriber
+	 * @param wardTo the target ward of a movement, or {@code null}
+	 * @param id the id of the changed record
+	 * @param patientCode the code of the patient concerned, or {@code null}
+	 */
+	public void publish(WardEventType type, String ward, String wardTo, Integer id, Integer patientCode) {
+		if (subscribers.isEmpty()) {
+			return;
+		}
+		WardEventDTO event = new WardEventDTO(type, ward, wardTo, id, patientCode);
+		try {
+			dispatcher.execute(() -> dispatch(event));
+		} catch (RejectedExecutionException e) {
+			dropped.increment();
+			lost.set(true);
+			LOGGER.warn("Ward event {} {} dropped, the dispatch queue is full", type, id);
+		}
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	SseEmitter newEmitter(long timeout) {
+		return new SseEmitter(timeout);
+	}
+
+	private void dispatch(WardEventDTO event) {
+		boolean skip = lost.getAndSet(false);
+		for (Subscriber subscriber : subscribers) {
+			if (skip) {
+				subscriber.sequence++;
+			}
+			if (subscriber.accepts(event)) {
+				send(subscriber, SseEmitter.event()
+						.id(String.valueOf(++subscriber.sequence))
+						.name(event.getType().name())
+						.data(event, MediaType.APPLICATION_JSON));
+			}
+		}
+	}
+
+	private void sendHeartbeat() {
+		for (Subscriber subscriber : subscribers) {
+			send(subscriber, SseEmitter.event().comment("keep-alive"));
+		}
+	}
+
+	private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+		try {
+			subscriber.emitter.send(event);
+		} catch (IOException | IllegalStateException e) {
+			// the client went away
+			remove(subscriber);
+			subscriber.emitter.completeWithError(e);
+		}
+	}
+
+	private void remove(Subscriber subscriber) {
+		if (subscribers.remove(subscriber)) {
+			slots.decrementAndGet();
+		}
+	}
+
+	private static final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final Set<String> wards;
+
+		/* id of the last event sent, only used by the dispatcher thread */
+		private long sequence;
+
+		Subscriber(SseEmitter emitter, Set<String> wards) {
+			this.emitter = emitter;
+			this.wards = wards;
+		}
+
+		boolean accepts(WardEventDTO event) {
+			return wards.isEmpty() || event.getWard() == null || wards.contains(event.getWard())
+					|| event.getWardTo() != null && wards.contains(event.getWardTo());
+		}
+	}
+}
@@ -22,15 +22,16 @@
 package org.isf.exam.rest;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.isf.exa.manager.ExamBrowsingManager;
 import org.isf.exa.model.Exam;
 import org.isf.exam.dto.ExamDTO;
 import org.isf.exam.mapper.ExamMapper;
-import org.isf.exatype.manager.ExamTypeBrowserManager;
 import org.isf.exatype.model.ExamType;
+import org.isf.shared.cache.ExamCatalogueCache;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.stats.service.ReportGenerator;
+import org.isf.stats.service.ReportGenerator.Report;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
@@ -59,19 +60,25 @@ public class ExamController {
     protected ExamBrowsingManager examManager;
 
     @Autowired
-    protected ExamTypeBrowserManager examTypeBrowserManager;
+    protected ExamCatalogueCache examCatalogueCache;
 
     @Autowired
     private ExamMapper examMapper;
 
-    public ExamController(ExamBrowsingManager examManager, ExamMapper examMapper) {
+    @Autowired
+    private ReportGenerator reportGenerator;
+
+    public ExamController(ExamBrowsingManager examManager, ExamMapper examMapper, ReportGenerator reportGenerator,
+            ExamCatalogueCache examCatalogueCache) {
         this.examManager = examManager;
         this.examMapper = examMapper;
+        this.reportGenerator = reportGenerator;
+        this.examCatalogueCache = examCatalogueCache;
     }
 
     @PostMapping(value = "/exams", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ExamDTO> newExam(@RequestBody ExamDTO newExam) throws OHServiceException {
-        ExamType examType = examTypeBrowserManager.getExamType().stream().filter(et -> newExam.getExamtype().getCode().equals(et.getCode())).findFirst().orElse(null);
+        ExamType examType = examCatalogueCache.getExamType(newExam.getExamtype().getCode());
 
         if (examType == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam type not found."));
@@ -84,6 +91,8 @@ public class ExamController {
         if (!isCreated) {
             throw new OHAPIException(new OHExceptionMessage("Exam not created."));
         }
+        examCatalogueCache.invalidate();
+        reportGenerator.invalidate(Report.EXAMS_LIST);
         return ResponseEntity.ok(examMapper.map2DTO(exam));
     }
 
@@ -93,11 +102,11 @@ public class ExamController {
         if (!updateExam.getCode().equals(code)) {
             throw new OHAPIException(new OHExceptionMessage("Exam code mismatch."));
         }
-        if (examManager.getExams().stream().noneMatch(e -> e.getCode().equals(code))) {
+        if (examCatalogueCache.getExam(code) == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam not found."));
         }
 
-        ExamType examType = examTypeBrowserManager.getExamType().stream().filter(et -> updateExam.getExamtype().getCode().equals(et.getCode())).findFirst().orElse(null);
+        ExamType examType = examCatalogueCache.getExamType(updateExam.getExamtype().getCode());
         if (examType == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam type not found."));
         }
@@ -109,6 +118,8 @@ public class ExamController {
         if (examUpdated == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam not updated."));
         }
+        examCatalogueCache.invalidate();
+        reportGenerator.invalidate(Report.EXAMS_LIST);
 
         return ResponseEntity.ok(examMapper.map2DTO(examUpdated));
     }
@@ -116,7 +127,7 @@ public class ExamController {
 
     @GetMapping(value = "/exams/description/{description:.+}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<ExamDTO>> getExams(@PathVariable String description) throws OHServiceException {
-        List<ExamDTO> exams = examMapper.map2DTOList(examManager.getExams(description));
+        List<ExamDTO> exams = examMapper.map2DTOList(examCatalogueCache.getExamsByTypeDescription(description));
 
         if (exams == null || exams.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
@@ -138,13 +149,15 @@ public class ExamController {
 
     @DeleteMapping(value = "/exams/{code:.+}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Boolean> deleteExam(@PathVariable String code) throws OHServiceException {
-        Optional<Exam> exam = examManager.getExams().stream().filter(e -> e.getCode().equals(code)).findFirst();
-        if (!exam.isPresent()) {
+        Exam exam = examCatalogueCache.getExam(code);
+        if (exam == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam not found."));
         }
-        if (!examManager.deleteExam(exam.get())) {
+        if (!examManager.deleteExam(exam)) {
             throw new OHAPIException(new OHExceptionMessage("Exam not deleted."));
         }
+        examCatalogueCache.invalidate();
+        reportGenerator.invalidate(Report.EXAMS_LIST);
         return ResponseEntity.ok(true);
     }
 }
@@ -23,12 +23,12 @@ package org.isf.exam.rest;
 
 import java.util.List;
 
-import org.isf.exa.manager.ExamBrowsingManager;
 import org.isf.exa.manager.ExamRowBrowsingManager;
 import org.isf.exa.model.Exam;
 import org.isf.exa.model.ExamRow;
 import org.isf.exam.dto.ExamRowDTO;
 import org.isf.exam.mapper.ExamRowMapper;
+import org.isf.shared.cache.ExamCatalogueCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -56,7 +56,7 @@ public class ExamRowController {
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(ExamRowController.class);
 
     @Autowired
-    protected ExamBrowsingManager examManager;
+    protected ExamCatalogueCache examCatalogueCache;
 
     @Autowired
     protected ExamRowBrowsingManager examRowBrowsingManager;
@@ -64,15 +64,15 @@ public class ExamRowController {
     @Autowired
     private ExamRowMapper examRowMapper;
 
-    public ExamRowController(ExamBrowsingManager examManager, ExamRowBrowsingManager examRowBrowsingManager, ExamRowMapper examRowMapper) {
-        this.examManager = examManager;
+    public ExamRowController(ExamCatalogueCache examCatalogueCache, ExamRowBrowsingManager examRowBrowsingManager, ExamRowMapper examRowMapper) {
+        this.examCatalogueCache = examCatalogueCache;
         this.examRowBrowsingManager = examRowBrowsingManager;
         this.examRowMapper = examRowMapper;
     }
 
     @PostMapping(value = "/examrows", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ExamRowDTO> newExamRow(@RequestBody ExamRowDTO examRowDTO) throws OHServiceException {
-        Exam exam = examManager.getExams().stream().filter(e -> examRowDTO.getExam().getCode().equals(e.getCode())).findFirst().orElse(null);
+        Exam exam = examCatalogueCache.getExam(examRowDTO.getExam().getCode());
 
         if (exam == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam not found."));
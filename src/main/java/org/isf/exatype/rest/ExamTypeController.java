@@ -22,13 +22,15 @@
 package org.isf.exatype.rest;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.isf.exatype.dto.ExamTypeDTO;
 import org.isf.exatype.manager.ExamTypeBrowserManager;
 import org.isf.exatype.mapper.ExamTypeMapper;
 import org.isf.exatype.model.ExamType;
+import org.isf.shared.cache.ExamCatalogueCache;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.stats.service.ReportGenerator;
+import org.isf.stats.service.ReportGenerator.Report;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
@@ -59,9 +61,18 @@ public class ExamTypeController {
     @Autowired
     private ExamTypeMapper examTypeMapper;
 
-    public ExamTypeController(ExamTypeBrowserManager examTypeBrowserManager, ExamTypeMapper examTypeMapper) {
+    @Autowired
+    private ReportGenerator reportGenerator;
+
+    @Autowired
+    private ExamCatalogueCache examCatalogueCache;
+
+    public ExamTypeController(ExamTypeBrowserManager examTypeBrowserManager, ExamTypeMapper examTypeMapper, ReportGenerator reportGenerator,
+            ExamCatalogueCache examCatalogueCache) {
         this.examTypeBrowserManager = examTypeBrowserManager;
         this.examTypeMapper = examTypeMapper;
+        this.reportGenerator = reportGenerator;
+        this.examCatalogueCache = examCatalogueCache;
     }
 
 	@PostMapping(value = "/examtypes", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -72,6 +83,7 @@ public class ExamTypeController {
 		if (createdExamType == null) {
 			throw new OHAPIException(new OHExceptionMessage("Exam Type type not created."));
 		}
+		examCatalogueCache.invalidate();
 
 		return ResponseEntity.status(HttpStatus.CREATED).body(examTypeMapper.map2DTO(createdExamType));
 	}
@@ -91,6 +103,9 @@ public class ExamTypeController {
         if (exType == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam Type not updated."));
         }
+        examCatalogueCache.invalidate();
+        // the exams list shows the type descriptions
+        reportGenerator.invalidate(Report.EXAMS_LIST);
 
         return ResponseEntity.ok(examTypeMapper.map2DTO(exType));
     }
@@ -110,13 +125,14 @@ public class ExamTypeController {
     @DeleteMapping(value = "/examtypes/{code:.+}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Boolean> deleteExamType(@PathVariable String code) throws OHServiceException {
 	    LOGGER.info("Delete exams code: {}", code);
-        Optional<ExamType> examType = examTypeBrowserManager.getExamType().stream().filter(e -> e.getCode().equals(code)).findFirst();
-        if (!examType.isPresent()) {
+        ExamType examType = examCatalogueCache.getExamType(code);
+        if (examType == null) {
             throw new OHAPIException(new OHExceptionMessage("Exam Type not found."));
         }
-        if (!examTypeBrowserManager.deleteExamType(examType.get())) {
+        if (!examTypeBrowserManager.deleteExamType(examType)) {
             throw new OHAPIException(new OHExceptionMessage("Exam Type not deleted."));
         }
+        examCatalogueCache.invalidate();
         return ResponseEntity.ok(true);
     }
 
@@ -24,11 +24,13 @@ package org.isf.lab.rest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import org.isf.exa.manager.ExamBrowsingManager;
 import org.isf.exa.model.Exam;
 import org.isf.lab.dto.LabWithRowsDTO;
 import org.isf.lab.dto.LaboratoryDTO;
@@ -40,10 +42,16 @@ import org.isf.lab.mapper.LaboratoryRowMapper;
 import org.isf.lab.model.Laboratory;
 import org.isf.lab.model.LaboratoryRow;
 import org.isf.lab.model.LaboratoryStatus;
+import org.isf.lab.service.LaboratoryKeysetLoader;
+import org.isf.lab.service.LaboratoryRowBatchLoader;
 import org.isf.patient.dto.PatientSTATUS;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
+import org.isf.patient.service.PatientBatchLoader;
+import org.isf.shared.cache.ExamCatalogueCache;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.pagination.KeysetCursor;
+import org.isf.shared.pagination.KeysetPage;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
@@ -74,7 +82,7 @@ public class LaboratoryController {
 	protected LabManager laboratoryManager;
 
 	@Autowired
-	protected ExamBrowsingManager examManager;
+	protected ExamCatalogueCache examCatalogueCache;
 
 	@Autowired
 	private PatientBrowserManager patientBrowserManager;
@@ -88,15 +96,28 @@ public class LaboratoryController {
 	@Autowired
 	private LaboratoryForPrintMapper laboratoryForPrintMapper;
 
+	@Autowired
+	private LaboratoryRowBatchLoader laboratoryRowBatchLoader;
+
+	@Autowired
+	private LaboratoryKeysetLoader laboratoryKeysetLoader;
+
+	@Autowired
+	private PatientBatchLoader patientBatchLoader;
+
 	public LaboratoryController(LabManager laboratoryManager, PatientBrowserManager patientBrowserManager,
-			ExamBrowsingManager examManager, LaboratoryMapper laboratoryMapper, LaboratoryRowMapper laboratoryRowMapper,
-			LaboratoryForPrintMapper laboratoryForPrintMapper) {
+			ExamCatalogueCache examCatalogueCache, LaboratoryMapper laboratoryMapper, LaboratoryRowMapper laboratoryRowMapper,
+			LaboratoryForPrintMapper laboratoryForPrintMapper, LaboratoryRowBatchLoader laboratoryRowBatchLoader,
+			LaboratoryKeysetLoader laboratoryKeysetLoader, PatientBatchLoader patientBatchLoader) {
 		this.laboratoryManager = laboratoryManager;
 		this.patientBrowserManager = patientBrowserManager;
-		this.examManager = examManager;
+		this.examCatalogueCache = examCatalogueCache;
 		this.laboratoryMapper = laboratoryMapper;
 		this.laboratoryRowMapper = laboratoryRowMapper;
 		this.laboratoryForPrintMapper = laboratoryForPrintMapper;
+		this.laboratoryRowBatchLoader = laboratoryRowBatchLoader;
+		this.laboratoryKeysetLoader = laboratoryKeysetLoader;
+		this.patientBatchLoader = patientBatchLoader;
 	}
 
 	/**
@@ -117,8 +138,7 @@ public class LaboratoryController {
 			throw new OHAPIException(new OHExceptionMessage("Patient not found."));
 		}
 
-		Exam exam = examManager.getExams().stream().filter(e -> e.getCode().equals(laboratoryDTO.getExam().getCode()))
-				.findFirst().orElse(null);
+		Exam exam = examCatalogueCache.getExam(laboratoryDTO.getExam().getCode());
 		if (exam == null) {
 			throw new OHAPIException(new OHExceptionMessage("Exam not found."));
 		}
@@ -158,8 +178,7 @@ public class LaboratoryController {
 			throw new OHAPIException(new OHExceptionMessage("Patient not found."));
 		}
 
-		Exam exam = examManager.getExams().stream().filter(e -> e.getCode().equals(laboratoryDTO.getExam().getCode()))
-				.findFirst().orElse(null);
+		Exam exam = examCatalogueCache.getExam(laboratoryDTO.getExam().getCode());
 		if (exam == null) {
 			throw new OHAPIException(new OHExceptionMessage("Exam not found."));
 		}
@@ -192,6 +211,10 @@ public class LaboratoryController {
 
 	/**
 	 * Create a {@link List} of {@link LaboratoryRow}.
+	 * <p>
+	 * The patients and the exams of the whole batch are resolved at once and every item is validated
+	 * before inserting anything: if some items are invalid nothing is inserted and the response lists
+	 * one error per invalid item.
 	 * 
 	 * @param labsWithRows
 	 * @return {@code true} if the record has been create,  {@code false} otherwise.
@@ -204,17 +227,39 @@ public class LaboratoryController {
 		List<Laboratory> labsToInsert = new ArrayList<>();
 		List<List<LaboratoryRow>> labsRowsToInsert = new ArrayList<>();
 
-		for (LabWithRowsDTO labWithRowsDTO : labsWithRows) {
+		Map<Integer, Patient> patients = patientBatchLoader.getPatients(labsWithRows.stream()
+				.filter(Objects::nonNull)
+				.map(LabWithRowsDTO::getLaboratoryDTO)
+				.filter(laboratoryDTO -> laboratoryDTO != null && laboratoryDTO.getPatientCode() != null)
+				.map(LaboratoryDTO::getPatientCode)
+				.collect(Collectors.toSet()));
+
+		List<OHExceptionMessage> errors = new ArrayList<>();
+		for (int i = 0; i < labsWithRows.size(); i++) {
+			LabWithRowsDTO labWithRowsDTO = labsWithRows.get(i);
+			if (labWithRowsDTO == null) {
+				errors.add(new OHExceptionMessage("Item " + i + ": item missing."));
+				continue;
+			}
 			LaboratoryDTO laboratoryDTO = labWithRowsDTO.getLaboratoryDTO();
-			Patient patient = patientBrowserManager.getPatientById(laboratoryDTO.getPatientCode());
+			if (laboratoryDTO == null) {
+				errors.add(new OHExceptionMessage("Item " + i + ": laboratory missing."));
+				continue;
+			}
+			Patient patient = patients.get(laboratoryDTO.getPatientCode());
 			if (patient == null) {
-				throw new OHAPIException(new OHExceptionMessage("Patient not found."));
+				errors.add(new OHExceptionMessage("Item " + i + ": patient " + laboratoryDTO.getPatientCode() + " not found."));
 			}
-
-			Exam exam = examManager.getExams().stream()
-					.filter(e -> e.getCode().equals(laboratoryDTO.getExam().getCode())).findFirst().orElse(null);
+			Exam exam = laboratoryDTO.getExam() == null ? null : examCatalogueCache.getExam(laboratoryDTO.getExam().getCode());
 			if (exam == null) {
-				throw new OHAPIException(new OHExceptionMessage("Exam not found."));
+				errors.add(new OHExceptionMessage("Item " + i + ": exam "
+						+ (laboratoryDTO.getExam() == null ? null : laboratoryDTO.getExam().getCode()) + " not found."));
+			}
+			if (laboratoryDTO.getInOutPatient() == null) {
+				errors.add(new OHExceptionMessage("Item " + i + ": inOutPatient missing."));
+			}
+			if (patient == null || exam == null || laboratoryDTO.getInOutPatient() == null) {
+				continue;
 			}
 
 			Laboratory labToInsert = laboratoryMapper.map2Model(laboratoryDTO);
@@ -234,6 +279,10 @@ public class LaboratoryController {
 				}
 			}
 		}
+		if (!errors.isEmpty()) {
+			LOGGER.info("{} of {} exams rejected", errors.size(), labsWithRows.size());
+			throw new OHAPIException(errors);
+		}
 
 		boolean inserted = laboratoryManager.newLaboratory2(labsToInsert, labsRowsToInsert);
 
@@ -272,8 +321,7 @@ public class LaboratoryController {
 			throw new OHAPIException(new OHExceptionMessage("Patient not found."));
 		}
 
-		Exam exam = examManager.getExams().stream().filter(e -> e.getCode().equals(laboratoryDTO.getExam().getCode()))
-				.findFirst().orElse(null);
+		Exam exam = examCatalogueCache.getExam(laboratoryDTO.getExam().getCode());
 		if (exam == null) {
 			throw new OHAPIException(new OHExceptionMessage("Exam not found."));
 		}
@@ -347,45 +395,37 @@ public class LaboratoryController {
 	/**
 	 * Get the list of exams {@link LaboratoryRow}s divided by pages.
 	 * 
+	 * When a {@code cursor} is given (empty for the first page) {@code pageNo} is ignored and the page
+	 * that follows the cursor is returned, with the cursor of the next one in the
+	 * {@value KeysetCursor#NEXT_CURSOR_HEADER} header.
+	 * 
 	 * @param onWeek
 	 * @param pageNo
 	 * @param pageSize
+	 * @param cursor
 	 * @return the {@link List} of found {@link LaboratoryRow} or NO_CONTENT otherwise.
 	 * @throws OHServiceException
 	 */
 	@GetMapping(value = "/laboratories", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<LabWithRowsDTO>> getLaboratory(@RequestParam boolean onWeek, @RequestParam int pageNo, @RequestParam int pageSize) throws OHServiceException {
+	public ResponseEntity<List<LabWithRowsDTO>> getLaboratory(@RequestParam boolean onWeek,
+					@RequestParam(required = false, defaultValue = "0") int pageNo, @RequestParam int pageSize,
+					@RequestParam(value = "cursor", required = false) String cursor) throws OHServiceException {
 		LOGGER.info("Get all LabWithRows");
+		if (cursor != null) {
+			if (pageSize < 1) {
+				throw new OHAPIException(new OHExceptionMessage("Page size must be positive."));
+			}
+			KeysetPage<Laboratory> labPage = laboratoryKeysetLoader.getLaboratory(onWeek, KeysetCursor.decode(cursor), pageSize);
+			if (labPage.getItems().isEmpty()) {
+				return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
+			}
+			return ResponseEntity.ok().headers(labPage.getHeaders()).body(mapLabsWithRows(labPage.getItems()));
+		}
 		List<Laboratory> labList = laboratoryManager.getLaboratory(onWeek, pageNo, pageSize);
 		if (labList == null || labList.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
 		}
-		return ResponseEntity.ok(labList.stream().map(lab -> {
-			LabWithRowsDTO labDTO = new LabWithRowsDTO();
-			List<String> labDescription = new ArrayList<>();
-			LaboratoryDTO laboratoryDTO = laboratoryMapper.map2DTO(lab);
-			if (lab.getExam().getProcedure() == 2) {
-				List<LaboratoryRow> labDes = new ArrayList<>();
-				try {
-					labDes = laboratoryManager.getLaboratoryRowList(lab.getCode());
-				} catch (OHServiceException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-				if (!labDes.isEmpty()) {
-					for (LaboratoryRow laboratoryRow : labDes) {
-						labDescription.add(laboratoryRow.getDescription());
-					}
-				}
-
-			}
-			laboratoryDTO.setRegistrationDate(lab.getCreatedDate());
-			laboratoryDTO.setInOutPatient(PatientSTATUS.valueOf(lab.getInOutPatient()));
-			laboratoryDTO.setStatus(LaboratoryStatus.valueOf(lab.getStatus().toUpperCase()));
-			labDTO.setLaboratoryDTO(laboratoryDTO);
-			labDTO.setLaboratoryRowList(labDescription);
-			return labDTO;
-		}).collect(Collectors.toList()));
+		return ResponseEntity.ok(mapLabsWithRows(labList));
 	}
 	
 	/**
@@ -408,32 +448,7 @@ public class LaboratoryController {
 		if (labList == null || labList.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
 		}
-		return ResponseEntity.ok(labList.stream().map(lab -> {
-			LabWithRowsDTO labDTO = new LabWithRowsDTO();
-			List<String> labDescription = new ArrayList<>();
-			LaboratoryDTO laboratoryDTO = laboratoryMapper.map2DTO(lab);
-			if (lab.getExam().getProcedure() == 2) {
-				List<LaboratoryRow> labDes = new ArrayList<>();
-				try {
-					labDes = laboratoryManager.getLaboratoryRowList(lab.getCode());
-				} catch (OHServiceException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-				if (!labDes.isEmpty()) {
-					for (LaboratoryRow laboratoryRow : labDes) {
-						labDescription.add(laboratoryRow.getDescription());
-					}
-				}
-
-			}
-			laboratoryDTO.setRegistrationDate(lab.getCreatedDate());
-			laboratoryDTO.setInOutPatient(PatientSTATUS.valueOf(lab.getInOutPatient()));
-			laboratoryDTO.setStatus(LaboratoryStatus.valueOf(lab.getStatus().toUpperCase()));
-			labDTO.setLaboratoryDTO(laboratoryDTO);
-			labDTO.setLaboratoryRowList(labDescription);
-			return labDTO;
-		}).collect(Collectors.toList()));
+		return ResponseEntity.ok(mapLabsWithRows(labList));
 	}
 	
 	/**
@@ -556,32 +571,7 @@ public class LaboratoryController {
 		if (laboratoryList == null || laboratoryList.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
 		} else {
-			return ResponseEntity.ok(laboratoryList.stream().map(lab -> {
-				LabWithRowsDTO labDTO = new LabWithRowsDTO();
-				List<String> labDescription = new ArrayList<>();
-				LaboratoryDTO laboratoryDTO = laboratoryMapper.map2DTO(lab);
-				if (lab.getExam().getProcedure() == 2) {
-					List<LaboratoryRow> labDes = new ArrayList<>();
-					try {
-						labDes = laboratoryManager.getLaboratoryRowList(lab.getCode());
-					} catch (OHServiceException e) {
-						// TODO Auto-generated catch block
-						e.printStackTrace();
-					}
-					if (!labDes.isEmpty()) {
-						for (LaboratoryRow laboratoryRow : labDes) {
-							labDescription.add(laboratoryRow.getDescription());
-						}
-					}
-
-				}
-				laboratoryDTO.setRegistrationDate(lab.getCreatedDate());
-				laboratoryDTO.setInOutPatient(PatientSTATUS.valueOf(lab.getInOutPatient()));
-				laboratoryDTO.setStatus(LaboratoryStatus.valueOf(lab.getStatus().toUpperCase()));
-				labDTO.setLaboratoryDTO(laboratoryDTO);
-				labDTO.setLaboratoryRowList(labDescription);
-				return labDTO;
-			}).collect(Collectors.toList()));
+			return ResponseEntity.ok(mapLabsWithRows(laboratoryList));
 		}
 	}
 
@@ -647,4 +637,36 @@ public class LaboratoryController {
 		return ResponseEntity.ok(lab);
 	}
 
+	/**
+	 * Maps the specified {@link Laboratory}s to {@link LabWithRowsDTO}s, loading the {@link LaboratoryRow}s
+	 * of all the procedure 2 exams with a single query.
+	 * 
+	 * @param labList
+	 * @return the {@link List} of {@link LabWithRowsDTO}, in the same order as {@code labList}.
+	 */
+	private List<LabWithRowsDTO> mapLabsWithRows(List<Laboratory> labList) {
+		List<Integer> labCodesWithRows = labList.stream()
+				.filter(lab -> lab.getExam().getProcedure() == 2)
+				.map(Laboratory::getCode)
+				.collect(Collectors.toList());
+		Map<Integer, List<LaboratoryRow>> rowsByLab = labCodesWithRows.isEmpty() ? Collections.emptyMap()
+				: laboratoryRowBatchLoader.getLaboratoryRows(labCodesWithRows);
+		return labList.stream().map(lab -> {
+			LabWithRowsDTO labDTO = new LabWithRowsDTO();
+			List<String> labDescription = new ArrayList<>();
+			LaboratoryDTO laboratoryDTO = laboratoryMapper.map2DTO(lab);
+			if (lab.getExam().getProcedure() == 2) {
+				for (LaboratoryRow laboratoryRow : rowsByLab.getOrDefault(lab.getCode(), Collections.emptyList())) {
+					labDescription.add(laboratoryRow.getDescription());
+				}
+			}
+			laboratoryDTO.setRegistrationDate(lab.getCreatedDate());
+			laboratoryDTO.setInOutPatient(PatientSTATUS.valueOf(lab.getInOutPatient()));
+			laboratoryDTO.setStatus(LaboratoryStatus.valueOf(lab.getStatus().toUpperCase()));
+			labDTO.setLaboratoryDTO(laboratoryDTO);
+			labDTO.setLaboratoryRowList(labDescription);
+			return labDTO;
+		}).collect(Collectors.toList());
+	}
+
 }
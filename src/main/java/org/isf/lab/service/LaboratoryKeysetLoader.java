@@ -0,0 +1,76 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.lab.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.isf.lab.model.Laboratory;
+import org.isf.lab.model.LaboratoryStatus;
+import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.pagination.KeysetCursor;
+import org.isf.shared.pagination.KeysetPage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the laboratory exams page by page, newest first, seeking on (date, code) instead of
+ * skipping rows with an OFFSET.
+ */
+@Component
+public class LaboratoryKeysetLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get the not deleted {@link Laboratory}s that follow the specified cursor, ordered by descending
+	 * date and code.
+	 *
+	 * @param onWeek if {@code true} only the exams of the last week are read
+	 * @param cursor the position of the last exam already read, {@code null} for the first page
+	 * @param size the page size
+	 * @return the page of exams
+	 * @throws OHAPIException if the cursor is not a laboratory cursor
+	 */
+	@Transactional(readOnly = true)
+	public KeysetPage<Laboratory> getLaboratory(boolean onWeek, KeysetCursor cursor, int size) throws OHAPIException {
+		TypedQuery<Laboratory> query = entityManager.createQuery("SELECT l FROM Laboratory l "
+				+ "WHERE l.status <> :deleted"
+				+ (onWeek ? " AND l.labDate >= :since" : "")
+				+ (cursor == null ? "" : " AND (l.labDate < :key OR (l.labDate = :key AND l.code < :code))")
+				+ " ORDER BY l.labDate DESC, l.code DESC", Laboratory.class)
+				.setParameter("deleted", LaboratoryStatus.DELETED.toString());
+		if (onWeek) {
+			query.setParameter("since", LocalDateTime.now().minusWeeks(1));
+		}
+		if (cursor != null) {
+			query.setParameter("key", cursor.getDateKey()).setParameter("code", cursor.getId());
+		}
+		List<Laboratory> rows = query.setMaxResults(size + 1).getResultList();
+		return KeysetPage.of(rows, size, lab -> KeysetCursor.of(lab.getLabDate(), lab.getCode()));
+	}
+}
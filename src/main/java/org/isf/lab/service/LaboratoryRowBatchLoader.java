@@ -0,0 +1,66 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.lab.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.isf.lab.model.LaboratoryRow;
+import org.isf.shared.query.ChunkedInQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Loads the {@link LaboratoryRow}s of many laboratories at once, instead of one
+ * {@code LabManager.getLaboratoryRowList()} call per laboratory.
+ */
+@Component
+public class LaboratoryRowBatchLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get the {@link LaboratoryRow}s of the specified laboratories, grouped by laboratory code.
+	 * 
+	 * @param labCodes the laboratory codes
+	 * @return a {@link Map} from laboratory code to its rows; laboratories without rows are not in the map.
+	 */
+	@Transactional(readOnly = true)
+	public Map<Integer, List<LaboratoryRow>> getLaboratoryRows(Collection<Integer> labCodes) {
+		Map<Integer, List<LaboratoryRow>> rowsByLab = new HashMap<>();
+		List<LaboratoryRow> rows = ChunkedInQuery.getResultList(labCodes, codes -> entityManager
+				.createQuery("SELECT r FROM LaboratoryRow r WHERE r.labCode.code IN :codes ORDER BY r.code", LaboratoryRow.class)
+				.setParameter("codes", codes)
+				.getResultList());
+		for (LaboratoryRow row : rows) {
+			rowsByLab.computeIfAbsent(row.getLabCode().getCode(), code -> new ArrayList<>()).add(row);
+		}
+		return rowsByLab;
+	}
+}
@@ -23,17 +23,14 @@ package org.isf.login.rest;
 
 import java.time.LocalDateTime;
 
-import javax.servlet.http.HttpSession;
 import javax.validation.Valid;
 
 import org.isf.login.dto.LoginRequest;
 import org.isf.login.dto.LoginResponse;
+import org.isf.login.service.SessionAuditRecorder;
 import org.isf.security.CustomAuthenticationManager;
 import org.isf.security.jwt.TokenProvider;
-import org.isf.sessionaudit.manager.SessionAuditManager;
-import org.isf.sessionaudit.model.SessionAudit;
 import org.isf.shared.exceptions.OHAPIException;
-import org.isf.utils.exception.OHServiceException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -52,10 +49,7 @@ import io.swagger.annotations.Api;
 public class LoginController {
 
 	@Autowired
-	private HttpSession httpSession;
-
-	@Autowired
-	private SessionAuditManager sessionAuditManager;
+	private SessionAuditRecorder sessionAuditRecorder;
 
 	@Autowired
 	private TokenProvider tokenProvider;
@@ -70,16 +64,10 @@ public class LoginController {
 		Authentication authentication = authenticationManager.authenticate(
 				new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 		SecurityContextHolder.getContext().setAuthentication(authentication);
-		String jwt = tokenProvider.generateJwtToken(authentication, true);
-
 		String userDetails = (String) authentication.getPrincipal();
 
-		try {
-			this.httpSession.setAttribute("sessionAuditId",
-					sessionAuditManager.newSessionAudit(new SessionAudit(userDetails, LocalDateTime.now(), null)));
-		} catch (OHServiceException e1) {
-			LOGGER.error("Unable to log user login in the session_audit table");
-		}
+		LocalDateTime loginDate = sessionAuditRecorder.login(userDetails);
+		String jwt = tokenProvider.generateJwtToken(authentication, true, loginDate);
 
 		return ResponseEntity.ok(new LoginResponse(jwt, userDetails));
 	}
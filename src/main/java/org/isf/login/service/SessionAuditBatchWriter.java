@@ -0,0 +1,90 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.login.service;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.isf.login.service.SessionAuditRecorder.Entry;
+import org.isf.sessionaudit.manager.SessionAuditManager;
+import org.isf.sessionaudit.model.SessionAudit;
+import org.isf.utils.exception.OHServiceException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores a batch of logins and logouts in a single transaction: the manager calls join it and the logout dates are
+ * flushed together at commit, in JDBC batches of {@code spring.jpa.properties.hibernate.jdbc.batch_size}.
+ * <p>
+ * A logout closes the open {@link SessionAudit} of the same user and login date, which is found even when its login is
+ * in the same batch or was recorded by another node. {@link SessionAuditRecorder} never gives two logins of a user the
+ * same date on one node; should two nodes do it in the same second, the rows are identical until their logouts, and
+ * the oldest open one is closed first.
+ */
+@Component
+public class SessionAuditBatchWriter {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(SessionAuditBatchWriter.class);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private SessionAuditManager sessionAuditManager;
+
+	public SessionAuditBatchWriter(SessionAuditManager sessionAuditManager) {
+		this.sessionAuditManager = sessionAuditManager;
+	}
+
+	/**
+	 * Store the entries in their order.
+	 *
+	 * @param entries the logins and logouts to store
+	 * @throws OHServiceException if an entry is not valid; nothing is stored then
+	 */
+	@Transactional(rollbackFor = OHServiceException.class)
+	public void write(List<Entry> entries) throws OHServiceException {
+		for (Entry entry : entries) {
+			if (entry.isLogin()) {
+				sessionAuditManager.newSessionAudit(new SessionAudit(entry.getUserName(), entry.getLoginDate(), null));
+				continue;
+			}
+			List<SessionAudit> sessionAudits = entityManager.createQuery(
+							"SELECT s FROM SessionAudit s WHERE s.userName = :userName AND s.loginDate = :loginDate AND s.logoutDate IS NULL ORDER BY s.code",
+							SessionAudit.class)
+							.setParameter("userName", entry.getUserName())
+							.setParameter("loginDate", entry.getLoginDate())
+							.setMaxResults(1)
+							.getResultList();
+			if (sessionAudits.isEmpty()) {
+				LOGGER.warn("No open session of {} logged in at {}", entry.getUserName(), entry.getLoginDate());
+				continue;
+			}
+			// managed: the update is flushed at commit
+			sessionAudits.get(0).setLogoutDate(entry.getLogoutDate());
+		}
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.login.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.isf.utils.exception.OHServiceException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the logins and logouts in the session audit off the request path.
+ * <p>
+ * In the default {@code async} mode, the entries go to a bounded queue drained in batches of
+ * {@code session.audit.batch.size} by a background thread, one transaction per batch; when the queue is full the
+ * callers wait for room, and the queue is flushed at shutdown. In {@code sync} mode every entry is stored before the
+ * call returns, as before.
+ * <p>
+ * A session is identified by its user and its login date, known before the {@code SessionAudit} row (and its id)
+ * exists and carried by the JWT: no state is kept between the login and the logout, which any node can record. To keep
+ * that key unique, the login dates of a user are strictly increasing on a node: a second login within the same second
+ * is dated one second later.
+ */
+@Component
+public class SessionAuditRecorder {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(SessionAuditRecorder.class);
+
+	private static final String DEFAULT_MODE = "async";
+	private static final int DEFAULT_QUEUE_SIZE = 10000;
+	private static final int DEFAULT_BATCH_SIZE = 100;
+
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10L;
+
+	@Autowired
+	private Environment env;
+
+	@Autowired
+	private SessionAuditBatchWriter sessionAuditBatchWriter;
+
+	private boolean async;
+	private int batchSize;
+	private BlockingQueue<Entry> queue;
+	private Thread writerThread;
+	private volatile boolean running;
+
+	/* last login date given to each user */
+	private final Map<String, LocalDateTime> lastLoginDates = new ConcurrentHashMap<>();
+
+	public SessionAuditRecorder(SessionAuditBatchWriter sessionAuditBatchWriter) {
+		this.sessionAuditBatchWriter = sessionAuditBatchWriter;
+	}
+
+	@PostConstruct
+	public void init() {
+		async = !"sync".equalsIgnoreCase(env.getProperty("session.audit.mode", DEFAULT_MODE));
+		batchSize = Math.max(1, env.getProperty("session.audit.batch.size", Integer.class, DEFAULT_BATCH_SIZE));
+		queue = new ArrayBlockingQueue<>(Math.max(1, env.getProperty("session.audit.queue.size", Integer.class, DEFAULT_QUEUE_SIZE)));
+		if (async) {
+			running = true;
+			writerThread = new Thread(this::drain, "oh-session-audit");
+			writerThread.setDaemon(true);
+			writerThread.start();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (writerThread == null) {
+			return;
+		}
+		running = false;
+		try {
+			writerThread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (writerThread.isAlive()) {
+			LOGGER.error("Session audit writer still busy after {} seconds, {} entries not stored", SHUTDOWN_TIMEOUT_SECONDS, queue.size());
+			return;
+		}
+		// entries queued while the writer was stopping
+		flush();
+	}
+
+	/**
+	 * Record a login.
+	 *
+	 * @param userName the user logging in
+	 * @return the login date, to the second as stored, to pass to {@link #logout(String, LocalDateTime)}; never the
+	 *         same for two logins of the user on this node
+	 */
+	public LocalDateTime login(String userName) {
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+		LocalDateTime loginDate = lastLoginDates.merge(userName, now, (last, date) -> date.isAfter(last) ? date : last.plusSeconds(1));
+		record(new Entry(userName, loginDate, null));
+		return loginDate;
+	}
+
+	/**
+	 * Record the logout of a session.
+	 *
+	 * @param userName the user logging out
+	 * @param loginDate the date returned by {@link #login(String)}
+	 */
+	public void logout(String userName, LocalDateTime loginDate) {
+		record(new Entry(userName, loginDate, LocalDateTime.now()));
+	}
+
+	public int getQueuedCount() {
+		return queue.size();
+	}
+
+	private void record(Entry entry) {
+		if (!async || !running) {
+			write(Collections.singletonList(entry));
+			return;
+		}
+		if (queue.offer(entry)) {
+			return;
+		}
+		LOGGER.warn("Session audit queue full ({} entries), waiting for the writer", queue.size());
+		try {
+			queue.put(entry);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			write(Collections.singletonList(entry));
+		}
+	}
+
+	private void drain() {
+		List<Entry> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				Entry first = queue.poll(1, TimeUnit.SECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (RuntimeException e) {
+				LOGGER.error("Unable to store {} session audit entries", batch.size(), e);
+			}
+			batch.clear();
+		}
+		flush();
+	}
+
+	private void flush() {
+		List<Entry> batch = new ArrayList<>(batchSize);
+		while (queue.drainTo(batch, batchSize) > 0) {
+			write(batch);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Store the entries in one transaction, or one by one if the batch fails, so that a bad entry does not lose the
+	 * others.
+	 */
+	private void write(List<Entry> entries) {
+		try {
+			sessionAuditBatchWriter.write(entries);
+		} catch (OHServiceException | RuntimeException e) {
+			if (entries.size() == 1) {
+				LOGGER.error("Unable to log user {} in the session_audit table", entries.get(0).isLogin() ? "login" : "logout", e);
+				return;
+			}
+			LOGGER.warn("Unable to store {} session audit entries at once, storing them one by one", entries.size(), e);
+			for (Entry entry : entries) {
+				write(Collections.singletonList(entry));
+			}
+		}
+	}
+
+	static final class Entry {
+
+		private final String userName;
+		private final LocalDateTime loginDate;
+		private final LocalDateTime logoutDate;
+
+		Entry(String userName, LocalDateTime loginDate, LocalDateTime logoutDate) {
+			this.userName = userName;
+			this.loginDate = loginDate;
+			this.logoutDate = logoutDate;
+		}
+
+		String getUserName() {
+			return userName;
+		}
+
+		LocalDateTime getLoginDate() {
+			return loginDate;
+		}
+
+		LocalDateTime getLogoutDate() {
+			return logoutDate;
+		}
+
+		boolean isLogin() {
+			return logoutDate == null;
+		}
+	}
+}
@@ -36,10 +36,12 @@ import org.isf.medicalstock.mapper.MovementMapper;
 import org.isf.medicalstock.model.Lot;
 import org.isf.medicalstock.model.Movement;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.streaming.JsonListStreamer;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.isf.ward.model.Ward;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -47,8 +49,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.annotations.Api;
 
@@ -69,6 +73,9 @@ public class StockMovementController {
 	
 	@Autowired
 	private MedicalBrowsingManager medicalManager;
+
+	@Autowired
+	private JsonListStreamer jsonListStreamer;
 	
 	/**
 	 * Insert a list of charging {@link Movement}s and related {@link Lot}s.
@@ -107,14 +114,15 @@ public class StockMovementController {
 	}
 	
 	/**
-	 * Retrieves all the {@link Movement}s.
+	 * Retrieves all the {@link Movement}s, streamed as they are mapped.
+	 * @param accept {@code application/x-ndjson} to get one movement per line instead of a JSON array
 	 * @return the retrieved movements.
 	 * @throws OHServiceException 
 	 */
-	@GetMapping(value = "/stockmovements", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<MovementDTO>> getMovements() throws OHServiceException { 
+	@GetMapping(value = "/stockmovements", produces = { MediaType.APPLICATION_JSON_VALUE, JsonListStreamer.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<StreamingResponseBody> getMovements(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws OHServiceException {
 		List<Movement> movements = movManager.getMovements();
-		return collectResults(movements);
+		return jsonListStreamer.stream(movements, movMapper::map2DTO, accept);
 	}
 	
 	/**
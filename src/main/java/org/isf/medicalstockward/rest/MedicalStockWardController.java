@@ -29,6 +29,8 @@ import java.util.stream.Collectors;
 
 import javax.validation.Valid;
 
+import org.isf.events.dto.WardEventType;
+import org.isf.events.service.WardEventBroadcaster;
 import org.isf.medicals.manager.MedicalBrowsingManager;
 import org.isf.medicals.model.Medical;
 import org.isf.medicalstockward.dto.MedicalWardDTO;
@@ -79,6 +81,9 @@ public class MedicalStockWardController {
 	@Autowired
 	private WardBrowserManager wardManager;
 
+	@Autowired
+	private WardEventBroadcaster wardEventBroadcaster;
+
 	/**
 	 * Gets all the {@link MedicalWard}s associated to the specified ward.
 	 *
@@ -207,6 +212,9 @@ public class MedicalStockWardController {
 	public ResponseEntity<Boolean> newMovementWard(@Valid @RequestBody MovementWardDTO newMovementDTO) throws OHServiceException {
 		MovementWard newMovement = movementWardMapper.map2Model(newMovementDTO);
 		movWardBrowserManager.newMovementWard(newMovement);
+		wardEventBroadcaster.publish(WardEventType.WARD_MOVEMENT, newMovement.getWard() == null ? null : newMovement.getWard().getCode(),
+				newMovement.getWardTo() == null ? null : newMovement.getWardTo().getCode(), newMovement.getCode(),
+				newMovement.getPatient() == null ? null : newMovement.getPatient().getCode());
 		return ResponseEntity.status(HttpStatus.CREATED).body(null);
 	}
 
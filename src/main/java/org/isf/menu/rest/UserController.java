@@ -42,11 +42,15 @@ import org.isf.permissions.dto.LitePermissionDTO;
 import org.isf.permissions.manager.PermissionManager;
 import org.isf.permissions.mapper.LitePermissionMapper;
 import org.isf.permissions.model.Permission;
+import org.isf.shared.cache.GroupMenuCache;
+import org.isf.shared.cache.GroupMenuCache.GroupMenu;
+import org.isf.shared.cache.UserAuthorityCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -61,6 +65,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.annotations.Api;
 
@@ -88,6 +93,12 @@ public class UserController {
 	@Autowired
 	protected LitePermissionMapper litePermissionMapper;
 
+	@Autowired
+	private UserAuthorityCache userAuthorityCache;
+
+	@Autowired
+	private GroupMenuCache groupMenuCache;
+
 	/**
 	 * Returns the list of {@link User}s.
 	 * @return the list of {@link User}s.
@@ -166,6 +177,7 @@ public class UserController {
 			isUpdated = userManager.updateUser(user);
 		}
 		if (isUpdated) {
+			userAuthorityCache.invalidateUser(user.getUserName());
 			return ResponseEntity.ok(isUpdated);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("User not updated."));
@@ -185,6 +197,7 @@ public class UserController {
 		}
 		boolean isDelete = userManager.deleteUser(foundUser);
 		if (isDelete) {
+			userAuthorityCache.invalidateUser(username);
 			return ResponseEntity.ok(isDelete);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("User not deleted."));
@@ -211,22 +224,28 @@ public class UserController {
 	
 	/**
 	 * Returns the list of {@link UserMenuItem}s that compose the menu for specified {@link User}.
+	 * The menu is shared by all the users of a group and carries a strong ETag, so clients revalidate
+	 * with {@code If-None-Match} and get a 304 until the rights of the group change.
 	 * @param username - the name of the {@link User}
 	 * @return the list of {@link UserMenuItem}s 
 	 */
 	@GetMapping(value = "/users/menus/{username}", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<UserMenuItemDTO>> getMenu(@PathVariable String username) throws OHServiceException {
-		User user = userManager.getUserByName(username);
+	public ResponseEntity<List<UserMenuItemDTO>> getMenu(@PathVariable String username, WebRequest request) throws OHServiceException {
+		User user = userAuthorityCache.getUser(username);
 		if (user == null) {
 			throw new OHAPIException(new OHExceptionMessage("User not found."));
 		}
-        List<UserMenuItem> menuItems = userManager.getMenu(user);
-        List<UserMenuItemDTO> mappedMenuItems = userMenuItemMapper.map2DTOList(menuItems);
-        if (mappedMenuItems.isEmpty()) {
-			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(mappedMenuItems);
-		} else {
-			return ResponseEntity.ok(mappedMenuItems);
+        GroupMenu menu = groupMenuCache.getMenu(user);
+        if (menu.getItems().isEmpty()) {
+			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(menu.getItems());
 		}
+        if (request.checkNotModified(menu.getETag())) {
+        	return null;
+        }
+		return ResponseEntity.ok()
+				.eTag(menu.getETag())
+				.cacheControl(CacheControl.noCache().cachePrivate())
+				.body(menu.getItems());
 	}
 	
 	/**
@@ -260,6 +279,8 @@ public class UserController {
 		menus.addAll(userMenuItemMapper.map2ModelList(menusDTO));
         boolean done = userManager.setGroupMenu(group, menus);
         if (done) {
+        	userAuthorityCache.invalidateAll();
+        	groupMenuCache.invalidate(group.getCode());
         	return ResponseEntity.ok(done);
         } else {
         	throw new OHAPIException(new OHExceptionMessage("Group rights not updated."));
@@ -276,6 +297,8 @@ public class UserController {
 		UserGroup group = loadUserGroup(code);
 		boolean isDeleted = userManager.deleteGroup(group);
 		if (isDeleted) {
+			userAuthorityCache.invalidateAll();
+			groupMenuCache.invalidate(group.getCode());
 			return ResponseEntity.ok(isDeleted);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("User group not deleted."));
@@ -310,6 +333,8 @@ public class UserController {
         }
         boolean isUpdated = userManager.updateUserGroup(group);
         if (isUpdated) {
+			userAuthorityCache.invalidateAll();
+			groupMenuCache.invalidate(group.getCode());
 			return ResponseEntity.ok(isUpdated);
 		} else {
 			throw new OHAPIException(new OHExceptionMessage("User group not updated."));
@@ -337,7 +362,7 @@ public class UserController {
 		if (!(authentication instanceof AnonymousAuthenticationToken)) {
 			String currentUserName = authentication.getName();
 			LOGGER.info("retrieving permissions: retrievePermissionsByCurrentLoggedInUser({})", currentUserName);
-			List<Permission> domains = this.permissionManager.retrievePermissionsByUsername(currentUserName);
+			List<Permission> domains = this.userAuthorityCache.getPermissions(currentUserName);
 			List<LitePermissionDTO> dtos = this.litePermissionMapper.map2DTOList(domains);
 			if (dtos.isEmpty()) {
 				return ResponseEntity.status(HttpStatus.NO_CONTENT).body(dtos);
@@ -361,7 +386,7 @@ public class UserController {
 		if (!(authentication instanceof AnonymousAuthenticationToken)) {
 			String currentUserName = authentication.getName();
 			LOGGER.info("retrieving profile: retrieveProfileByCurrentLoggedInUser({})", currentUserName);
-			List<Permission> permissions = this.permissionManager.retrievePermissionsByUsername(currentUserName);
+			List<Permission> permissions = this.userAuthorityCache.getPermissions(currentUserName);
 			List<String> permissionsCode = permissions.stream().map(p -> p.getName()).collect(Collectors.toList());
 			UserProfileDTO userProfileDTO = new UserProfileDTO();
 			userProfileDTO.setUserName(currentUserName);
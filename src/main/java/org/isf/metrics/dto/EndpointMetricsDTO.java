@@ -0,0 +1,170 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.metrics.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class EndpointMetricsDTO {
+
+	@ApiModelProperty(notes = "the HTTP method", example = "GET")
+	private String method;
+
+	@ApiModelProperty(notes = "the URI pattern of the endpoint", example = "/patients/{code}")
+	private String uri;
+
+	@ApiModelProperty(notes = "the controller method serving the endpoint", example = "PatientController.getPatient")
+	private String handler;
+
+	@ApiModelProperty(notes = "the HTTP status of the responses", example = "200")
+	private String status;
+
+	@ApiModelProperty(notes = "the number of requests", example = "1200")
+	private long count;
+
+	@ApiModelProperty(notes = "the total time spent serving the requests, in milliseconds", example = "5400.0")
+	private double totalTimeMs;
+
+	@ApiModelProperty(notes = "the mean latency in milliseconds", example = "4.5")
+	private double meanMs;
+
+	@ApiModelProperty(notes = "the median latency in milliseconds, null if percentiles are not configured", example = "3.1")
+	private Double p50Ms;
+
+	@ApiModelProperty(notes = "the 95th percentile latency in milliseconds, null if percentiles are not configured", example = "12.0")
+	private Double p95Ms;
+
+	@ApiModelProperty(notes = "the 99th percentile latency in milliseconds, null if percentiles are not configured", example = "25.2")
+	private Double p99Ms;
+
+	@ApiModelProperty(notes = "the maximum latency in milliseconds over the last minutes", example = "40.7")
+	private double maxMs;
+
+	@ApiModelProperty(notes = "the mean number of SQL statements per request", example = "3.0")
+	private double meanQueries;
+
+	@ApiModelProperty(notes = "the maximum number of SQL statements of a request over the last minutes", example = "7.0")
+	private double maxQueries;
+
+	public String getMethod() {
+		return this.method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public String getUri() {
+		return this.uri;
+	}
+
+	public void setUri(String uri) {
+		this.uri = uri;
+	}
+
+	public String getHandler() {
+		return this.handler;
+	}
+
+	public void setHandler(String handler) {
+		this.handler = handler;
+	}
+
+	public String getStatus() {
+		return this.status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public long getCount() {
+		return this.count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	public double getTotalTimeMs() {
+		return this.totalTimeMs;
+	}
+
+	public void setTotalTimeMs(double totalTimeMs) {
+		this.totalTimeMs = totalTimeMs;
+	}
+
+	public double getMeanMs() {
+		return this.meanMs;
+	}
+
+	public void setMeanMs(double meanMs) {
+		this.meanMs = meanMs;
+	}
+
+	public Double getP50Ms() {
+		return this.p50Ms;
+	}
+
+	public void setP50Ms(Double p50Ms) {
+		this.p50Ms = p50Ms;
+	}
+
+	public Double getP95Ms() {
+		return this.p95Ms;
+	}
+
+	public void setP95Ms(Double p95Ms) {
+		this.p95Ms = p95Ms;
+	}
+
+	public Double getP99Ms() {
+		return this.p99Ms;
+	}
+
+	public void setP99Ms(Double p99Ms) {
+		this.p99Ms = p99Ms;
+	}
+
+	public double getMaxMs() {
+		return this.maxMs;
+	}
+
+	public void setMaxMs(double maxMs) {
+		this.maxMs = maxMs;
+	}
+
+	public double getMeanQueries() {
+		return this.meanQueries;
+	}
+
+	public void setMeanQueries(double meanQueries) {
+		this.meanQueries = meanQueries;
+	}
+
+	public double getMaxQueries() {
+		return this.maxQueries;
+	}
+
+	public void setMaxQueries(double maxQueries) {
+		this.maxQueries = maxQueries;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.metrics.rest;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.isf.metrics.dto.EndpointMetricsDTO;
+import org.isf.metrics.service.RequestMetricsFilter;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.Authorization;
+
+@RestController
+@Api(value = "/metrics", produces = MediaType.APPLICATION_JSON_VALUE, authorizations = {@Authorization(value="apiKey")})
+public class MetricsController {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(MetricsController.class);
+
+	private static final String REQUESTS_METRIC = "http.server.requests";
+
+	@Autowired
+	private MeterRegistry registry;
+
+	public MetricsController(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Get the latency and the SQL statement count of every endpoint served since the start, one entry per endpoint
+	 * and response status, the endpoints taking the most time first.
+	 *
+	 * @param limit the maximum number of entries, all of them if omitted
+	 * @return the {@link List} of {@link EndpointMetricsDTO}
+	 */
+	@GetMapping(value = "/metrics/endpoints", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<EndpointMetricsDTO>> getEndpointMetrics(@RequestParam(name = "limit", required = false) Integer limit) {
+		LOGGER.info("Get endpoint metrics");
+		List<EndpointMetricsDTO> endpoints = registry.find(REQUESTS_METRIC).timers().stream()
+						.map(this::toDTO)
+						.sorted(Comparator.comparingDouble(EndpointMetricsDTO::getTotalTimeMs).reversed())
+						.limit(limit == null ? Long.MAX_VALUE : Math.max(0, limit))
+						.collect(Collectors.toList());
+		return ResponseEntity.ok(endpoints);
+	}
+
+	private EndpointMetricsDTO toDTO(Timer timer) {
+		EndpointMetricsDTO endpoint = new EndpointMetricsDTO();
+		endpoint.setMethod(timer.getId().getTag("method"));
+		endpoint.setUri(timer.getId().getTag("uri"));
+		endpoint.setHandler(timer.getId().getTag("handler"));
+		endpoint.setStatus(timer.getId().getTag("status"));
+
+		HistogramSnapshot snapshot = timer.takeSnapshot();
+		endpoint.setCount(snapshot.count());
+		endpoint.setTotalTimeMs(snapshot.total(TimeUnit.MILLISECONDS));
+		endpoint.setMeanMs(snapshot.mean(TimeUnit.MILLISECONDS));
+		endpoint.setMaxMs(snapshot.max(TimeUnit.MILLISECONDS));
+		for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+			double value = percentile.value(TimeUnit.MILLISECONDS);
+			if (percentile.percentile() == 0.5) {
+				endpoint.setP50Ms(value);
+			} else if (percentile.percentile() == 0.95) {
+				endpoint.setP95Ms(value);
+			} else if (percentile.percentile() == 0.99) {
+				endpoint.setP99Ms(value);
+			}
+		}
+
+		DistributionSummary queries = registry.find(RequestMetricsFilter.QUERIES_METRIC)
+						.tag("method", endpoint.getMethod())
+						.tag("uri", endpoint.getUri())
+						.tag("status", endpoint.getStatus())
+						.summary();
+		if (queries != null) {
+			endpoint.setMeanQueries(queries.mean());
+			endpoint.setMaxQueries(queries.max());
+		}
+		return endpoint;
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.metrics.service;
+
+/**
+ * Counts the SQL statements run by the current thread between {@link #start()} and {@link #stop()}, i.e. during a
+ * request. Statements run while no count is started (background jobs, startup) are not counted, nor are those run
+ * on other threads during the count, e.g. by an async dispatch or a parallel stream.
+ */
+public final class QueryCounter {
+
+	private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+	private QueryCounter() {
+	}
+
+	/**
+	 * Start counting on the current thread, discarding any previous count.
+	 */
+	public static void start() {
+		COUNT.set(new int[1]);
+	}
+
+	/**
+	 * Stop counting on the current thread.
+	 *
+	 * @return the statements run since {@link #start()}, {@code 0} if the count was not started
+	 */
+	public static int stop() {
+		int count = get();
+		COUNT.remove();
+		return count;
+	}
+
+	/**
+	 * @return the statements run so far since {@link #start()}, {@code 0} if the count was not started
+	 */
+	public static int get() {
+		int[] count = COUNT.get();
+		return count == null ? 0 : count[0];
+	}
+
+	static void increment() {
+		int[] count = COUNT.get();
+		if (count != null) {
+			count[0]++;
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.metrics.service;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the number of SQL statements of every request in the {@value #QUERIES_METRIC} summary, tagged like
+ * {@code http.server.requests} with the method, the URI pattern and the status, so that the two can be matched.
+ * <p>
+ * The count is also sent in the {@value #QUERY_COUNT_HEADER} header, as it stands when the response starts to be
+ * written, and a warning is logged for requests above the {@code metrics.queries.budget}, to catch N+1 query patterns.
+ * <p>
+ * Runs before the security filters, so the queries of the authentication are counted too. Only the statements of the
+ * request thread are counted: those of an async dispatch, of a parallel stream (ForkJoin pool) or of any other thread
+ * the request hands work to are missing from the count.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+	public static final String QUERIES_METRIC = "oh.http.server.queries";
+
+	public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+	private static final int DEFAULT_QUERY_BUDGET = 30;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private Environment env;
+
+	private boolean queryCountHeader;
+
+	private int queryBudget;
+
+	public RequestMetricsFilter(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@PostConstruct
+	public void init() {
+		queryCountHeader = env.getProperty("metrics.queries.header", Boolean.class, true);
+		queryBudget = env.getProperty("metrics.queries.budget", Integer.class, DEFAULT_QUERY_BUDGET);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+					throws ServletException, IOException {
+		QueryCounter.start();
+		try {
+			if (queryCountHeader) {
+				QueryCountResponse countingResponse = new QueryCountResponse(response);
+				filterChain.doFilter(request, countingResponse);
+				countingResponse.setQueryCount();
+			} else {
+				filterChain.doFilter(request, response);
+			}
+		} finally {
+			int queries = QueryCounter.stop();
+			String uri = uri(request, response);
+			DistributionSummary.builder(QUERIES_METRIC)
+							.baseUnit("queries")
+							.tag("method", request.getMethod())
+							.tag("uri", uri)
+							.tag("status", String.valueOf(response.getStatus()))
+							.register(registry)
+							.record(queries);
+			if (queryBudget > 0 && queries > queryBudget) {
+				LOGGER.warn("{} {} ({}) ran {} SQL statements, above the budget of {}", request.getMethod(), request.getRequestURI(), uri,
+								queries, queryBudget);
+			}
+		}
+	}
+
+	/**
+	 * Same values as the {@code uri} tag of {@code http.server.requests}, so that unmatched URIs do not create one
+	 * summary each.
+	 */
+	private static String uri(HttpServletRequest request, HttpServletResponse response) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (pattern != null) {
+			return pattern.toString();
+		}
+		int status = response.getStatus();
+		if (status / 100 == 3) {
+			return "REDIRECTION";
+		}
+		if (status == HttpServletResponse.SC_NOT_FOUND) {
+			return "NOT_FOUND";
+		}
+		return "UNKNOWN";
+	}
+
+	/**
+	 * Sets the {@value #QUERY_COUNT_HEADER} header at the last moment headers can still be set: when the body starts to
+	 * be written, when the response is flushed or, for responses without a body, when the request ends.
+	 */
+	private static final class QueryCountResponse extends HttpServletResponseWrapper {
+
+		private boolean queryCountSet;
+
+		QueryCountResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		void setQueryCount() {
+			if (!queryCountSet && !isCommitted()) {
+				setIntHeader(QUERY_COUNT_HEADER, QueryCounter.get());
+				queryCountSet = true;
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			setQueryCount();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			setQueryCount();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			setQueryCount();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			setQueryCount();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			setQueryCount();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			setQueryCount();
+			super.sendRedirect(location);
+		}
+	}
+}
@@ -72,7 +72,7 @@ public class OpdMapper extends GenericMapper<Opd, OpdDTO> {
 	
 	@Override
 	public List<OpdDTO> map2DTOList(List<Opd> list) {
-		return list.stream().map(it -> map2DTO(it)).collect(Collectors.toList());
+		return mapList(list, this::map2DTO);
 	}
 
 	@Override
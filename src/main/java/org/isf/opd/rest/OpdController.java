@@ -24,27 +24,33 @@ package org.isf.opd.rest;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.isf.events.dto.WardEventType;
+import org.isf.events.service.WardEventBroadcaster;
 import org.isf.generaldata.MessageBundle;
 import org.isf.opd.dto.OpdDTO;
 import org.isf.opd.dto.OpdWithOperatioRowDTO;
 import org.isf.opd.manager.OpdBrowserManager;
 import org.isf.opd.mapper.OpdMapper;
 import org.isf.opd.model.Opd;
-import org.isf.operation.dto.OperationRowDTO;
+import org.isf.opd.service.OpdWithOperationRowsWriter;
 import org.isf.operation.manager.OperationRowBrowserManager;
 import org.isf.operation.mapper.OperationRowMapper;
 import org.isf.operation.model.OperationRow;
+import org.isf.operation.service.OperationRowBatchLoader;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.streaming.JsonListStreamer;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
-import org.isf.ward.manager.WardBrowserManager;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -54,8 +60,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.annotations.Api;
 
@@ -65,6 +73,8 @@ public class OpdController {
 
 	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(OpdController.class);
 
+	private static final String OPD_WARD_CODE = "OPD";
+
 	@Autowired
 	protected OpdBrowserManager opdManager;
 	
@@ -81,16 +91,34 @@ public class OpdController {
 	protected OperationRowMapper opRowMapper;
 	
 	@Autowired
-    protected WardBrowserManager wardManager;
+	protected ReferenceDataCache referenceDataCache;
+
+	@Autowired
+	protected JsonListStreamer jsonListStreamer;
+
+	@Autowired
+	protected WardEventBroadcaster wardEventBroadcaster;
+
+	@Autowired
+	protected OperationRowBatchLoader operationRowBatchLoader;
+
+	@Autowired
+	protected OpdWithOperationRowsWriter opdWithOperationRowsWriter;
 
 	public OpdController(OpdBrowserManager opdManager, OpdMapper opdmapper, PatientBrowserManager patientManager, OperationRowBrowserManager 
-			operationRowManager, OperationRowMapper opRowMapper, WardBrowserManager wardManager) {
+			operationRowManager, OperationRowMapper opRowMapper, ReferenceDataCache referenceDataCache, JsonListStreamer jsonListStreamer,
+			WardEventBroadcaster wardEventBroadcaster, OperationRowBatchLoader operationRowBatchLoader,
+			OpdWithOperationRowsWriter opdWithOperationRowsWriter) {
 		this.opdManager = opdManager;
 		this.mapper = opdmapper;
 		this.patientManager = patientManager;
 		this.operationRowManager = operationRowManager;
 		this.opRowMapper = opRowMapper;
-		this.wardManager = wardManager;
+		this.referenceDataCache = referenceDataCache;
+		this.jsonListStreamer = jsonListStreamer;
+		this.wardEventBroadcaster = wardEventBroadcaster;
+		this.operationRowBatchLoader = operationRowBatchLoader;
+		this.opdWithOperationRowsWriter = opdWithOperationRowsWriter;
 	}
 
 	/**
@@ -116,6 +144,7 @@ public class OpdController {
 		if (isCreatedOpd == null) {
 			throw new OHAPIException(new OHExceptionMessage("Opd not created."));
 		}
+		publish(WardEventType.OPD_CREATED, isCreatedOpd);
 		return ResponseEntity.status(HttpStatus.CREATED).body(mapper.map2DTO(isCreatedOpd));
 	}
 
@@ -139,22 +168,14 @@ public class OpdController {
 		}
 		Opd opdToInsert = mapper.map2Model(opdWithOperatioRowDTO.getOpdDTO());
 		opdToInsert.setPatient(patient);
-		opdToInsert.setWard(wardManager.findWard("OPD"));
-		Opd isCreatedOpd = opdManager.newOpd(opdToInsert);
-		if (isCreatedOpd == null) {
+		opdToInsert.setWard(referenceDataCache.getWard(OPD_WARD_CODE));
+		OpdWithOperationRowsWriter.Result created = opdWithOperationRowsWriter.newOpd(opdToInsert, toOperationRows(opdWithOperatioRowDTO));
+		if (created == null) {
 			throw new OHAPIException(new OHExceptionMessage("Opd not created."));
 		}
-		OpdDTO opdDTO = mapper.map2DTO(isCreatedOpd);
-		opdWithOperatioRow.setOpdDTO(opdDTO);
-		List<OperationRowDTO> listOp = new ArrayList<>();
-		if (opdWithOperatioRowDTO.getOperationRows().size() > 0) {
-			for (OperationRowDTO operationRow : opdWithOperatioRowDTO.getOperationRows()) {
-				operationRow.setOpd(opdDTO);
-				OperationRow createOpeRow = operationRowManager.newOperationRow(opRowMapper.map2Model(operationRow));
-				listOp.add(opRowMapper.map2DTO(createOpeRow));
-			}
-		}
-		opdWithOperatioRow.setOperationRows(listOp);
+		opdWithOperatioRow.setOpdDTO(mapper.map2DTO(created.getOpd()));
+		opdWithOperatioRow.setOperationRows(opRowMapper.map2DTOList(created.getOperationRows()));
+		publish(WardEventType.OPD_CREATED, created.getOpd());
 		return ResponseEntity.status(HttpStatus.CREATED).body(opdWithOperatioRow);
 	}
 	
@@ -187,6 +208,7 @@ public class OpdController {
 		if (updatedOpd == null) {
 			throw new OHAPIException(new OHExceptionMessage("Opd not updated."));
 		}
+		publish(WardEventType.OPD_UPDATED, updatedOpd);
 		return ResponseEntity.status(HttpStatus.OK).body(mapper.map2DTO(updatedOpd));
 	}
 
@@ -216,29 +238,15 @@ public class OpdController {
 		}
 
 		Opd opdToUpdate = mapper.map2Model(opdWithOperatioRowDTO.getOpdDTO());
-		opdToUpdate.setWard(wardManager.findWard("OPD"));
+		opdToUpdate.setWard(referenceDataCache.getWard(OPD_WARD_CODE));
 		opdToUpdate.setLock(opdWithOperatioRowDTO.getOpdDTO().getLock());
-		Opd updatedOpd = opdManager.updateOpd(opdToUpdate);
-		if (updatedOpd == null) {
+		OpdWithOperationRowsWriter.Result updated = opdWithOperationRowsWriter.updateOpd(opdToUpdate, toOperationRows(opdWithOperatioRowDTO));
+		if (updated == null) {
 			throw new OHAPIException(new OHExceptionMessage("Opd not updated."));
 		}
-		OpdDTO opdDTO = mapper.map2DTO(updatedOpd);
-		opdWithOperatioRow.setOpdDTO(opdDTO);
-		List<OperationRowDTO> listOpeRow = new ArrayList<>();
-		if (opdWithOperatioRowDTO.getOperationRows().size() > 0 ) {
-			for (OperationRowDTO operationRow : opdWithOperatioRowDTO.getOperationRows()) {
-				operationRow.setOpd(opdDTO);
-				OperationRow updateOpeRow = new OperationRow();
-				if (operationRow.getId() == 0) {
-					 updateOpeRow = operationRowManager.newOperationRow(opRowMapper.map2Model(operationRow));
-				} else {
-					updateOpeRow = operationRowManager.updateOperationRow(opRowMapper.map2Model(operationRow));
-				}
-				
-				listOpeRow.add(opRowMapper.map2DTO(updateOpeRow));
-			}
-		}
-		opdWithOperatioRow.setOperationRows(listOpeRow);
+		opdWithOperatioRow.setOpdDTO(mapper.map2DTO(updated.getOpd()));
+		opdWithOperatioRow.setOperationRows(opRowMapper.map2DTOList(updated.getOperationRows()));
+		publish(WardEventType.OPD_UPDATED, updated.getOpd());
 		return ResponseEntity.status(HttpStatus.OK).body(opdWithOperatioRow);
 	}
 	
@@ -267,8 +275,8 @@ public class OpdController {
 	 * @return a {@link List} of {@link Opd} or NO_CONTENT if there is no data found.
 	 * @throws OHServiceException
 	 */
-	@GetMapping(value = "/opds/search", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<OpdDTO>> getOpdByDates(
+	@GetMapping(value = "/opds/search", produces = { MediaType.APPLICATION_JSON_VALUE, JsonListStreamer.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<StreamingResponseBody> getOpdByDates(
 			@RequestParam(value = "dateFrom") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDate dateFrom, 
 			@RequestParam(value = "dateTo") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDate dateTo, 
 			@RequestParam(value = "diseaseTypeCode", required = false) String diseaseTypeCode,
@@ -277,7 +285,8 @@ public class OpdController {
 			@RequestParam(value = "ageTo", required = false, defaultValue = "200") Integer ageTo,
 			@RequestParam(value = "sex", required = false, defaultValue = "A") char sex,
 			@RequestParam(value = "newPatient", required = false, defaultValue = "A") char newPatient,
-			@RequestParam(value = "patientCode", required = false, defaultValue = "0") Integer patientCode) throws OHServiceException {
+			@RequestParam(value = "patientCode", required = false, defaultValue = "0") Integer patientCode,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws OHServiceException {
 		LOGGER.info("Get opd within specified dates");
 		LOGGER.debug("dateFrom: {}", dateFrom);
 		LOGGER.debug("dateTo: {}", dateTo);
@@ -295,15 +304,7 @@ public class OpdController {
 			opds = opdManager.getOpd(null, MessageBundle.getMessage(diseaseTypeCode), MessageBundle.getMessage(diseaseCode), dateFrom, dateTo, ageFrom,  ageTo, sex, newPatient, null);
 		}
 
-		List<OpdDTO> opdDTOs = opds.stream().map(opd -> {
-			return mapper.map2DTO(opd);
-		}).collect(Collectors.toList());
-		
-		if (opdDTOs.isEmpty()) {
-			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(opdDTOs);
-		} else {
-			return ResponseEntity.ok(opdDTOs);
-		}
+		return jsonListStreamer.stream(opds, mapper::map2DTO, accept);
 	}
 	
 	/**
@@ -318,24 +319,20 @@ public class OpdController {
 		List<Opd> opds = opdManager.getOpdList(pcode);
 		List<OpdWithOperatioRowDTO> opdWithOperations = new ArrayList<>();
 		if (!opds.isEmpty()) {
-			opdWithOperations = opds.stream().map(opd -> {
+			// the rows of all the visits in one query rather than one per visit
+			Map<Integer, List<OperationRow>> rowsByOpd = operationRowBatchLoader
+					.getOperationRowsByOpd(opds.stream().map(Opd::getCode).collect(Collectors.toList()));
+			for (Opd opd : opds) {
 				OpdWithOperatioRowDTO opRows = new OpdWithOperatioRowDTO();
 				opRows.setOpdDTO(mapper.map2DTO(opd));
-				List<OperationRow> listOp = new ArrayList<>();
-				try {
-					listOp = operationRowManager.getOperationRowByOpd(opd);
-				} catch (OHServiceException e) {
-					// TODO Auto-generated catch block
-					LOGGER.error("Unable to get the List of operation associate to this Opd");
-				}
-				if (!listOp.isEmpty()) {
+				List<OperationRow> listOp = rowsByOpd.get(opd.getCode());
+				if (listOp != null) {
 					opRows.setOperationRows(opRowMapper.map2DTOList(listOp));
 				} else {
 					opRows.setOperationRows(new ArrayList<>());
 				}
-					
-				return opRows;
-			}).collect(Collectors.toList());
+				opdWithOperations.add(opRows);
+			}
 			return ResponseEntity.ok(opdWithOperations);
 
 		} else {
@@ -360,6 +357,7 @@ public class OpdController {
 		if (!isDeleted) {
 			throw new OHAPIException(new OHExceptionMessage("Opd not deleted."));
 		}
+		wardEventBroadcaster.publish(WardEventType.OPD_DELETED, null, null, code, null);
 		return ResponseEntity.ok(isDeleted);
 	}
 	
@@ -404,4 +402,15 @@ public class OpdController {
 		return ResponseEntity.ok(isExist);
 	}
 
+	private List<OperationRow> toOperationRows(OpdWithOperatioRowDTO opdWithOperatioRowDTO) {
+		if (opdWithOperatioRowDTO.getOperationRows() == null) {
+			return new ArrayList<>();
+		}
+		return opRowMapper.map2ModelList(opdWithOperatioRowDTO.getOperationRows());
+	}
+
+	private void publish(WardEventType type, Opd opd) {
+		wardEventBroadcaster.publish(type, opd.getWard() == null ? null : opd.getWard().getCode(), null, opd.getCode(),
+				opd.getPatient() == null ? null : opd.getPatient().getCode());
+	}
 }
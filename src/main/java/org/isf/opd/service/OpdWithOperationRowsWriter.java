@@ -0,0 +1,118 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.opd.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.isf.opd.manager.OpdBrowserManager;
+import org.isf.opd.model.Opd;
+import org.isf.operation.manager.OperationRowBrowserManager;
+import org.isf.operation.model.OperationRow;
+import org.isf.utils.exception.OHServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores an {@link Opd} together with its {@link OperationRow}s in a single transaction, so that a failing row leaves
+ * neither the visit nor the other rows behind. The managers join the transaction and their updates are flushed
+ * together at commit, in JDBC batches of {@code spring.jpa.properties.hibernate.jdbc.batch_size}.
+ */
+@Component
+public class OpdWithOperationRowsWriter {
+
+	@Autowired
+	private OpdBrowserManager opdManager;
+
+	@Autowired
+	private OperationRowBrowserManager operationRowManager;
+
+	public OpdWithOperationRowsWriter(OpdBrowserManager opdManager, OperationRowBrowserManager operationRowManager) {
+		this.opdManager = opdManager;
+		this.operationRowManager = operationRowManager;
+	}
+
+	/**
+	 * Create an {@link Opd} and its rows.
+	 *
+	 * @param opd the visit to create
+	 * @param rows the rows of the visit, their {@code opd} is set to the created visit
+	 * @return the stored visit and rows, or {@code null} if the visit was not created
+	 * @throws OHServiceException if the visit or a row is not valid; nothing is stored then
+	 */
+	@Transactional(rollbackFor = OHServiceException.class)
+	public Result newOpd(Opd opd, List<OperationRow> rows) throws OHServiceException {
+		Opd created = opdManager.newOpd(opd);
+		if (created == null) {
+			return null;
+		}
+		List<OperationRow> stored = new ArrayList<>(rows.size());
+		for (OperationRow row : rows) {
+			row.setOpd(created);
+			stored.add(operationRowManager.newOperationRow(row));
+		}
+		return new Result(created, stored);
+	}
+
+	/**
+	 * Update an {@link Opd} and its rows; the rows without id are created.
+	 *
+	 * @param opd the visit to update
+	 * @param rows the rows of the visit, their {@code opd} is set to the updated visit
+	 * @return the stored visit and rows, or {@code null} if the visit was not updated
+	 * @throws OHServiceException if the visit or a row is not valid; nothing is stored then
+	 */
+	@Transactional(rollbackFor = OHServiceException.class)
+	public Result updateOpd(Opd opd, List<OperationRow> rows) throws OHServiceException {
+		Opd updated = opdManager.updateOpd(opd);
+		if (updated == null) {
+			return null;
+		}
+		List<OperationRow> stored = new ArrayList<>(rows.size());
+		for (OperationRow row : rows) {
+			row.setOpd(updated);
+			stored.add(row.getId() == 0 ? operationRowManager.newOperationRow(row) : operationRowManager.updateOperationRow(row));
+		}
+		return new Result(updated, stored);
+	}
+
+	public static final class Result {
+
+		private final Opd opd;
+		private final List<OperationRow> operationRows;
+
+		Result(Opd opd, List<OperationRow> operationRows) {
+			this.opd = opd;
+			this.operationRows = Collections.unmodifiableList(operationRows);
+		}
+
+		public Opd getOpd() {
+			return opd;
+		}
+
+		public List<OperationRow> getOperationRows() {
+			return operationRows;
+		}
+	}
+}
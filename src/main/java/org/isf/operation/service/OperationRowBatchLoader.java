@@ -0,0 +1,67 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.operation.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.isf.operation.model.OperationRow;
+import org.isf.shared.query.ChunkedInQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Loads the operation rows of many OPDs at once, instead of one {@code OperationRowBrowserManager.getOperationRowByOpd()}
+ * call per OPD.
+ */
+@Component
+public class OperationRowBatchLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get the {@link OperationRow}s of the specified OPDs.
+	 *
+	 * @param opdCodes the OPD codes
+	 * @return a {@link Map} from OPD code to its rows in insertion order; OPDs without rows are not in the map.
+	 */
+	@Transactional(readOnly = true)
+	public Map<Integer, List<OperationRow>> getOperationRowsByOpd(Collection<Integer> opdCodes) {
+		Map<Integer, List<OperationRow>> rows = new HashMap<>();
+		List<OperationRow> found = ChunkedInQuery.getResultList(opdCodes, codes -> entityManager
+				.createQuery("SELECT r FROM OperationRow r JOIN FETCH r.opd o LEFT JOIN FETCH r.operation WHERE o.code IN :codes ORDER BY r.id",
+						OperationRow.class)
+				.setParameter("codes", codes)
+				.getResultList());
+		for (OperationRow row : found) {
+			rows.computeIfAbsent(row.getOpd().getCode(), code -> new ArrayList<>()).add(row);
+		}
+		return rows;
+	}
+}
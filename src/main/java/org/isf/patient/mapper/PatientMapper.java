@@ -43,9 +43,33 @@ public class PatientMapper extends GenericMapper<Patient, PatientDTO> {
 		PatientMapping.addMapping(modelMapper);
 	}
 
+	/**
+	 * Copies the profile photo of the patient into the DTO. The default mapping leaves it out so that lists, searches and
+	 * patients embedded in other DTOs do not carry it; clients fetch it from {@code GET /patients/{code}/photo}.
+	 *
+	 * @param patientDTO the already mapped DTO
+	 * @param patient the source patient
+	 * @return the same DTO
+	 */
+	public PatientDTO withPhoto(PatientDTO patientDTO, Patient patient) {
+		if (patient.getPatientProfilePhoto() != null) {
+			patientDTO.setBlobPhoto(patient.getPatientProfilePhoto().getPhoto());
+		}
+		return patientDTO;
+	}
+
+	@Override
+	public Patient map2Model(PatientDTO toObj) {
+		Patient patient = super.map2Model(toObj);
+		if (patient.getPatientConsensus() != null) {
+			patient.getPatientConsensus().setPatient(patient);
+		}
+		return patient;
+	}
+
 	@Override
 	public List<PatientDTO> map2DTOList(List<Patient> list) {
-		return list.stream().map(it -> map2DTO(it)).collect(Collectors.toList());
+		return mapList(list, this::map2DTO);
 	}
 
 	@Override
@@ -21,27 +21,40 @@
  */
 package org.isf.patient.rest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLConnection;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.isf.admission.manager.AdmissionBrowserManager;
 import org.isf.admission.model.Admission;
+import org.isf.admission.service.InpatientStatusLoader;
 import org.isf.patconsensus.manager.PatientConsensusBrowserManager;
 import org.isf.patconsensus.model.PatientConsensus;
 import org.isf.patient.dto.PatientDTO;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.mapper.PatientMapper;
 import org.isf.patient.model.Patient;
+import org.isf.patient.service.PatientKeysetLoader;
+import org.isf.patient.service.PatientPhotoLoader;
+import org.isf.patient.service.PatientPhotoThumbnails;
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.pagination.KeysetCursor;
+import org.isf.shared.pagination.KeysetPage;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -54,6 +67,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.Authorization;
@@ -79,12 +93,29 @@ public class PatientController {
 	@Autowired
 	protected PatientMapper patientMapper;
 
+	@Autowired
+	private PatientPhotoThumbnails patientPhotoThumbnails;
+
+	@Autowired
+	private InpatientStatusLoader inpatientStatusLoader;
+
+	@Autowired
+	private PatientKeysetLoader patientKeysetLoader;
+
+	@Autowired
+	private PatientPhotoLoader patientPhotoLoader;
+
 	public PatientController(PatientBrowserManager patientManager, AdmissionBrowserManager admissionManager, PatientMapper patientMapper,
-					PatientConsensusBrowserManager patientConsensusManager) {
+					PatientConsensusBrowserManager patientConsensusManager, PatientPhotoThumbnails patientPhotoThumbnails,
+					InpatientStatusLoader inpatientStatusLoader, PatientKeysetLoader patientKeysetLoader, PatientPhotoLoader patientPhotoLoader) {
 		this.patientManager = patientManager;
 		this.admissionManager = admissionManager;
 		this.patientMapper = patientMapper;
 		this.patientConsensusManager = patientConsensusManager;
+		this.patientPhotoThumbnails = patientPhotoThumbnails;
+		this.inpatientStatusLoader = inpatientStatusLoader;
+		this.patientKeysetLoader = patientKeysetLoader;
+		this.patientPhotoLoader = patientPhotoLoader;
 	}
 
 	/**
@@ -107,9 +138,18 @@ public class PatientController {
 		if (patient == null) {
 			throw new OHAPIException(new OHExceptionMessage("Patient not created."));
 		}
-		return ResponseEntity.status(HttpStatus.CREATED).body(patientMapper.map2DTO(patient));
+		return ResponseEntity.status(HttpStatus.CREATED).body(patientMapper.withPhoto(patientMapper.map2DTO(patient), patient));
 	}
 
+	/**
+	 * Update a {@link Patient}. A {@code null} photo keeps the stored one, because the patients returned by lists and
+	 * searches carry no photo; use {@code DELETE /patients/{code}/photo} to remove it.
+	 *
+	 * @param code the patient code
+	 * @param updatePatient the patient
+	 * @return the updated patient
+	 * @throws OHServiceException
+	 */
 	@PutMapping(value = "/patients/{code}", produces = MediaType.APPLICATION_JSON_VALUE)
 	ResponseEntity<PatientDTO> updatePatient(@PathVariable int code, @RequestBody PatientDTO updatePatient) throws OHServiceException {
 		LOGGER.info("Update patient code: {}", code);
@@ -128,22 +168,50 @@ public class PatientController {
 		updatePatientModel.getPatientConsensus().setPatient(updatePatientModel);
 		updatePatientModel.getPatientConsensus().setId(patientConsensus.get().getId());
 		updatePatientModel.setLock(patientRead.getLock());
+		if (updatePatient.getBlobPhoto() == null && patientRead.getPatientProfilePhoto() != null) {
+			// patients coming from lists and searches have no photo: keep the stored one
+			updatePatientModel.getPatientProfilePhoto().setPhoto(patientRead.getPatientProfilePhoto().getPhoto());
+		}
 		Patient patient = patientManager.savePatient(updatePatientModel);
 		if (patient == null) {
 			throw new OHAPIException(new OHExceptionMessage("Patient not updated."));
 		}
-		PatientDTO patientDTO = patientMapper.map2DTO(patient);
+		PatientDTO patientDTO = patientMapper.withPhoto(patientMapper.map2DTO(patient), patient);
 		return ResponseEntity.ok(patientDTO);
 	}
 
+	/**
+	 * Get a page of {@link Patient}s.
+	 * <p>
+	 * When a {@code cursor} is given (empty for the first page) {@code page} is ignored and the page
+	 * that follows the cursor is returned, with the cursor of the next one in the
+	 * {@value KeysetCursor#NEXT_CURSOR_HEADER} header.
+	 *
+	 * @param page
+	 * @param size
+	 * @param cursor
+	 * @return the {@link List} of found {@link Patient} or NO_CONTENT otherwise.
+	 * @throws OHServiceException
+	 */
 	@GetMapping(value = "/patients", produces = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<List<PatientDTO>> getPatients(@RequestParam(value = "page", required = false, defaultValue = "0") int page,
-					@RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size) throws OHServiceException {
+					@RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+					@RequestParam(value = "cursor", required = false) String cursor) throws OHServiceException {
+		if (cursor != null) {
+			LOGGER.info("Get patients cursor: {}  size: {}", cursor, size);
+			if (size < 1) {
+				throw new OHAPIException(new OHExceptionMessage("Page size must be positive."));
+			}
+			KeysetPage<Patient> patientPage = patientKeysetLoader.getPatients(KeysetCursor.decode(cursor), size);
+			List<PatientDTO> patientDTOS = mapWithStatus(patientPage.getItems());
+			if (patientDTOS.isEmpty()) {
+				return ResponseEntity.status(HttpStatus.NO_CONTENT).body(patientDTOS);
+			}
+			return ResponseEntity.ok().headers(patientPage.getHeaders()).body(patientDTOS);
+		}
 		LOGGER.info("Get patients page: {}  size: {}", page, size);
 		List<Patient> patients = patientManager.getPatient(page, size);
-		List<PatientDTO> patientDTOS = patients.stream().map(pat -> {
-			return patientMapper.map2DTO(pat);
-		}).collect(Collectors.toList());
+		List<PatientDTO> patientDTOS = mapWithStatus(patients);
 		if (patientDTOS.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(patientDTOS);
 		}
@@ -163,10 +231,95 @@ public class PatientController {
 		Admission admission = admissionManager.getCurrentAdmission(patient);
 		LOGGER.debug("admission retrieved: {}", admission);
 		Boolean status = admission != null ? true : false;
-		PatientDTO patientDTO = patientMapper.map2DTOWS(patient, status);
+		PatientDTO patientDTO = patientMapper.withPhoto(patientMapper.map2DTOWS(patient, status), patient);
 		return ResponseEntity.ok(patientDTO);
 	}
 
+	/**
+	 * Get the profile photo of a {@link Patient}, or a JPEG thumbnail of it when {@code size} is given.
+	 * The response carries an ETag derived from the version of the photo (patient lock, photo row and length), read
+	 * without the photo itself: clients revalidate with {@code If-None-Match} and get a 304 without the patient or the
+	 * photo being loaded, and a thumbnail already on disk is served without reading the original.
+	 *
+	 * @param code the patient code
+	 * @param size optional length in pixels of the longest side of the thumbnail
+	 * @param request the current request, used for the conditional GET
+	 * @return the photo
+	 * @throws OHServiceException
+	 */
+	@GetMapping(value = "/patients/{code}/photo")
+	public ResponseEntity<Resource> getPatientPhoto(@PathVariable("code") int code,
+					@RequestParam(value = "size", required = false) Integer size, WebRequest request) throws OHServiceException {
+		LOGGER.info("Get photo of patient code: {}", code);
+		if (size != null && (size < PatientPhotoThumbnails.MIN_SIZE || size > PatientPhotoThumbnails.MAX_SIZE)) {
+			throw new OHAPIException(new OHExceptionMessage(
+							"Photo size must be between " + PatientPhotoThumbnails.MIN_SIZE + " and " + PatientPhotoThumbnails.MAX_SIZE + "."));
+		}
+		// revalidated without loading the patient nor the photo
+		String version = patientPhotoLoader.getPhotoVersion(code);
+		if (version == null) {
+			if (patientManager.getPatientById(code) == null) {
+				throw new OHAPIException(new OHExceptionMessage("Patient not found."), HttpStatus.NOT_FOUND);
+			}
+			throw new OHAPIException(new OHExceptionMessage("Patient photo not found."), HttpStatus.NOT_FOUND);
+		}
+		String eTag = size == null ? version : version + '-' + size;
+		if (request.checkNotModified(eTag)) {
+			return null;
+		}
+		byte[] body = null;
+		MediaType contentType = MediaType.IMAGE_JPEG;
+		try {
+			if (size != null) {
+				body = patientPhotoThumbnails.getThumbnail(code + "-" + version, () -> patientPhotoLoader.getPhoto(code), size);
+			}
+			if (body == null) {
+				byte[] photo = patientPhotoLoader.getPhoto(code);
+				if (photo == null || photo.length == 0) {
+					throw new OHAPIException(new OHExceptionMessage("Patient photo not found."), HttpStatus.NOT_FOUND);
+				}
+				body = photo;
+				String guessed = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(photo));
+				if (guessed != null) {
+					contentType = MediaType.parseMediaType(guessed);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.error("Unable to read the photo of patient {}", code, e);
+			throw new OHAPIException(new OHExceptionMessage("Unable to read patient photo."), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+		return ResponseEntity.ok()
+						.eTag(eTag)
+						.cacheControl(CacheControl.noCache().cachePrivate())
+						.contentType(contentType)
+						.contentLength(body.length)
+						.body(new ByteArrayResource(body));
+	}
+
+	/**
+	 * Remove the profile photo of a {@link Patient}.
+	 *
+	 * @param code the patient code
+	 * @return {@code true} if the photo has been removed
+	 * @throws OHServiceException
+	 */
+	@DeleteMapping(value = "/patients/{code}/photo", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Boolean> deletePatientPhoto(@PathVariable("code") int code) throws OHServiceException {
+		LOGGER.info("Delete photo of patient code: {}", code);
+		Patient patient = patientManager.getPatientById(code);
+		if (patient == null) {
+			throw new OHAPIException(new OHExceptionMessage("Patient not found."), HttpStatus.NOT_FOUND);
+		}
+		if (patient.getPatientProfilePhoto() == null || patient.getPatientProfilePhoto().getPhoto() == null) {
+			return ResponseEntity.ok(true);
+		}
+		patient.getPatientProfilePhoto().setPhoto(null);
+		if (patientManager.savePatient(patient) == null) {
+			throw new OHAPIException(new OHExceptionMessage("Patient photo not deleted."));
+		}
+		return ResponseEntity.ok(true);
+	}
+
 	@GetMapping(value = "/patients/search", produces = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<List<PatientDTO>> searchPatient(@RequestParam(value = "firstName", defaultValue = "", required = false) String firstName,
 					@RequestParam(value = "secondName", defaultValue = "", required = false) String secondName,
@@ -202,14 +355,20 @@ public class PatientController {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
 		}
 
-		patientListDTO = patientList.stream().map(patient -> {
-			Admission admission = admissionManager.getCurrentAdmission(patient);
-			Boolean status = admission != null ? true : false;
-			return patientMapper.map2DTOWS(patient, status);
-		}).collect(Collectors.toList());
+		patientListDTO = mapWithStatus(patientList);
 		return ResponseEntity.ok(patientListDTO);
 	}
 
+	/**
+	 * Map the patients setting their inpatient status, resolved for the whole list with one query.
+	 */
+	private List<PatientDTO> mapWithStatus(List<Patient> patients) {
+		Set<Integer> admitted = inpatientStatusLoader.getAdmittedPatientCodes(patients.stream().map(Patient::getCode).collect(Collectors.toList()));
+		return patients.stream()
+						.map(patient -> patientMapper.map2DTOWS(patient, admitted.contains(patient.getCode())))
+						.collect(Collectors.toList());
+	}
+
 	@GetMapping(value = "/patients/all", produces = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<PatientDTO> getPatientAll(@RequestParam int code) throws OHServiceException {
 		LOGGER.info("get patient for provided code even if logically deleted: {}", code);
@@ -217,7 +376,7 @@ public class PatientController {
 		if (patient == null) {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
 		}
-		PatientDTO patientDTO = patientMapper.map2DTO(patient);
+		PatientDTO patientDTO = patientMapper.withPhoto(patientMapper.map2DTO(patient), patient);
 		return ResponseEntity.ok(patientDTO);
 	}
 
@@ -0,0 +1,64 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.patient.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.isf.patient.model.Patient;
+import org.isf.shared.query.ChunkedInQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Loads many patients at once, instead of one {@code PatientBrowserManager.getPatientById()} call per patient.
+ */
+@Component
+public class PatientBatchLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get the not deleted {@link Patient}s with the specified codes.
+	 *
+	 * @param patientCodes the patient codes
+	 * @return a {@link Map} from patient code to patient; codes not found are not in the map.
+	 */
+	@Transactional(readOnly = true)
+	public Map<Integer, Patient> getPatients(Collection<Integer> patientCodes) {
+		Map<Integer, Patient> patients = new HashMap<>();
+		List<Patient> found = ChunkedInQuery.getResultList(patientCodes, codes -> entityManager
+				.createQuery("SELECT p FROM Patient p WHERE p.code IN :codes AND (p.deleted IS NULL OR p.deleted = 'N')", Patient.class)
+				.setParameter("codes", codes)
+				.getResultList());
+		for (Patient patient : found) {
+			patients.put(patient.getCode(), patient);
+		}
+		return patients;
+	}
+}
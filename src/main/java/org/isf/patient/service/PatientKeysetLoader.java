@@ -0,0 +1,65 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.patient.service;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.isf.patient.model.Patient;
+import org.isf.shared.pagination.KeysetCursor;
+import org.isf.shared.pagination.KeysetPage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the patient registry page by page, newest first, seeking on the primary key instead of
+ * skipping rows with an OFFSET.
+ */
+@Component
+public class PatientKeysetLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get the not deleted {@link Patient}s that follow the specified cursor, ordered by descending code.
+	 *
+	 * @param cursor the position of the last patient already read, {@code null} for the first page
+	 * @param size the page size
+	 * @return the page of patients
+	 */
+	@Transactional(readOnly = true)
+	public KeysetPage<Patient> getPatients(KeysetCursor cursor, int size) {
+		TypedQuery<Patient> query = entityManager.createQuery("SELECT p FROM Patient p "
+				+ "WHERE (p.deleted IS NULL OR p.deleted = 'N')"
+				+ (cursor == null ? "" : " AND p.code < :code")
+				+ " ORDER BY p.code DESC", Patient.class);
+		if (cursor != null) {
+			query.setParameter("code", cursor.getId());
+		}
+		List<Patient> rows = query.setMaxResults(size + 1).getResultList();
+		return KeysetPage.of(rows, size, patient -> KeysetCursor.of(patient.getCode()));
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.patient.service;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.isf.patient.model.PatientProfilePhoto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the profile photo of a patient without loading the patient, and first only a version of it, so that a
+ * revalidated photo costs neither the blob nor the patient graph.
+ */
+@Component
+public class PatientPhotoLoader {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Get a version of the photo of a not deleted patient, which changes with the patient (its lock), with the photo
+	 * row and with the length of the photo.
+	 *
+	 * @param patientCode the patient code
+	 * @return the version, or {@code null} if the patient does not exist or has no photo
+	 */
+	@Transactional(readOnly = true)
+	public String getPhotoVersion(int patientCode) {
+		List<Object[]> rows = entityManager.createQuery(
+						"SELECT p.lock, pp.code, LENGTH(pp.photo) FROM PatientProfilePhoto pp JOIN pp.patient p "
+										+ "WHERE p.code = :code AND (p.deleted IS NULL OR p.deleted = 'N') AND pp.photo IS NOT NULL",
+						Object[].class)
+						.setParameter("code", patientCode)
+						.setMaxResults(1)
+						.getResultList();
+		if (rows.isEmpty()) {
+			return null;
+		}
+		Object[] row = rows.get(0);
+		Number length = (Number) row[2];
+		if (length == null || length.longValue() == 0) {
+			return null;
+		}
+		return row[0] + "-" + row[1] + '-' + length;
+	}
+
+	/**
+	 * Get the photo of a patient.
+	 *
+	 * @param patientCode the patient code
+	 * @return the bytes of the {@link PatientProfilePhoto}, or {@code null} if the patient has none
+	 */
+	@Transactional(readOnly = true)
+	public byte[] getPhoto(int patientCode) {
+		List<byte[]> photos = entityManager.createQuery(
+						"SELECT pp.photo FROM PatientProfilePhoto pp WHERE pp.patient.code = :code", byte[].class)
+						.setParameter("code", patientCode)
+						.setMaxResults(1)
+						.getResultList();
+		return photos.isEmpty() ? null : photos.get(0);
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.patient.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Produces scaled down copies of patient photos and keeps them on disk. Files are named after the version of the
+ * original photo, so a changed photo simply gets a new file and no invalidation is needed, and a thumbnail on disk is
+ * served without reading the original. The thumbnails of old
+ * photos are removed by a periodic sweep: files not read for longer than the TTL go first, then the least recently
+ * read ones until the directory fits in its maximum size.
+ */
+@Component
+public class PatientPhotoThumbnails {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(PatientPhotoThumbnails.class);
+
+	public static final int MIN_SIZE = 16;
+	public static final int MAX_SIZE = 512;
+
+	private static final long DEFAULT_MAX_MEGABYTES = 100;
+	private static final long DEFAULT_TTL_DAYS = 30;
+	private static final long SWEEP_MINUTES = 60;
+
+	@Autowired
+	private Environment env;
+
+	private Path directory;
+	private long maxBytes;
+	private long ttlMillis;
+	private ScheduledExecutorService sweeper;
+
+	@PostConstruct
+	public void init() {
+		String defaultDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "oh-patient-thumbnails").toString();
+		directory = Paths.get(env.getProperty("patient.photo.thumbnail.dir", defaultDirectory));
+		maxBytes = Math.max(0, env.getProperty("patient.photo.thumbnail.max.size", Long.class, DEFAULT_MAX_MEGABYTES)) * 1024 * 1024;
+		ttlMillis = TimeUnit.DAYS.toMillis(Math.max(1, env.getProperty("patient.photo.thumbnail.ttl", Long.class, DEFAULT_TTL_DAYS)));
+		sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "oh-patient-thumbnails");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweeper.scheduleWithFixedDelay(this::evict, 0, SWEEP_MINUTES, TimeUnit.MINUTES);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sweeper.shutdownNow();
+	}
+
+	/**
+	 * Get the thumbnail of a photo, creating it the first time it is asked for.
+	 *
+	 * @param version identifies the original photo, changes with it and is usable in a file name
+	 * @param photo reads the original photo, only called if the thumbnail is not on disk yet
+	 * @param size the length in pixels of the longest side, between {@link #MIN_SIZE} and {@link #MAX_SIZE}
+	 * @return the JPEG bytes of the thumbnail, or {@code null} if there is no photo or it is not a readable image
+	 * @throws IOException if the thumbnail directory cannot be used
+	 */
+	public byte[] getThumbnail(String version, Supplier<byte[]> photo, int size) throws IOException {
+		Path file = directory.resolve(version + '-' + size + ".jpg");
+		if (Files.isReadable(file)) {
+			byte[] thumbnail = Files.readAllBytes(file);
+			touch(file);
+			return thumbnail;
+		}
+		byte[] original = photo.get();
+		BufferedImage image = original != null ? ImageIO.read(new ByteArrayInputStream(original)) : null;
+		if (image == null) {
+			LOGGER.warn("Patient photo {} is not a readable image, no thumbnail created", version);
+			return null;
+		}
+		byte[] thumbnail = scale(image, size);
+		Files.createDirectories(directory);
+		// write aside and move, so that concurrent requests never read a partial file
+		Path tmp = Files.createTempFile(directory, version, ".tmp");
+		try {
+			Files.write(tmp, thumbnail);
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+		return thumbnail;
+	}
+
+	/**
+	 * Delete the thumbnails not read within the TTL, then the least recently read ones while the directory is larger
+	 * than the maximum size.
+	 */
+	void evict() {
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+		List<Path> files = new ArrayList<>();
+		try (Stream<Path> list = Files.list(directory)) {
+			list.filter(file -> file.getFileName().toString().endsWith(".jpg")).forEach(files::add);
+		} catch (IOException e) {
+			LOGGER.error("Unable to list the thumbnails in {}: {}", directory, e.getMessage());
+			return;
+		}
+		long expired = System.currentTimeMillis() - ttlMillis;
+		long total = 0;
+		int deleted = 0;
+		List<Path> kept = new ArrayList<>();
+		for (Path file : files) {
+			long lastModified = lastModified(file);
+			if (lastModified < expired) {
+				deleted += delete(file);
+			} else {
+				kept.add(file);
+				total += size(file);
+			}
+		}
+		kept.sort(Comparator.comparingLong(PatientPhotoThumbnails::lastModified));
+		for (int i = 0; total > maxBytes && i < kept.size(); i++) {
+			total -= size(kept.get(i));
+			deleted += delete(kept.get(i));
+		}
+		if (deleted > 0) {
+			LOGGER.info("Removed {} patient photo thumbnails from {}", deleted, directory);
+		}
+	}
+
+	/* the modification time tracks the last read, so that the sweep removes the least recently used files first */
+	private static void touch(Path file) {
+		try {
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			LOGGER.debug("Unable to touch thumbnail {}: {}", file, e.getMessage());
+		}
+	}
+
+	private static long lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private static long size(Path file) {
+		try {
+			return Files.size(file);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private static int delete(Path file) {
+		try {
+			return Files.deleteIfExists(file) ? 1 : 0;
+		} catch (IOException e) {
+			LOGGER.warn("Unable to delete thumbnail {}: {}", file, e.getMessage());
+			return 0;
+		}
+	}
+
+	private static byte[] scale(BufferedImage image, int size) throws IOException {
+		double ratio = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+		int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+		int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+		BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(scaled, "jpg", out);
+		return out.toByteArray();
+	}
+}
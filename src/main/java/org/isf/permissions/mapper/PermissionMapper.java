@@ -40,7 +40,7 @@ public class PermissionMapper extends GenericMapper<Permission, PermissionDTO> {
 	@Override
 	public List<PermissionDTO> map2DTOList(List<Permission> list) {
 		return list.stream().map(permission -> {
-			PermissionDTO dto = modelMapper.map(permission, PermissionDTO.class);
+			PermissionDTO dto = super.map2DTO(permission);
 			List<String> userGroupCodes = extractUserGroupCodes(permission);
 			dto.setUserGroupIds(userGroupCodes);
 			return dto;
@@ -49,7 +49,7 @@ public class PermissionMapper extends GenericMapper<Permission, PermissionDTO> {
 
 	@Override
 	public PermissionDTO map2DTO(Permission fromObj) {
-		PermissionDTO dto = modelMapper.map(fromObj, PermissionDTO.class);
+		PermissionDTO dto = super.map2DTO(fromObj);
 		List<String> userGroupCodes = extractUserGroupCodes(fromObj);
 		dto.setUserGroupIds(userGroupCodes);
 		return dto;
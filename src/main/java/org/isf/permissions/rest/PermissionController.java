@@ -31,6 +31,7 @@ import org.isf.permissions.manager.PermissionManager;
 import org.isf.permissions.mapper.PermissionMapper;
 import org.isf.permissions.model.GroupPermission;
 import org.isf.permissions.model.Permission;
+import org.isf.shared.cache.UserAuthorityCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -67,6 +68,9 @@ public class PermissionController {
 	@Autowired
 	private UserGroupManager userGroupManager;
 
+	@Autowired
+	private UserAuthorityCache userAuthorityCache;
+
 	@GetMapping(value = "/permissions/userGroupCode/{userGroupCode}", produces = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<List<PermissionDTO>> retrievePermissionsByUserGroupcode(@PathVariable("userGroupCode") String userGroupCode) throws OHServiceException {
 		LOGGER.info("retrieving permissions: retrievePermissionsByUserGroupcode({})", userGroupCode);
@@ -119,6 +123,7 @@ public class PermissionController {
 		List<UserGroup> userGroups = this.userGroupManager.findByIdIn(permissionDTO.getUserGroupIds());
 		model.setGroupPermission(this.groupPermissionManager.generateGroupPermissionList(model, userGroups));
 		Permission permission = this.permissionManager.insertPermission(model);
+		this.userAuthorityCache.invalidateAll();
 
 		PermissionDTO resultPermissionDTO = this.permissionMapper.map2DTO(permission);
 		return ResponseEntity.status(HttpStatus.CREATED).body(resultPermissionDTO);
@@ -139,6 +144,7 @@ public class PermissionController {
 		model.setGroupPermission(groupPermissions);
 		Permission permission = this.permissionManager.updatePermission(model);
 		if (permission != null) {
+			this.userAuthorityCache.invalidateAll();
 			PermissionDTO dtos = this.permissionMapper.map2DTO(permission);
 			return ResponseEntity.status(HttpStatus.OK).body(dtos);
 		}
@@ -170,6 +176,7 @@ public class PermissionController {
 		model.setGroupPermission(groupPermissions);
 		Permission permission = this.permissionManager.updatePermission(model);
 		if (permission != null) {
+			this.userAuthorityCache.invalidateAll();
 			PermissionDTO dtos = this.permissionMapper.map2DTO(permission);
 			return ResponseEntity.status(HttpStatus.OK).body(dtos);
 		}
@@ -181,6 +188,9 @@ public class PermissionController {
 	public ResponseEntity<Boolean> deletePermission(@PathVariable("id") Integer id) throws OHServiceException {
 		LOGGER.info("deletePermission({})", id);
 		Boolean result = this.permissionManager.deletePermission(id);
+		if (result) {
+			this.userAuthorityCache.invalidateAll();
+		}
 		return ResponseEntity.status(result ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR).body(result);
 	}
 
@@ -28,6 +28,7 @@ import org.isf.pregtreattype.dto.PregnantTreatmentTypeDTO;
 import org.isf.pregtreattype.manager.PregnantTreatmentTypeBrowserManager;
 import org.isf.pregtreattype.mapper.PregnantTreatmentTypeMapper;
 import org.isf.pregtreattype.model.PregnantTreatmentType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -58,9 +59,14 @@ public class PregnantTreatmentTypeController {
 	@Autowired
 	protected PregnantTreatmentTypeMapper mapper;
 
-	public PregnantTreatmentTypeController(PregnantTreatmentTypeBrowserManager pregTreatTypeManager, PregnantTreatmentTypeMapper pregnantTreatmentTypemapper) {
+	@Autowired
+	protected ReferenceDataCache referenceDataCache;
+
+	public PregnantTreatmentTypeController(PregnantTreatmentTypeBrowserManager pregTreatTypeManager, PregnantTreatmentTypeMapper pregnantTreatmentTypemapper,
+			ReferenceDataCache referenceDataCache) {
 		this.pregTreatTypeManager = pregTreatTypeManager;
 		this.mapper = pregnantTreatmentTypemapper;
+		this.referenceDataCache = referenceDataCache;
 	}
 
 	/**
@@ -74,6 +80,7 @@ public class PregnantTreatmentTypeController {
 		String code = pregnantTreatmentTypeDTO.getCode();
 		LOGGER.info("Create pregnant treatment Type {}", code);
 		PregnantTreatmentType isCreatedPregnantTreatmentType = pregTreatTypeManager.newPregnantTreatmentType(mapper.map2Model(pregnantTreatmentTypeDTO));
+		referenceDataCache.invalidatePregnantTreatmentTypes();
 		if (isCreatedPregnantTreatmentType == null) {
 			throw new OHAPIException(new OHExceptionMessage("Pregnant Treatment Type not created."));
 		}
@@ -95,6 +102,7 @@ public class PregnantTreatmentTypeController {
 			throw new OHAPIException(new OHExceptionMessage("Pregnant Treatment Type not found."));
 		}
 		PregnantTreatmentType isUpdatedPregnantTreatmentType = pregTreatTypeManager.updatePregnantTreatmentType(pregTreatType);
+		referenceDataCache.invalidatePregnantTreatmentTypes();
 		if (isUpdatedPregnantTreatmentType == null) {
 			throw new OHAPIException(new OHExceptionMessage("Pregnant Treatment Type not updated."));
 		}
@@ -134,6 +142,7 @@ public class PregnantTreatmentTypeController {
 					.collect(Collectors.toList());
 			if (!pregTreatTypeFounds.isEmpty()) {
 				isDeleted = pregTreatTypeManager.deletePregnantTreatmentType(pregTreatTypeFounds.get(0));
+				referenceDataCache.invalidatePregnantTreatmentTypes();
 			}
 		} else {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -21,16 +21,14 @@
  */
 package org.isf.security;
 
-import java.time.LocalDateTime;
-import java.util.Optional;
-
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 
-import org.isf.sessionaudit.manager.SessionAuditManager;
-import org.isf.sessionaudit.model.SessionAudit;
-import org.isf.utils.exception.OHServiceException;
+import org.isf.login.service.SessionAuditRecorder;
+import org.isf.security.jwt.JWTFilter;
+import org.isf.security.jwt.TokenPrincipal;
+import org.isf.security.jwt.TokenProvider;
+import org.isf.security.jwt.TokenRevocationList;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -38,40 +36,37 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Service
 public class CustomLogoutHandler implements LogoutHandler {
 	@Autowired
-	private HttpSession httpSession;
+	private TokenProvider tokenProvider;
+
+	@Autowired
+	private TokenRevocationList tokenRevocationList;
 
 	@Autowired
-	private SessionAuditManager sessionAuditManager;
+	private SessionAuditRecorder sessionAuditRecorder;
 
 	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(CustomLogoutHandler.class);
 
 	@Override
 	public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
-		try {
-			Optional<Object> sessionAuditIdOpt = Optional.ofNullable(httpSession.getAttribute("sessionAuditId"));
-			if (sessionAuditIdOpt.isPresent()) {
-				int sessionAuditId = (int) sessionAuditIdOpt.get();
-				Optional<SessionAudit> sa = sessionAuditManager.getSessionAudit(sessionAuditId);
-				if (sa.isPresent()) {
-					SessionAudit sessionAudit = sa.get();
-					sessionAudit.setLogoutDate(LocalDateTime.now());
-					sessionAuditManager.updateSessionAudit(sessionAudit);
-				}
-			} else {
-				LOGGER.error("Unable to find the session. Are you sure that you are logged in?");
+		// the session audit is identified by the token itself, so that no server-side session is needed; an expired
+		// token still closes its session
+		String jwt = JWTFilter.resolveToken(request);
+		TokenPrincipal principal = StringUtils.hasText(jwt) ? tokenProvider.verifyTokenIgnoringExpiration(jwt) : null;
+		if (principal == null || tokenRevocationList.isRevoked(principal.getTokenId())) {
+			LOGGER.error("Unable to find the session. Are you sure that you are logged in?");
+		} else {
+			// the token would otherwise stay valid until its expiration; expired tokens are not kept
+			tokenRevocationList.revoke(principal.getTokenId(), principal.getExpiresAt());
+			if (principal.getLoginDate() != null) {
+				sessionAuditRecorder.logout(principal.getUsername(), principal.getLoginDate());
 			}
-		} catch (OHServiceException e) {
-			LOGGER.error("Unable to log user login timestamp in the session_audit table");
 		}
 
-		HttpSession session = request.getSession(false);
-		if (session != null) {
-			session.invalidate();
-		}
 		SecurityContext context = SecurityContextHolder.getContext();
 		SecurityContextHolder.clearContext();
 		context.setAuthentication(null);
@@ -27,12 +27,9 @@ import java.time.LocalDateTime;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 
+import org.isf.login.service.SessionAuditRecorder;
 import org.isf.security.jwt.TokenProvider;
-import org.isf.sessionaudit.manager.SessionAuditManager;
-import org.isf.sessionaudit.model.SessionAudit;
-import org.isf.utils.exception.OHServiceException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -51,10 +48,7 @@ public class OHSimpleUrlAuthenticationSuccessHandler extends SimpleUrlAuthentica
 	private TokenProvider tokenProvider;
 
 	@Autowired
-	private HttpSession httpSession;
-
-	@Autowired
-	private SessionAuditManager sessionAuditManager;
+	private SessionAuditRecorder sessionAuditRecorder;
 
 	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(OHSimpleUrlAuthenticationSuccessHandler.class);
 
@@ -68,21 +62,16 @@ public class OHSimpleUrlAuthenticationSuccessHandler extends SimpleUrlAuthentica
 
 		SavedRequest savedRequest = requestCache.getRequest(request, response);
 
+		LocalDateTime loginDate = sessionAuditRecorder.login(authentication.getName());
+
 		LoginResponse loginResponse = new LoginResponse();
-		loginResponse.setToken(this.tokenProvider.generateJwtToken(authentication, true));
+		loginResponse.setToken(this.tokenProvider.generateJwtToken(authentication, true, loginDate));
 		loginResponse.setDisplayName(authentication.getName());
 		ObjectMapper mapper = new ObjectMapper();
 
 		response.getWriter().append(mapper.writeValueAsString(loginResponse));
 		response.setStatus(200);
 
-		try {
-			this.httpSession.setAttribute("sessionAuditId",
-							sessionAuditManager.newSessionAudit(new SessionAudit(authentication.getName(), LocalDateTime.now(), null)));
-		} catch (OHServiceException e1) {
-			LOGGER.error("Unable to log user login in the session_audit table");
-		}
-
 		if (savedRequest == null) {
 			clearAuthenticationAttributes(request);
 			return;
@@ -0,0 +1,191 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs the password hash checks of the logins on a small dedicated pool with a bounded queue.
+ * <p>
+ * BCrypt is deliberately slow: run on the request threads, a burst of logins occupies all of them and blocks the rest
+ * of the API. Here at most {@code security.bcrypt.threads} checks run at once, {@code security.bcrypt.queue.size} more
+ * wait, and any further login is refused at once with a {@link PasswordHashRejectedException}.
+ * <p>
+ * Every check is timed, with percentile histograms, in {@code oh.password.checks} (the hash itself) and
+ * {@code oh.password.checks.wait} (the time spent in the queue before it).
+ */
+@Component
+public class PasswordHashExecutor {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(PasswordHashExecutor.class);
+
+	private static final int DEFAULT_QUEUE_SIZE = 64;
+	private static final int DEFAULT_TIMEOUT = 10;
+	private static final int DEFAULT_RETRY_AFTER = 5;
+
+	@Autowired
+	private Environment env;
+
+	private final PasswordEncoder passwordEncoder;
+
+	private ThreadPoolExecutor executor;
+	private long timeoutMillis;
+	private int retryAfterSeconds;
+
+	private final LongAdder hashes = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	/* on the global registry, which Spring Boot binds to its own */
+	private Timer hashTimer;
+	private Timer waitTimer;
+
+	public PasswordHashExecutor(PasswordEncoder passwordEncoder) {
+		this.passwordEncoder = passwordEncoder;
+	}
+
+	@PostConstruct
+	public void init() {
+		int threads = Math.max(1, env.getProperty("security.bcrypt.threads", Integer.class, Math.max(1, Runtime.getRuntime().availableProcessors() / 2)));
+		int queueSize = Math.max(1, env.getProperty("security.bcrypt.queue.size", Integer.class, DEFAULT_QUEUE_SIZE));
+		timeoutMillis = TimeUnit.SECONDS.toMillis(env.getProperty("security.bcrypt.timeout", Integer.class, DEFAULT_TIMEOUT));
+		retryAfterSeconds = env.getProperty("security.bcrypt.retry.after", Integer.class, DEFAULT_RETRY_AFTER);
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+			Thread thread = new Thread(runnable, "oh-bcrypt-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.AbortPolicy());
+		hashTimer = Timer.builder("oh.password.checks")
+						.description("Password hash checks")
+						.publishPercentileHistogram()
+						.register(Metrics.globalRegistry);
+		waitTimer = Timer.builder("oh.password.checks.wait")
+						.description("Time password checks waited in the queue")
+						.publishPercentileHistogram()
+						.register(Metrics.globalRegistry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Check a password against its stored hash on the hashing pool, waiting for the result.
+	 *
+	 * @param rawPassword the password sent by the user
+	 * @param encodedPassword the stored hash
+	 * @return {@code true} if the password matches
+	 * @throws PasswordHashRejectedException if the pool is saturated or the check does not complete in time
+	 */
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		long submitted = System.nanoTime();
+		Future<Boolean> check;
+		try {
+			check = executor.submit(() -> {
+				long start = System.nanoTime();
+				waitTimer.record(start - submitted, TimeUnit.NANOSECONDS);
+				try {
+					return passwordEncoder.matches(rawPassword, encodedPassword);
+				} finally {
+					hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					hashes.increment();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			LOGGER.warn("Password check refused: {} checks running and {} queued", executor.getActiveCount(), executor.getQueue().size());
+			throw new PasswordHashRejectedException(retryAfterSeconds);
+		}
+		try {
+			return check.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			check.cancel(true);
+			rejected.increment();
+			LOGGER.warn("Password check not completed in {} ms", timeoutMillis);
+			throw new PasswordHashRejectedException(retryAfterSeconds);
+		} catch (InterruptedException e) {
+			check.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new AuthenticationServiceException("Password check interrupted", e);
+		} catch (ExecutionException e) {
+			throw new AuthenticationServiceException("Password check failed", e.getCause());
+		}
+	}
+
+	/**
+	 * @return an encoder that checks passwords on the hashing pool, for the authentication providers that take a
+	 *         {@link PasswordEncoder}; hashing new passwords stays on the calling thread
+	 */
+	public PasswordEncoder asPasswordEncoder() {
+		return new PasswordEncoder() {
+
+			@Override
+			public String encode(CharSequence rawPassword) {
+				return passwordEncoder.encode(rawPassword);
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				return PasswordHashExecutor.this.matches(rawPassword, encodedPassword);
+			}
+
+			@Override
+			public boolean upgradeEncoding(String encodedPassword) {
+				return passwordEncoder.upgradeEncoding(encodedPassword);
+			}
+		};
+	}
+
+	public long getHashCount() {
+		return hashes.sum();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	public int getQueuedCount() {
+		return executor.getQueue().size();
+	}
+}
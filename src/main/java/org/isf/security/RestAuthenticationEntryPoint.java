@@ -27,6 +27,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -37,7 +38,11 @@ public class RestAuthenticationEntryPoint implements AuthenticationEntryPoint {
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
-        // TODO Auto-generated method stub
+        if (authException instanceof PasswordHashRejectedException) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(((PasswordHashRejectedException) authException).getRetryAfterSeconds()));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, authException.getMessage());
+            return;
+        }
         response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Not Authorized");
     }
 
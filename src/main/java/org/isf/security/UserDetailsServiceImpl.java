@@ -26,6 +26,7 @@ import java.util.List;
 
 import org.isf.menu.manager.UserBrowsingManager;
 import org.isf.menu.model.User;
+import org.isf.shared.cache.UserAuthorityCache;
 import org.isf.utils.exception.OHServiceException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,11 +44,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     protected UserBrowsingManager manager;
 
+    @Autowired
+    private UserAuthorityCache userAuthorityCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user;
         try {
-            user = manager.getUserByName(username);
+            user = userAuthorityCache.getUser(username);
         } catch (OHServiceException e) {
             LOGGER.error("User login received an unexpected OHServiceException", e);
             throw new UsernameNotFoundException(username + " authentication failed", e);
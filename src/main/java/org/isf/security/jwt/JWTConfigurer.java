@@ -30,13 +30,16 @@ public class JWTConfigurer extends SecurityConfigurerAdapter<DefaultSecurityFilt
 
     private final TokenProvider tokenProvider;
 
-    public JWTConfigurer(TokenProvider tokenProvider) {
+    private final TokenRevocationList tokenRevocationList;
+
+    public JWTConfigurer(TokenProvider tokenProvider, TokenRevocationList tokenRevocationList) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
     public void configure(HttpSecurity http) {
-        JWTFilter customFilter = new JWTFilter(tokenProvider);
+        JWTFilter customFilter = new JWTFilter(tokenProvider, tokenRevocationList);
         http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
     }
 }
@@ -36,7 +36,7 @@ import org.springframework.web.filter.GenericFilterBean;
 
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
- * found.
+ * found and its token has not been revoked.
  */
 public class JWTFilter extends GenericFilterBean {
 
@@ -44,8 +44,11 @@ public class JWTFilter extends GenericFilterBean {
 
 	private final TokenProvider tokenProvider;
 
-	public JWTFilter(TokenProvider tokenProvider) {
+	private final TokenRevocationList tokenRevocationList;
+
+	public JWTFilter(TokenProvider tokenProvider, TokenRevocationList tokenRevocationList) {
 		this.tokenProvider = tokenProvider;
+		this.tokenRevocationList = tokenRevocationList;
 	}
 
 	@Override
@@ -54,14 +57,20 @@ public class JWTFilter extends GenericFilterBean {
 		HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
 		String jwt = resolveToken(httpServletRequest);
 
-		if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt) && !this.tokenProvider.isTokenExpired(jwt)) {
-			Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-			SecurityContextHolder.getContext().setAuthentication(authentication);
+		if (StringUtils.hasText(jwt)) {
+			TokenPrincipal principal = this.tokenProvider.verifyToken(jwt);
+			if (principal != null && !tokenRevocationList.isRevoked(principal.getTokenId())) {
+				Authentication authentication = principal.toAuthentication(jwt);
+				SecurityContextHolder.getContext().setAuthentication(authentication);
+			}
 		}
 		filterChain.doFilter(servletRequest, servletResponse);
 	}
 
-	private String resolveToken(HttpServletRequest request) {
+	/**
+	 * @return the bearer token of the {@value #AUTHORIZATION_HEADER} header, {@code null} if there is none
+	 */
+	public static String resolveToken(HttpServletRequest request) {
 		String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
 		if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
 			return bearerToken.substring(7);
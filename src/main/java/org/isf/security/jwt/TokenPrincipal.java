@@ -0,0 +1,100 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.security.jwt;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Immutable view of a JWT whose signature and expiration have already been verified.
+ */
+public final class TokenPrincipal {
+
+	private final String username;
+	private final List<GrantedAuthority> authorities;
+	private final long expiresAt;
+	private final LocalDateTime loginDate;
+	private final String tokenId;
+
+	public TokenPrincipal(String username, Collection<? extends GrantedAuthority> authorities, Date expiration) {
+		this(username, authorities, expiration, null, null);
+	}
+
+	public TokenPrincipal(String username, Collection<? extends GrantedAuthority> authorities, Date expiration, LocalDateTime loginDate,
+					String tokenId) {
+		this.username = username;
+		this.authorities = Collections.unmodifiableList(List.copyOf(authorities));
+		this.expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+		this.loginDate = loginDate;
+		this.tokenId = tokenId;
+	}
+
+	public String getUsername() {
+		return this.username;
+	}
+
+	public List<GrantedAuthority> getAuthorities() {
+		return this.authorities;
+	}
+
+	/**
+	 * @return the value of the {@code exp} claim, in epoch milliseconds.
+	 */
+	public long getExpiresAt() {
+		return this.expiresAt;
+	}
+
+	/**
+	 * @return the login date of the session audit of the token, {@code null} for tokens issued without one.
+	 */
+	public LocalDateTime getLoginDate() {
+		return this.loginDate;
+	}
+
+	/**
+	 * @return the {@code jti} claim, {@code null} for tokens issued without one.
+	 */
+	public String getTokenId() {
+		return this.tokenId;
+	}
+
+	public boolean isExpired() {
+		return this.expiresAt <= System.currentTimeMillis();
+	}
+
+	/**
+	 * Builds a fresh {@link Authentication} for the current request; the token itself is shared between requests, the
+	 * (mutable) authentication object is not.
+	 */
+	public Authentication toAuthentication(String token) {
+		User principal = new User(this.username, "", this.authorities);
+		return new UsernamePasswordAuthenticationToken(principal, token, this.authorities);
+	}
+}
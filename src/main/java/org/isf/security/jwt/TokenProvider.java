@@ -24,9 +24,16 @@ package org.isf.security.jwt;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -36,20 +43,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 
 @Component
 public class TokenProvider implements Serializable {
@@ -61,12 +78,31 @@ public class TokenProvider implements Serializable {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    /** Login date of the session audit, which identifies it together with the subject. */
+    private static final String LOGIN_DATE_KEY = "login";
+
+    private static final long DEFAULT_CACHE_SIZE = 10_000L;
+
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 300L;
+
     private Key key;
 
     private long tokenValidityInMilliseconds;
 
     private long tokenValidityInMillisecondsForRememberMe;
 
+    /** Immutable and thread-safe once built, so a single instance serves every request. */
+    private transient JwtParser jwtParser;
+
+    /** Tokens already verified, keyed by the SHA-256 of the compact token. */
+    private transient Cache<String, TokenPrincipal> verifiedTokens;
+
+    /* on the global registry, which Spring Boot binds to its own */
+    private transient Timer generateTimer;
+    private transient Timer cachedTimer;
+    private transient Timer parsedTimer;
+    private transient Timer invalidTimer;
+
     @PostConstruct
     public void init() {
     	String secret = env.getProperty("jwt.token.secret");
@@ -74,9 +110,47 @@ public class TokenProvider implements Serializable {
         // byte[] keyBytes = Decoders.BASE64.decode(SECRET);
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(this.key).build();
         
         this.tokenValidityInMilliseconds = 1000L * 6000;
         this.tokenValidityInMillisecondsForRememberMe = 1000L * 6000;
+
+        long cacheSize = env.getProperty("jwt.cache.size", Long.class, DEFAULT_CACHE_SIZE);
+        long cacheTtlNanos = TimeUnit.SECONDS.toNanos(env.getProperty("jwt.cache.ttl", Long.class, DEFAULT_CACHE_TTL_SECONDS));
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, TokenPrincipal>() {
+
+                    @Override
+                    public long expireAfterCreate(String hash, TokenPrincipal principal, long currentTime) {
+                        // never outlive the exp claim of the token
+                        long untilExpiration = TimeUnit.MILLISECONDS.toNanos(principal.getExpiresAt() - System.currentTimeMillis());
+                        return Math.max(0L, Math.min(cacheTtlNanos, untilExpiration));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, TokenPrincipal principal, long currentTime, long currentDuration) {
+                        return expireAfterCreate(hash, principal, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, TokenPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        this.generateTimer = Timer.builder("oh.jwt.generate").description("JWT generation").register(Metrics.globalRegistry);
+        this.cachedTimer = verifyTimer("cached");
+        this.parsedTimer = verifyTimer("parsed");
+        this.invalidTimer = verifyTimer("invalid");
+    }
+
+    private static Timer verifyTimer(String result) {
+        return Timer.builder("oh.jwt.verify")
+                .description("JWT verification, from the cache of verified tokens or by a full parse")
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
     }
     
     public String getUsernameFromToken(String token) {
@@ -84,11 +158,7 @@ public class TokenProvider implements Serializable {
     }
     
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(this.key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return this.jwtParser.parseClaimsJws(token).getBody();
     }
     
     public Date getExpirationDateFromToken(String token) {
@@ -106,6 +176,17 @@ public class TokenProvider implements Serializable {
     }
     
     public String generateJwtToken(Authentication authentication, boolean rememberMe) {
+        return generateJwtToken(authentication, rememberMe, null);
+    }
+
+    /**
+     * @param authentication the authenticated user
+     * @param rememberMe whether the token is long-lived
+     * @param loginDate the login date of the session audit, carried by the token so that any node can record the logout
+     * @return the compact JWT
+     */
+    public String generateJwtToken(Authentication authentication, boolean rememberMe, LocalDateTime loginDate) {
+        long start = System.nanoTime();
     	final String authorities = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
@@ -118,40 +199,124 @@ public class TokenProvider implements Serializable {
             validity = new Date(now + this.tokenValidityInMilliseconds);
         }
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(authentication.getName())
-                .claim(AUTHORITIES_KEY, authorities)
+                .claim(AUTHORITIES_KEY, authorities);
+        if (loginDate != null) {
+            builder.claim(LOGIN_DATE_KEY, loginDate.toString());
+        }
+        String token = builder
                 .signWith(key, SignatureAlgorithm.HS512)
                 .setExpiration(validity)
                 .compact();
+        generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
     public Authentication getAuthentication(String token) {
-    	final Claims claims = getAllClaimsFromToken(token);
+        TokenPrincipal principal = verifyToken(token);
+        return principal != null ? principal.toAuthentication(token) : null;
+    }
 
-        final Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+    public boolean validateToken(String token) {
+        return verifyToken(token) != null;
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Verifies the signature and the expiration of the token and decodes its claims, all in a single parse. Successful
+     * results are cached until the configured TTL or the {@code exp} claim, whichever comes first.
+     * 
+     * @param token the compact JWT
+     * @return the verified {@link TokenPrincipal} or {@code null} if the token is not valid.
+     */
+    public TokenPrincipal verifyToken(String token) {
+        long start = System.nanoTime();
+        String cacheKey = hash(token);
+        TokenPrincipal principal = this.verifiedTokens.getIfPresent(cacheKey);
+        if (principal != null && !principal.isExpired()) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return principal;
+        }
+        principal = parseToken(token);
+        if (principal != null) {
+            this.verifiedTokens.put(cacheKey, principal);
+            parsedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            this.verifiedTokens.invalidate(cacheKey);
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return principal;
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Verifies the signature of the token and decodes its claims like {@link #verifyToken(String)}, but also accepts
+     * an expired token, so that the session of a token which expired before its logout can still be closed. The result
+     * is not cached.
+     * 
+     * @param token the compact JWT
+     * @return the {@link TokenPrincipal}, possibly {@link TokenPrincipal#isExpired() expired}, or {@code null} if the
+     *         token is not valid for another reason than its expiration.
+     */
+    public TokenPrincipal verifyTokenIgnoringExpiration(String token) {
+        try {
+            return toPrincipal(getAllClaimsFromToken(token));
+        } catch (ExpiredJwtException e) {
+            // thrown once the signature has been verified
+            return toPrincipal(e.getClaims());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+            return null;
+        }
     }
 
-    public boolean validateToken(String token) {
+    private TokenPrincipal parseToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            return toPrincipal(getAllClaimsFromToken(token));
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             log.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             log.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SecurityException e) {
+            log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    private TokenPrincipal toPrincipal(Claims claims) {
+        Object authoritiesClaim = claims.get(AUTHORITIES_KEY);
+        List<SimpleGrantedAuthority> authorities = authoritiesClaim == null ? List.of()
+                : Arrays.stream(authoritiesClaim.toString().split(","))
+                        .filter(StringUtils::hasText)
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+        return new TokenPrincipal(claims.getSubject(), authorities, claims.getExpiration(), loginDate(claims), claims.getId());
+    }
+
+    private LocalDateTime loginDate(Claims claims) {
+        Object loginDateClaim = claims.get(LOGIN_DATE_KEY);
+        if (loginDateClaim == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(loginDateClaim.toString());
+        } catch (DateTimeParseException e) {
+            log.error("Invalid JWT login date: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
     }
 }
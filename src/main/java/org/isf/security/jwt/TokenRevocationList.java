@@ -0,0 +1,203 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.security.jwt;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revoked JWTs, by {@code jti}, until they expire.
+ * <p>
+ * Every authenticated request checks its token here, so the lookup must cost next to nothing: a {@link BloomFilter}
+ * answers "not revoked" for almost every token without touching the exact set, which is only consulted on a (possibly
+ * false) positive. Expired entries are evicted every {@code jwt.revocation.sweep} seconds, rebuilding the filter.
+ * <p>
+ * With {@code jwt.revocation.file} set, the revocations are appended to that file and reloaded at startup, so that a
+ * restart does not make revoked tokens valid again; the file is compacted when entries are evicted.
+ * <p>
+ * The list is local to the node: nothing is shared between nodes, not even through the file, which each node must have
+ * its own copy of. Behind a load balancer, a token revoked on one node is still accepted by the others until it
+ * expires.
+ */
+@Component
+public class TokenRevocationList {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(TokenRevocationList.class);
+
+	private static final int DEFAULT_EXPECTED = 10000;
+	private static final int DEFAULT_SWEEP_SECONDS = 60;
+	private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+	@Autowired
+	private Environment env;
+
+	/* jti -> expiration in epoch milliseconds */
+	private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+	/* rebuilt at every sweep; writes are serialized by the lock of this object */
+	private volatile BloomFilter filter;
+
+	private int expected;
+	private Path file;
+	private ScheduledExecutorService sweeper;
+
+	private Clock clock = Clock.systemUTC();
+
+	@PostConstruct
+	public void init() {
+		expected = Math.max(1, env.getProperty("jwt.revocation.expected", Integer.class, DEFAULT_EXPECTED));
+		String fileName = env.getProperty("jwt.revocation.file");
+		file = fileName == null || fileName.isBlank() ? null : Paths.get(fileName);
+		load();
+		filter = newFilter();
+		int sweepSeconds = Math.max(1, env.getProperty("jwt.revocation.sweep", Integer.class, DEFAULT_SWEEP_SECONDS));
+		sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "oh-token-revocation");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweeper.scheduleAtFixedRate(this::evictExpired, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sweeper.shutdownNow();
+	}
+
+	/**
+	 * Revoke a token until its expiration.
+	 *
+	 * @param tokenId the {@code jti} claim of the token
+	 * @param expiresAt the {@code exp} claim of the token, in epoch milliseconds
+	 */
+	public synchronized void revoke(String tokenId, long expiresAt) {
+		if (tokenId == null || expiresAt <= clock.millis()) {
+			return;
+		}
+		if (revoked.put(tokenId, expiresAt) != null) {
+			return;
+		}
+		filter.put(tokenId);
+		if (file != null) {
+			try {
+				Files.write(file, List.of(tokenId + ' ' + expiresAt), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+								StandardOpenOption.APPEND);
+			} catch (IOException e) {
+				LOGGER.error("Unable to persist the revoked token to {}: {}", file, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * @param tokenId the {@code jti} claim of the token, may be {@code null} for tokens issued without one
+	 * @return {@code true} if the token has been revoked
+	 */
+	public boolean isRevoked(String tokenId) {
+		if (tokenId == null || !filter.mightContain(tokenId)) {
+			return false;
+		}
+		return revoked.containsKey(tokenId);
+	}
+
+	public int getRevokedCount() {
+		return revoked.size();
+	}
+
+	synchronized void evictExpired() {
+		long now = clock.millis();
+		if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+			return;
+		}
+		filter = newFilter();
+		if (file != null) {
+			store();
+		}
+	}
+
+	/**
+	 * @return a filter of the current entries, sized for twice as many entries if there are already more than expected
+	 */
+	private BloomFilter newFilter() {
+		BloomFilter newFilter = new BloomFilter(Math.max(expected, revoked.size() * 2), FALSE_POSITIVE_PROBABILITY);
+		revoked.keySet().forEach(newFilter::put);
+		return newFilter;
+	}
+
+	private void load() {
+		if (file == null || !Files.exists(file)) {
+			return;
+		}
+		long now = clock.millis();
+		try {
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+				String[] entry = line.trim().split(" ");
+				if (entry.length != 2) {
+					continue;
+				}
+				try {
+					long expiresAt = Long.parseLong(entry[1]);
+					if (expiresAt > now) {
+						revoked.put(entry[0], expiresAt);
+					}
+				} catch (NumberFormatException e) {
+					LOGGER.warn("Invalid revoked token entry in {}: {}", file, line);
+				}
+			}
+			LOGGER.info("Loaded {} revoked tokens from {}", revoked.size(), file);
+		} catch (IOException e) {
+			LOGGER.error("Unable to load the revoked tokens from {}: {}", file, e.getMessage());
+		}
+	}
+
+	private void store() {
+		List<String> lines = new ArrayList<>(revoked.size());
+		revoked.forEach((tokenId, expiresAt) -> lines.add(tokenId + ' ' + expiresAt));
+		try {
+			Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+			Files.write(temp, lines, StandardCharsets.UTF_8);
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.error("Unable to compact the revoked tokens file {}: {}", file, e.getMessage());
+		}
+	}
+}
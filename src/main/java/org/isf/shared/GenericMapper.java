@@ -21,46 +21,69 @@
  */
 package org.isf.shared;
 
-import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.isf.patient.dto.PatientDTO;
 import org.isf.patient.dto.PatientSTATUS;
 import org.isf.patient.model.Patient;
+import org.isf.shared.mapper.CompiledTypeMap;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
 public class GenericMapper<SourceType, DestType> implements Mapper<SourceType, DestType> {
 
 	@Autowired
 	protected ModelMapper modelMapper;
-	private Type sourceClass;
-	private Type destClass;
+
+	private Class<SourceType> sourceClass;
+	private Class<DestType> destClass;
+
+	/* compiled on first use, once the mappings of the subclass have been registered in modelMapper */
+	private volatile CompiledTypeMap<SourceType, DestType> toDTO;
+	private volatile CompiledTypeMap<DestType, SourceType> toModel;
+
+	/* on the global registry, which Spring Boot binds to its own, so that mappers created outside Spring are measured too */
+	private final Timer listTimer;
+	private final Counter listItems;
 
 	public GenericMapper(Class<SourceType> sourceClass, Class<DestType> destClass) {
 		this.sourceClass = sourceClass;
 		this.destClass = destClass;
+		this.listTimer = Timer.builder("oh.mapping")
+						.description("Mapping of entity lists to DTOs")
+						.tag("mapper", getClass().getSimpleName())
+						.register(Metrics.globalRegistry);
+		this.listItems = Counter.builder("oh.mapping.items")
+						.description("Entities mapped to DTOs in lists")
+						.tag("mapper", getClass().getSimpleName())
+						.register(Metrics.globalRegistry);
 	}
 
 	@Override
 	public DestType map2DTO(SourceType fromObj) {
-		return modelMapper.map(fromObj, destClass);
+		return toDTO(fromObj);
 	}
 
 	@Override
 	public SourceType map2Model(DestType toObj) {
-		return modelMapper.map(toObj, sourceClass);
+		return toModel(toObj);
 	}
 
 	@Override
 	public List<DestType> map2DTOList(List<SourceType> list) {
-		return (List<DestType>) list.stream().map(it -> modelMapper.map(it, destClass)).collect(Collectors.toList());
+		return mapList(list, this::toDTO);
 	}
 
 	@Override
 	public List<SourceType> map2ModelList(List<DestType> list) {
-		return (List<SourceType>) list.stream().map(it -> modelMapper.map(it, sourceClass)).collect(Collectors.toList());
+		return list.stream().map(it -> toModel(it)).collect(Collectors.toList());
 	}
 
 	public ModelMapper getMapper() {
@@ -68,8 +91,8 @@ public class GenericMapper<SourceType, DestType> implements Mapper<SourceType, D
 	}
 
 	public PatientDTO map2DTOWS(Patient fromObj, Boolean status) {
-		// TODO Auto-generated method stub
-		PatientDTO patientDTO = modelMapper.map(fromObj, destClass);
+		@SuppressWarnings("unchecked")
+		PatientDTO patientDTO = (PatientDTO) toDTO((SourceType) fromObj);
 
 		if (status) {
 			patientDTO.setStatus(PatientSTATUS.I);
@@ -79,4 +102,36 @@ public class GenericMapper<SourceType, DestType> implements Mapper<SourceType, D
 
 		return patientDTO;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Map a list element by element, on the calling thread: the mapping may read lazy associations, which need the
+	 * Hibernate session of the request.
+	 */
+	protected <T, R> List<R> mapList(List<T> list, Function<? super T, ? extends R> mapping) {
+		long start = System.nanoTime();
+		try {
+			return list.stream().map(mapping).collect(Collectors.toList());
+		} finally {
+			listTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			listItems.increment(list.size());
+		}
+	}
+
+	private DestType toDTO(SourceType fromObj) {
+		CompiledTypeMap<SourceType, DestType> compiled = toDTO;
+		if (compiled == null || compiled.getModelMapper() != modelMapper) {
+			compiled = CompiledTypeMap.compile(modelMapper, sourceClass, destClass);
+			toDTO = compiled;
+		}
+		return compiled.map(fromObj);
+	}
+
+	private SourceType toModel(DestType toObj) {
+		CompiledTypeMap<DestType, SourceType> compiled = toModel;
+		if (compiled == null || compiled.getModelMapper() != modelMapper) {
+			compiled = CompiledTypeMap.compile(modelMapper, destClass, sourceClass);
+			toModel = compiled;
+		}
+		return compiled.map(toObj);
+	}
+}
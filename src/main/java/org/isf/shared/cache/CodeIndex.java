@@ -0,0 +1,111 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.isf.utils.exception.OHServiceException;
+import org.slf4j.Logger;
+
+/**
+ * A catalogue loaded whole on first use and indexed by code, kept in the order of its loader. It is dropped by
+ * {@link #invalidate()} and reloaded once older than the TTL.
+ */
+final class CodeIndex<T> {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(CodeIndex.class);
+
+	private final String name;
+	private final Loader<List<T>> loader;
+	private final Function<T, String> codeOf;
+	private final LongSupplier ttlMillis;
+
+	private volatile Entries<T> entries;
+
+	CodeIndex(String name, Loader<List<T>> loader, Function<T, String> codeOf, LongSupplier ttlMillis) {
+		this.name = name;
+		this.loader = loader;
+		this.codeOf = codeOf;
+		this.ttlMillis = ttlMillis;
+	}
+
+	T get(String code) throws OHServiceException {
+		return current().byCode.get(code);
+	}
+
+	/**
+	 * @return the items, without duplicate codes, in the order of the loader
+	 */
+	List<T> values() throws OHServiceException {
+		return current().values;
+	}
+
+	/* synchronized with load(), so a load started before a write can never be published after it */
+	synchronized void invalidate() {
+		entries = null;
+	}
+
+	private Entries<T> current() throws OHServiceException {
+		Entries<T> current = entries;
+		if (current == null || isExpired(current)) {
+			current = load();
+		}
+		return current;
+	}
+
+	private boolean isExpired(Entries<T> current) {
+		return System.currentTimeMillis() - current.loadedAt > ttlMillis.getAsLong();
+	}
+
+	private synchronized Entries<T> load() throws OHServiceException {
+		Entries<T> current = entries;
+		if (current != null && !isExpired(current)) {
+			return current;
+		}
+		Map<String, T> byCode = new LinkedHashMap<>();
+		for (T item : loader.load()) {
+			byCode.putIfAbsent(codeOf.apply(item), item);
+		}
+		current = new Entries<>(byCode);
+		entries = current;
+		LOGGER.debug("Loaded {} {} into the cache", byCode.size(), name);
+		return current;
+	}
+
+	private static final class Entries<T> {
+
+		private final Map<String, T> byCode;
+		private final List<T> values;
+		private final long loadedAt = System.currentTimeMillis();
+
+		Entries(Map<String, T> byCode) {
+			this.byCode = Collections.unmodifiableMap(byCode);
+			this.values = Collections.unmodifiableList(new ArrayList<>(byCode.values()));
+		}
+	}
+}
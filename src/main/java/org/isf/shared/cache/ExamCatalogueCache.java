@@ -0,0 +1,126 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.isf.exa.manager.ExamBrowsingManager;
+import org.isf.exa.model.Exam;
+import org.isf.exatype.manager.ExamTypeBrowserManager;
+import org.isf.exatype.model.ExamType;
+import org.isf.utils.exception.OHServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory copy of the exam and exam type catalogues, indexed by code.
+ * <p>
+ * Both catalogues are loaded on first use and dropped by {@link #invalidate()}, which the exam and exam type
+ * controllers call after a successful write. The {@code reference.cache.ttl} of {@link ReferenceDataCache} bounds
+ * staleness for changes made outside this API.
+ */
+@Component
+public class ExamCatalogueCache {
+
+	private static final long DEFAULT_TTL_SECONDS = 600L;
+
+	@Autowired
+	private Environment env;
+
+	@Autowired
+	private ExamBrowsingManager examManager;
+
+	@Autowired
+	private ExamTypeBrowserManager examTypeManager;
+
+	/* both in the order of the database, by description */
+	private final CodeIndex<Exam> exams;
+	private final CodeIndex<ExamType> examTypes;
+
+	private long ttlMillis = TimeUnit.SECONDS.toMillis(DEFAULT_TTL_SECONDS);
+
+	public ExamCatalogueCache(ExamBrowsingManager examManager, ExamTypeBrowserManager examTypeManager) {
+		this.examManager = examManager;
+		this.examTypeManager = examTypeManager;
+		this.exams = new CodeIndex<>("exams", examManager::getExams, Exam::getCode, () -> ttlMillis);
+		this.examTypes = new CodeIndex<>("exam types", examTypeManager::getExamType, ExamType::getCode, () -> ttlMillis);
+	}
+
+	@PostConstruct
+	public void init() {
+		this.ttlMillis = TimeUnit.SECONDS.toMillis(env.getProperty("reference.cache.ttl", Long.class, DEFAULT_TTL_SECONDS));
+	}
+
+	public Exam getExam(String code) throws OHServiceException {
+		return code == null ? null : exams.get(code);
+	}
+
+	public ExamType getExamType(String code) throws OHServiceException {
+		return code == null ? null : examTypes.get(code);
+	}
+
+	/**
+	 * Get the exams whose exam type description contains the specified text, ignoring case, ordered by exam type
+	 * description and exam description: the same selection as {@code ExamBrowsingManager.getExams(String)}. Both orders
+	 * are the ones of the database, so they follow its collation.
+	 *
+	 * @param description the text to look for
+	 * @return the exams found, empty if none
+	 */
+	public List<Exam> getExamsByTypeDescription(String description) throws OHServiceException {
+		String text = description.toLowerCase(Locale.ROOT);
+		Map<String, List<Exam>> examsByType = new LinkedHashMap<>();
+		for (ExamType examType : examTypes.values()) {
+			if (examType.getDescription() != null && examType.getDescription().toLowerCase(Locale.ROOT).contains(text)) {
+				examsByType.put(examType.getCode(), new ArrayList<>());
+			}
+		}
+		if (examsByType.isEmpty()) {
+			return new ArrayList<>();
+		}
+		for (Exam exam : exams.values()) {
+			List<Exam> examsOfType = exam.getExamtype() == null ? null : examsByType.get(exam.getExamtype().getCode());
+			if (examsOfType != null) {
+				examsOfType.add(exam);
+			}
+		}
+		List<Exam> found = new ArrayList<>();
+		examsByType.values().forEach(found::addAll);
+		return found;
+	}
+
+	/**
+	 * Drop both catalogues, as the exams hold their exam type.
+	 */
+	public void invalidate() {
+		examTypes.invalidate();
+		exams.invalidate();
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.isf.menu.dto.UserMenuItemDTO;
+import org.isf.menu.manager.UserBrowsingManager;
+import org.isf.menu.mapper.UserMenuItemMapper;
+import org.isf.menu.model.User;
+import org.isf.shared.exceptions.OHAPIException;
+import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.exception.model.OHExceptionMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Mapped menu of every user group, with a strong ETag computed from its JSON form, keyed by group code.
+ * <p>
+ * {@code UserController} invalidates the entries after a successful change of the groups or of their rights.
+ */
+@Component
+public class GroupMenuCache {
+
+	private static final long DEFAULT_TTL_SECONDS = 3600L;
+
+	@Autowired
+	private Environment env;
+
+	private final UserBrowsingManager userManager;
+
+	private final UserMenuItemMapper userMenuItemMapper;
+
+	private final ObjectMapper objectMapper;
+
+	private Cache<String, GroupMenu> menus;
+
+	private final InvalidationGuard guard = new InvalidationGuard();
+
+	public GroupMenuCache(UserBrowsingManager userManager, UserMenuItemMapper userMenuItemMapper, ObjectMapper objectMapper) {
+		this.userManager = userManager;
+		this.userMenuItemMapper = userMenuItemMapper;
+		this.objectMapper = objectMapper;
+	}
+
+	@PostConstruct
+	public void init() {
+		long ttlSeconds = env.getProperty("menu.cache.ttl", Long.class, DEFAULT_TTL_SECONDS);
+		this.menus = Caffeine.newBuilder().expireAfterWrite(ttlSeconds, TimeUnit.SECONDS).build();
+	}
+
+	/**
+	 * @param user the {@link User}
+	 * @return the menu of the group of the user
+	 * @throws OHServiceException
+	 */
+	public GroupMenu getMenu(User user) throws OHServiceException {
+		return guard.get(menus, user.getUserGroupName().getCode(), () -> {
+			List<UserMenuItemDTO> items = userMenuItemMapper.map2DTOList(userManager.getMenu(user));
+			return new GroupMenu(Collections.unmodifiableList(items), eTagOf(items));
+		});
+	}
+
+	/**
+	 * Drop the menu of one group, after a change of its rights.
+	 *
+	 * @param groupCode the group code
+	 */
+	public void invalidate(String groupCode) {
+		guard.newGeneration();
+		menus.invalidate(groupCode);
+	}
+
+	private String eTagOf(List<UserMenuItemDTO> items) throws OHServiceException {
+		try {
+			return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(items));
+		} catch (JsonProcessingException e) {
+			throw new OHAPIException(new OHExceptionMessage("Menu not serializable."), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	public static final class GroupMenu {
+
+		private final List<UserMenuItemDTO> items;
+		private final String eTag;
+
+		GroupMenu(List<UserMenuItemDTO> items, String eTag) {
+			this.items = items;
+			this.eTag = eTag;
+		}
+
+		public List<UserMenuItemDTO> getItems() {
+			return items;
+		}
+
+		/**
+		 * @return the digest of the JSON form of the menu, to be used as a strong ETag
+		 */
+		public String getETag() {
+			return eTag;
+		}
+	}
+}
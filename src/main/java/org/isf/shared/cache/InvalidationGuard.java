@@ -0,0 +1,64 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.isf.utils.exception.OHServiceException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Loads the missing entries of the caches written by the API, without storing a value read before a concurrent
+ * invalidation: every invalidation starts a new generation, and a load only stores its value if it finished in the
+ * generation it started in.
+ */
+final class InvalidationGuard {
+
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * @param cache the cache
+	 * @param key the key of the entry
+	 * @param loader the load of a missing entry, whose {@code null} result is returned but not stored
+	 * @return the cached or loaded value
+	 * @throws OHServiceException
+	 */
+	<K, V> V get(Cache<K, V> cache, K key, Loader<V> loader) throws OHServiceException {
+		V value = cache.getIfPresent(key);
+		if (value == null) {
+			long loadGeneration = generation.get();
+			value = loader.load();
+			if (value != null && loadGeneration == generation.get()) {
+				cache.put(key, value);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Start a new generation; call it before dropping the entries.
+	 */
+	void newGeneration() {
+		generation.incrementAndGet();
+	}
+}
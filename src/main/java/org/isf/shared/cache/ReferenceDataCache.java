@@ -0,0 +1,146 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.isf.admission.manager.AdmissionBrowserManager;
+import org.isf.admtype.model.AdmissionType;
+import org.isf.disctype.model.DischargeType;
+import org.isf.disease.manager.DiseaseBrowserManager;
+import org.isf.disease.model.Disease;
+import org.isf.dlvrrestype.manager.DeliveryResultTypeBrowserManager;
+import org.isf.dlvrrestype.model.DeliveryResultType;
+import org.isf.dlvrtype.manager.DeliveryTypeBrowserManager;
+import org.isf.dlvrtype.model.DeliveryType;
+import org.isf.pregtreattype.manager.PregnantTreatmentTypeBrowserManager;
+import org.isf.pregtreattype.model.PregnantTreatmentType;
+import org.isf.utils.exception.OHServiceException;
+import org.isf.ward.manager.WardBrowserManager;
+import org.isf.ward.model.Ward;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory copy of the near-static type catalogues used by the admission write paths, indexed by code.
+ * <p>
+ * Every catalogue is loaded lazily on first use and dropped by the {@code invalidate*} methods, which the controllers
+ * owning the matching POST/PUT/DELETE endpoints call after a successful write. A TTL bounds staleness for changes made
+ * outside this API (e.g. from the desktop client).
+ */
+@Component
+public class ReferenceDataCache {
+
+	private static final long DEFAULT_TTL_SECONDS = 600L;
+
+	@Autowired
+	private Environment env;
+
+	private final CodeIndex<Ward> wards;
+	private final CodeIndex<AdmissionType> admissionTypes;
+	private final CodeIndex<Disease> diseases;
+	private final CodeIndex<DischargeType> dischargeTypes;
+	private final CodeIndex<PregnantTreatmentType> pregnantTreatmentTypes;
+	private final CodeIndex<DeliveryType> deliveryTypes;
+	private final CodeIndex<DeliveryResultType> deliveryResultTypes;
+
+	private long ttlMillis = TimeUnit.SECONDS.toMillis(DEFAULT_TTL_SECONDS);
+
+	public ReferenceDataCache(WardBrowserManager wardManager, AdmissionBrowserManager admissionManager, DiseaseBrowserManager diseaseManager,
+					PregnantTreatmentTypeBrowserManager pregTreatTypeManager, DeliveryTypeBrowserManager dlvrTypeManager,
+					DeliveryResultTypeBrowserManager dlvrrestTypeManager) {
+		this.wards = new CodeIndex<>("wards", wardManager::getWards, Ward::getCode, () -> ttlMillis);
+		this.admissionTypes = new CodeIndex<>("admission types", admissionManager::getAdmissionType, AdmissionType::getCode,
+						() -> ttlMillis);
+		this.diseases = new CodeIndex<>("diseases", diseaseManager::getDiseaseAll, Disease::getCode, () -> ttlMillis);
+		this.dischargeTypes = new CodeIndex<>("discharge types", admissionManager::getDischargeType, DischargeType::getCode, () -> ttlMillis);
+		this.pregnantTreatmentTypes = new CodeIndex<>("pregnant treatment types", pregTreatTypeManager::getPregnantTreatmentType,
+						PregnantTreatmentType::getCode, () -> ttlMillis);
+		this.deliveryTypes = new CodeIndex<>("delivery types", dlvrTypeManager::getDeliveryType, DeliveryType::getCode, () -> ttlMillis);
+		this.deliveryResultTypes = new CodeIndex<>("delivery result types", dlvrrestTypeManager::getDeliveryResultType,
+						DeliveryResultType::getCode, () -> ttlMillis);
+	}
+
+	@PostConstruct
+	public void init() {
+		this.ttlMillis = TimeUnit.SECONDS.toMillis(env.getProperty("reference.cache.ttl", Long.class, DEFAULT_TTL_SECONDS));
+	}
+
+	public Ward getWard(String code) throws OHServiceException {
+		return wards.get(code);
+	}
+
+	public AdmissionType getAdmissionType(String code) throws OHServiceException {
+		return admissionTypes.get(code);
+	}
+
+	public Disease getDisease(String code) throws OHServiceException {
+		return diseases.get(code);
+	}
+
+	public DischargeType getDischargeType(String code) throws OHServiceException {
+		return dischargeTypes.get(code);
+	}
+
+	public PregnantTreatmentType getPregnantTreatmentType(String code) throws OHServiceException {
+		return pregnantTreatmentTypes.get(code);
+	}
+
+	public DeliveryType getDeliveryType(String code) throws OHServiceException {
+		return deliveryTypes.get(code);
+	}
+
+	public DeliveryResultType getDeliveryResultType(String code) throws OHServiceException {
+		return deliveryResultTypes.get(code);
+	}
+
+	public void invalidateWards() {
+		wards.invalidate();
+	}
+
+	public void invalidateAdmissionTypes() {
+		admissionTypes.invalidate();
+	}
+
+	public void invalidateDiseases() {
+		diseases.invalidate();
+	}
+
+	public void invalidateDischargeTypes() {
+		dischargeTypes.invalidate();
+	}
+
+	public void invalidatePregnantTreatmentTypes() {
+		pregnantTreatmentTypes.invalidate();
+	}
+
+	public void invalidateDeliveryTypes() {
+		deliveryTypes.invalidate();
+	}
+
+	public void invalidateDeliveryResultTypes() {
+		deliveryResultTypes.invalidate();
+	}
+}
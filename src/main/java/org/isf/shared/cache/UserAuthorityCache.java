@@ -0,0 +1,118 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.isf.menu.manager.UserBrowsingManager;
+import org.isf.menu.model.User;
+import org.isf.permissions.manager.PermissionManager;
+import org.isf.permissions.model.Permission;
+import org.isf.utils.exception.OHServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Per-user copy of the account (used by the login) and of the permissions (used by {@code /users/me} and
+ * {@code /users/permissions} on every page of the UI), keyed by user name.
+ * <p>
+ * {@code UserController} and {@code PermissionController} invalidate the entries after a successful write.
+ */
+@Component
+public class UserAuthorityCache {
+
+	private static final long DEFAULT_CACHE_SIZE = 1000L;
+
+	private static final long DEFAULT_TTL_SECONDS = 300L;
+
+	@Autowired
+	private Environment env;
+
+	private final UserBrowsingManager userManager;
+
+	private final PermissionManager permissionManager;
+
+	private Cache<String, User> users;
+
+	private Cache<String, List<Permission>> permissions;
+
+	private final InvalidationGuard guard = new InvalidationGuard();
+
+	public UserAuthorityCache(UserBrowsingManager userManager, PermissionManager permissionManager) {
+		this.userManager = userManager;
+		this.permissionManager = permissionManager;
+	}
+
+	@PostConstruct
+	public void init() {
+		long cacheSize = env.getProperty("user.cache.size", Long.class, DEFAULT_CACHE_SIZE);
+		long ttlSeconds = env.getProperty("user.cache.ttl", Long.class, DEFAULT_TTL_SECONDS);
+		this.users = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS).build();
+		this.permissions = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS).build();
+	}
+
+	/**
+	 * @param username the user name
+	 * @return the {@link User} or {@code null} if not found
+	 * @throws OHServiceException
+	 */
+	public User getUser(String username) throws OHServiceException {
+		return guard.get(users, username, () -> userManager.getUserByName(username));
+	}
+
+	/**
+	 * @param username the user name
+	 * @return the unmodifiable list of the {@link Permission}s of the user, empty if not found
+	 * @throws OHServiceException
+	 */
+	public List<Permission> getPermissions(String username) throws OHServiceException {
+		return guard.get(permissions, username, () -> Collections.unmodifiableList(permissionManager.retrievePermissionsByUsername(username)));
+	}
+
+	/**
+	 * Drop the entries of one user, after a change of its account.
+	 *
+	 * @param username the user name
+	 */
+	public void invalidateUser(String username) {
+		guard.newGeneration();
+		users.invalidate(username);
+		permissions.invalidate(username);
+	}
+
+	/**
+	 * Drop every entry, after a change of a group or of a permission that can affect any user.
+	 */
+	public void invalidateAll() {
+		guard.newGeneration();
+		users.invalidateAll();
+		permissions.invalidateAll();
+	}
+}
@@ -21,6 +21,8 @@
  */
 package org.isf.shared.exceptions;
 
+import java.util.List;
+
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.springframework.http.HttpStatus;
@@ -38,6 +40,10 @@ public class OHAPIException extends OHServiceException {
         this.status = status;
     }
 
+    public OHAPIException(List<OHExceptionMessage> messages) {
+        super(messages);
+    }
+
 	public HttpStatus getStatus() {
 		return this.status;
 	}
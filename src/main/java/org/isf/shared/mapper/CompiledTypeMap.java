@@ -0,0 +1,460 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeMap;
+import org.modelmapper.config.Configuration;
+import org.modelmapper.spi.Mapping;
+import org.modelmapper.spi.PropertyInfo;
+import org.modelmapper.spi.PropertyMapping;
+import org.slf4j.Logger;
+
+/**
+ * Mapping of one source/destination type pair compiled into {@link MethodHandle} steps.
+ * <p>
+ * The property matching is still done by ModelMapper, once, when its {@link TypeMap} for the pair is resolved; this class
+ * turns the resulting mappings into a flat list of getter/setter handles, so that mapping an object no longer walks the
+ * TypeMap, resolves converters or accesses properties by reflection. Nested objects are mapped by the compiled plan of
+ * their own type pair. Pairs relying on what the plan does not reproduce (custom converters, conditions, providers,
+ * constant or source mappings, non public accessors) are not compiled and keep going through ModelMapper, as does every
+ * value whose type needs a conversion (collections, arrays, enums to strings, ...).
+ */
+public final class CompiledTypeMap<S, D> {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(CompiledTypeMap.class);
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final ModelMapper modelMapper;
+	private final Class<S> sourceType;
+	private final Class<D> destinationType;
+	private final MethodHandle constructor;
+	private final Step[] steps;
+	private final Set<String> signature;
+
+	private CompiledTypeMap(ModelMapper modelMapper, Class<S> sourceType, Class<D> destinationType, MethodHandle constructor, List<Step> steps,
+					Set<String> signature) {
+		this.modelMapper = modelMapper;
+		this.sourceType = sourceType;
+		this.destinationType = destinationType;
+		this.constructor = constructor;
+		this.steps = steps == null ? null : steps.toArray(new Step[0]);
+		this.signature = signature;
+	}
+
+	/**
+	 * Compile the mapping from {@code sourceType} to {@code destinationType} as currently configured in {@code modelMapper}.
+	 *
+	 * @return the compiled mapping; when the pair cannot be compiled, a mapping that delegates to ModelMapper
+	 */
+	public static <S, D> CompiledTypeMap<S, D> compile(ModelMapper modelMapper, Class<S> sourceType, Class<D> destinationType) {
+		CompiledTypeMap<S, D> compiled = null;
+		try {
+			compiled = new Compiler(modelMapper).compile(sourceType, destinationType);
+		} catch (RuntimeException e) {
+			// ModelMapper reports the same problem when it maps the pair itself
+			LOGGER.debug("Mapping {} -> {} not compiled", sourceType.getName(), destinationType.getName(), e);
+		}
+		if (compiled == null) {
+			LOGGER.debug("Mapping {} -> {} delegated to ModelMapper", sourceType.getName(), destinationType.getName());
+			return new CompiledTypeMap<>(modelMapper, sourceType, destinationType, null, null, null);
+		}
+		return compiled;
+	}
+
+	public ModelMapper getModelMapper() {
+		return modelMapper;
+	}
+
+	public boolean isCompiled() {
+		return steps != null;
+	}
+
+	public D map(S source) {
+		// subclasses and proxies may have their own TypeMap: leave them to ModelMapper
+		if (steps == null || source == null || source.getClass() != sourceType) {
+			return modelMapper.map(source, destinationType);
+		}
+		return destinationType.cast(apply(source));
+	}
+
+	private Object apply(Object source) {
+		try {
+			Object destination = (Object) constructor.invokeExact();
+			for (Step step : steps) {
+				step.apply(source, destination);
+			}
+			return destination;
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException(t);
+		}
+	}
+
+	private interface Step {
+
+		void apply(Object source, Object destination) throws Throwable;
+	}
+
+	/**
+	 * Copies one value, following a chain of getters on the source and creating the missing intermediate objects on the
+	 * destination.
+	 */
+	private static final class PropertyStep implements Step {
+
+		private final ModelMapper modelMapper;
+		private final MethodHandle[] getters;
+		private final Intermediate[] intermediates;
+		private final MethodHandle setter;
+		private final Object nullValue;
+		private final Type conversionType;
+
+		PropertyStep(ModelMapper modelMapper, MethodHandle[] getters, Intermediate[] intermediates, MethodHandle setter, Object nullValue,
+						Type conversionType) {
+			this.modelMapper = modelMapper;
+			this.getters = getters;
+			this.intermediates = intermediates;
+			this.setter = setter;
+			this.nullValue = nullValue;
+			this.conversionType = conversionType;
+		}
+
+		@Override
+		public void apply(Object source, Object destination) throws Throwable {
+			Object value = source;
+			for (MethodHandle getter : getters) {
+				value = (Object) getter.invokeExact(value);
+				if (value == null) {
+					break;
+				}
+			}
+			if (value != null && conversionType != null) {
+				value = modelMapper.map(value, conversionType);
+			}
+			Object target = destination;
+			for (Intermediate intermediate : intermediates) {
+				target = intermediate.getOrCreate(target);
+			}
+			setter.invokeExact(target, value == null ? nullValue : value);
+		}
+	}
+
+	private static final class Intermediate {
+
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final MethodHandle constructor;
+
+		Intermediate(MethodHandle getter, MethodHandle setter, MethodHandle constructor) {
+			this.getter = getter;
+			this.setter = setter;
+			this.constructor = constructor;
+		}
+
+		Object getOrCreate(Object owner) throws Throwable {
+			Object value = (Object) getter.invokeExact(owner);
+			if (value == null) {
+				value = (Object) constructor.invokeExact();
+				setter.invokeExact(owner, value);
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * Maps a nested object with the compiled mapping of its own type pair.
+	 */
+	private static final class NestedStep implements Step {
+
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final CompiledTypeMap<?, ?> nested;
+
+		NestedStep(MethodHandle getter, MethodHandle setter, CompiledTypeMap<?, ?> nested) {
+			this.getter = getter;
+			this.setter = setter;
+			this.nested = nested;
+		}
+
+		@Override
+		public void apply(Object source, Object destination) throws Throwable {
+			Object value = (Object) getter.invokeExact(source);
+			setter.invokeExact(destination, value == null ? null : nested.apply(value));
+		}
+	}
+
+	private static final class Compiler {
+
+		private final ModelMapper modelMapper;
+		private final Map<String, CompiledTypeMap<?, ?>> compiled = new HashMap<>();
+		private final Set<String> inProgress = new HashSet<>();
+
+		Compiler(ModelMapper modelMapper) {
+			this.modelMapper = modelMapper;
+		}
+
+		@SuppressWarnings("unchecked")
+		<S, D> CompiledTypeMap<S, D> compile(Class<S> sourceType, Class<D> destinationType) {
+			String key = sourceType.getName() + "->" + destinationType.getName();
+			if (compiled.containsKey(key)) {
+				return (CompiledTypeMap<S, D>) compiled.get(key);
+			}
+			if (!inProgress.add(key)) {
+				// cyclic graph: the ModelMapper path handles it
+				return null;
+			}
+			CompiledTypeMap<S, D> result = doCompile(sourceType, destinationType);
+			inProgress.remove(key);
+			compiled.put(key, result);
+			return result;
+		}
+
+		private <S, D> CompiledTypeMap<S, D> doCompile(Class<S> sourceType, Class<D> destinationType) {
+			TypeMap<S, D> typeMap = modelMapper.typeMap(sourceType, destinationType);
+			MethodHandle constructor = constructor(destinationType);
+			if (!isPlain(typeMap) || constructor == null) {
+				return null;
+			}
+			Map<String, List<PropertyMapping>> groups = new LinkedHashMap<>();
+			Map<String, Set<String>> skipped = new HashMap<>();
+			Set<String> signature = new HashSet<>();
+			for (Mapping mapping : typeMap.getMappings()) {
+				if (mapping.getCondition() != null || mapping.getConverter() != null || mapping.getProvider() != null) {
+					return null;
+				}
+				List<? extends PropertyInfo> destinationProperties = mapping.getDestinationProperties();
+				String group = destinationProperties.get(0).getName();
+				if (mapping.isSkipped()) {
+					signature.add(skippedSignatureOf(destinationProperties));
+					skipped.computeIfAbsent(group, name -> new HashSet<>())
+									.add(skippedSignatureOf(destinationProperties.subList(1, destinationProperties.size())));
+					continue;
+				}
+				if (!(mapping instanceof PropertyMapping)) {
+					return null;
+				}
+				PropertyMapping propertyMapping = (PropertyMapping) mapping;
+				signature.add(signatureOf(propertyMapping.getSourceProperties(), destinationProperties));
+				groups.computeIfAbsent(group, name -> new ArrayList<>()).add(propertyMapping);
+			}
+			List<Step> steps = new ArrayList<>();
+			for (Map.Entry<String, List<PropertyMapping>> group : groups.entrySet()) {
+				Step nested = nestedStep(group.getValue(), skipped.getOrDefault(group.getKey(), Collections.emptySet()));
+				if (nested != null) {
+					steps.add(nested);
+					continue;
+				}
+				for (PropertyMapping mapping : group.getValue()) {
+					Step step = propertyStep(mapping);
+					if (step == null) {
+						return null;
+					}
+					steps.add(step);
+				}
+			}
+			return new CompiledTypeMap<>(modelMapper, sourceType, destinationType, constructor, steps, Collections.unmodifiableSet(signature));
+		}
+
+		private boolean isPlain(TypeMap<?, ?> typeMap) {
+			Configuration configuration = modelMapper.getConfiguration();
+			return typeMap.getCondition() == null && typeMap.getConverter() == null && typeMap.getPreConverter() == null
+							&& typeMap.getPostConverter() == null && typeMap.getProvider() == null && typeMap.getPropertyCondition() == null
+							&& typeMap.getPropertyConverter() == null && typeMap.getPropertyProvider() == null
+							&& configuration.getPropertyCondition() == null && configuration.getProvider() == null
+							&& !configuration.isSkipNullEnabled() && !configuration.isDeepCopyEnabled();
+		}
+
+		/**
+		 * A group of mappings that all read below the same source property and write below the same destination property
+		 * is the whole mapping of a nested object: compile it as such when it is exactly the TypeMap of the nested pair.
+		 */
+		private Step nestedStep(List<PropertyMapping> group, Set<String> skipped) {
+			PropertyInfo source = null;
+			PropertyInfo destination = group.get(0).getDestinationProperties().get(0);
+			Set<String> signature = new HashSet<>(skipped);
+			for (PropertyMapping mapping : group) {
+				List<? extends PropertyInfo> sourceProperties = mapping.getSourceProperties();
+				List<? extends PropertyInfo> destinationProperties = mapping.getDestinationProperties();
+				if (sourceProperties.size() < 2 || destinationProperties.size() < 2) {
+					return null;
+				}
+				if (source == null) {
+					source = sourceProperties.get(0);
+				} else if (!source.getMember().equals(sourceProperties.get(0).getMember())) {
+					return null;
+				}
+				signature.add(signatureOf(sourceProperties.subList(1, sourceProperties.size()),
+								destinationProperties.subList(1, destinationProperties.size())));
+			}
+			CompiledTypeMap<?, ?> nested = compile(source.getType(), destination.getType());
+			if (nested == null || !nested.signature.equals(signature)) {
+				return null;
+			}
+			MethodHandle getter = getter(source);
+			MethodHandle setter = setter(destination);
+			if (getter == null || setter == null) {
+				return null;
+			}
+			return new NestedStep(getter, setter, nested);
+		}
+
+		private Step propertyStep(PropertyMapping mapping) {
+			List<? extends PropertyInfo> sourceProperties = mapping.getSourceProperties();
+			List<? extends PropertyInfo> destinationProperties = mapping.getDestinationProperties();
+			MethodHandle[] getters = new MethodHandle[sourceProperties.size()];
+			for (int i = 0; i < getters.length; i++) {
+				getters[i] = getter(sourceProperties.get(i));
+				if (getters[i] == null) {
+					return null;
+				}
+			}
+			Intermediate[] intermediates = new Intermediate[destinationProperties.size() - 1];
+			for (int i = 0; i < intermediates.length; i++) {
+				PropertyInfo property = destinationProperties.get(i);
+				MethodHandle getter = getterOf(property);
+				MethodHandle setter = setter(property);
+				MethodHandle constructor = constructor(property.getType());
+				if (getter == null || setter == null || constructor == null) {
+					return null;
+				}
+				intermediates[i] = new Intermediate(getter, setter, constructor);
+			}
+			PropertyInfo destination = mapping.getLastDestinationProperty();
+			MethodHandle setter = setter(destination);
+			if (setter == null) {
+				return null;
+			}
+			Class<?> destinationType = destination.getType();
+			Object nullValue = destinationType.isPrimitive() ? Array.get(Array.newInstance(destinationType, 1), 0) : null;
+			return new PropertyStep(modelMapper, getters, intermediates, setter, nullValue,
+							conversionType(mapping.getLastSourceProperty(), destination));
+		}
+
+		/**
+		 * @return {@code null} when the source value can be assigned as is, otherwise the type ModelMapper has to convert it to
+		 */
+		private static Type conversionType(PropertyInfo source, PropertyInfo destination) {
+			Class<?> destinationType = destination.getType();
+			if (destinationType.isArray() || Collection.class.isAssignableFrom(destinationType) || Map.class.isAssignableFrom(destinationType)) {
+				// ModelMapper copies containers, never shares them
+				return destination.getGenericType();
+			}
+			if (wrap(destinationType).isAssignableFrom(wrap(source.getType()))) {
+				return null;
+			}
+			return destination.getGenericType();
+		}
+
+		private static Class<?> wrap(Class<?> type) {
+			return MethodType.methodType(type).wrap().returnType();
+		}
+
+		private static MethodHandle constructor(Class<?> type) {
+			try {
+				return MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				return null;
+			}
+		}
+
+		private static MethodHandle getter(PropertyInfo property) {
+			Member member = property.getMember();
+			if (!(member instanceof Method)) {
+				return null;
+			}
+			try {
+				return MethodHandles.publicLookup().unreflect((Method) member).asType(GETTER_TYPE);
+			} catch (IllegalAccessException | IllegalArgumentException e) {
+				return null;
+			}
+		}
+
+		private static MethodHandle setter(PropertyInfo property) {
+			Member member = property.getMember();
+			if (!(member instanceof Method) || ((Method) member).getParameterCount() != 1) {
+				return null;
+			}
+			try {
+				return MethodHandles.publicLookup().unreflect((Method) member).asType(SETTER_TYPE);
+			} catch (IllegalAccessException | IllegalArgumentException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * Getter of an intermediate destination property, known to ModelMapper only through its setter.
+		 */
+		private static MethodHandle getterOf(PropertyInfo property) {
+			Member member = property.getMember();
+			if (!(member instanceof Method)) {
+				return null;
+			}
+			Class<?> owner = member.getDeclaringClass();
+			String name = Character.toUpperCase(property.getName().charAt(0)) + property.getName().substring(1);
+			for (String prefix : new String[] { "get", "is" }) {
+				try {
+					Method method = owner.getMethod(prefix + name);
+					if (method.getReturnType() == property.getType()) {
+						return MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+					}
+				} catch (NoSuchMethodException | IllegalAccessException e) {
+					// try the next prefix
+				}
+			}
+			return null;
+		}
+
+		private static String signatureOf(List<? extends PropertyInfo> source, List<? extends PropertyInfo> destination) {
+			return pathOf(source) + "->" + pathOf(destination);
+		}
+
+		private static String skippedSignatureOf(List<? extends PropertyInfo> destination) {
+			return "!" + pathOf(destination);
+		}
+
+		private static String pathOf(List<? extends PropertyInfo> properties) {
+			return properties.stream().map(PropertyInfo::getName).collect(Collectors.joining("."));
+		}
+	}
+}
@@ -33,15 +33,14 @@ public class PatientMapping {
 		modelMapper.typeMap(Patient.class, PatientDTO.class).addMappings(mapper -> {
 			mapper.<Boolean> map(src -> src.getPatientConsensus().isConsensusFlag(), PatientDTO::setConsensusFlag);
 			mapper.<Boolean> map(src -> src.getPatientConsensus().isServiceFlag(), PatientDTO::setConsensusServiceFlag);
-			mapper.map(src -> src.getPatientProfilePhoto().getPhoto(), PatientDTO::setBlobPhoto);
+			// the photo is only copied for single-patient responses, see PatientMapper.withPhoto()
+			mapper.skip(PatientDTO::setBlobPhoto);
 		});
 
+		// the back reference from the consensus to the patient is set by PatientMapper.map2Model()
 		modelMapper.typeMap(PatientDTO.class, Patient.class).addMappings(mapper -> {
 			mapper.<Boolean> map(src -> src.isConsensusFlag(), (db, value) -> db.getPatientConsensus().setConsensusFlag(value));
 			mapper.<Boolean> map(src -> src.isConsensusServiceFlag(), (db, value) -> db.getPatientConsensus().setServiceFlag(value));
-			mapper.<Patient> map(src -> src, (db, value) -> {
-				db.getPatientConsensus().setPatient(value);
-			});
 			mapper.map(src -> src.getBlobPhoto(), (destination, value) -> {
 				destination.getPatientProfilePhoto().setPhoto((byte[]) value);
 			});
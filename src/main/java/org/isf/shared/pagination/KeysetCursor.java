@@ -0,0 +1,103 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.isf.shared.exceptions.OHAPIException;
+import org.isf.utils.exception.model.OHExceptionMessage;
+
+/**
+ * Opaque position in a keyset-paginated list: the sort key and the id of the last row returned.
+ * <p>
+ * The next page is read with {@code WHERE (key, id) < (:key, :id)} instead of an OFFSET, so its cost
+ * does not depend on how deep the client has scrolled. An empty cursor stands for the first page.
+ */
+public final class KeysetCursor {
+
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	private static final char SEPARATOR = '|';
+
+	private final String key;
+
+	private final int id;
+
+	private KeysetCursor(String key, int id) {
+		this.key = key;
+		this.id = id;
+	}
+
+	public static KeysetCursor of(LocalDateTime key, int id) {
+		return new KeysetCursor(key.toString(), id);
+	}
+
+	public static KeysetCursor of(int id) {
+		return new KeysetCursor("", id);
+	}
+
+	/**
+	 * Decode a cursor received from a client.
+	 *
+	 * @param cursor the opaque cursor, empty or {@code null} for the first page
+	 * @return the decoded cursor or {@code null} for the first page
+	 * @throws OHAPIException if the cursor has not been produced by {@link #encode()}
+	 */
+	public static KeysetCursor decode(String cursor) throws OHAPIException {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = raw.lastIndexOf(SEPARATOR);
+			if (separator < 0) {
+				throw new IllegalArgumentException(raw);
+			}
+			return new KeysetCursor(raw.substring(0, separator), Integer.parseInt(raw.substring(separator + 1)));
+		} catch (IllegalArgumentException e) {
+			throw new OHAPIException(new OHExceptionMessage("Invalid cursor."));
+		}
+	}
+
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString((key + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return the sort key as a date
+	 * @throws OHAPIException if the sort key is not a date
+	 */
+	public LocalDateTime getDateKey() throws OHAPIException {
+		try {
+			return LocalDateTime.parse(key);
+		} catch (DateTimeParseException e) {
+			throw new OHAPIException(new OHExceptionMessage("Invalid cursor."));
+		}
+	}
+}
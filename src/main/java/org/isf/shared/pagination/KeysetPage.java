@@ -0,0 +1,83 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * One page of a keyset-paginated list and the cursor of the page that follows it.
+ *
+ * @param <T> the row type
+ */
+public final class KeysetPage<T> {
+
+	private final List<T> items;
+
+	private final KeysetCursor next;
+
+	private KeysetPage(List<T> items, KeysetCursor next) {
+		this.items = items;
+		this.next = next;
+	}
+
+	/**
+	 * Build a page from the rows read with a limit of {@code size + 1}: the extra row, if present, only
+	 * tells that another page exists and is not returned.
+	 *
+	 * @param rows the rows read, at most {@code size + 1}
+	 * @param size the requested page size
+	 * @param cursorOf the cursor pointing after a row
+	 * @return the page
+	 */
+	public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+		if (rows.size() <= size) {
+			return new KeysetPage<>(rows, null);
+		}
+		List<T> items = rows.subList(0, size);
+		return new KeysetPage<>(items, cursorOf.apply(items.get(size - 1)));
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return the opaque cursor of the next page, {@code null} on the last page
+	 */
+	public String getNextCursor() {
+		return next == null ? null : next.encode();
+	}
+
+	/**
+	 * @return the response headers carrying the next cursor, if any
+	 */
+	public HttpHeaders getHeaders() {
+		HttpHeaders headers = new HttpHeaders();
+		if (next != null) {
+			headers.set(KeysetCursor.NEXT_CURSOR_HEADER, next.encode());
+		}
+		return headers;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs a query with an {@code IN :codes} clause over any number of codes, in chunks of at most
+ * {@value #MAX_CODES_PER_QUERY} distinct codes, which keeps the IN list well below the bind parameter limits of the
+ * supported databases.
+ */
+public final class ChunkedInQuery {
+
+	public static final int MAX_CODES_PER_QUERY = 500;
+
+	private ChunkedInQuery() {
+	}
+
+	/**
+	 * Run {@code query} on the distinct {@code codes}, {@value #MAX_CODES_PER_QUERY} at a time.
+	 *
+	 * @param codes the codes, duplicates are queried once
+	 * @param query the query of one chunk of codes
+	 * @return the results of every chunk, in the order of the chunks; empty, without running the query, if there are
+	 *         no codes
+	 */
+	public static <C, R> List<R> getResultList(Collection<C> codes, Function<List<C>, List<R>> query) {
+		return getResultList(codes, MAX_CODES_PER_QUERY, query);
+	}
+
+	static <C, R> List<R> getResultList(Collection<C> codes, int chunkSize, Function<List<C>, List<R>> query) {
+		List<C> distinct = new ArrayList<>(new LinkedHashSet<>(codes));
+		List<R> results = new ArrayList<>();
+		for (int from = 0; from < distinct.size(); from += chunkSize) {
+			results.addAll(query.apply(distinct.subList(from, Math.min(from + chunkSize, distinct.size()))));
+		}
+		return results;
+	}
+}
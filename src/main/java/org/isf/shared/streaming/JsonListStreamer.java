@@ -0,0 +1,99 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.streaming;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes a list of entities as JSON while mapping them one by one, so that neither the list of DTOs nor the serialized
+ * body is ever held in memory.
+ * <p>
+ * The body is a JSON array, the same as the non streamed response, unless the client accepts
+ * {@code application/x-ndjson}: then every DTO is written on its own line.
+ * <p>
+ * The body is written as an asynchronous request, limited by {@code spring.mvc.async.request-timeout}; the container
+ * default (30 seconds on Jetty) would cut long lists off once the response is committed.
+ */
+@Component
+public class JsonListStreamer {
+
+	public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+	private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+	private final ObjectMapper objectMapper;
+
+	public JsonListStreamer(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Stream the mapped entities.
+	 *
+	 * @param entities the entities to write
+	 * @param mapping the mapping from an entity to its DTO
+	 * @param accept the {@code Accept} header of the request, may be {@code null}
+	 * @return the streamed response, or NO_CONTENT if there are no entities
+	 */
+	public <T, R> ResponseEntity<StreamingResponseBody> stream(List<T> entities, Function<? super T, ? extends R> mapping, String accept) {
+		if (entities.isEmpty()) {
+			return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+		}
+		boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream().anyMatch(APPLICATION_NDJSON::equalsTypeAndSubtype);
+		// Jackson buffers the output itself: flushing after each DTO would send a network packet each
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = outputStream -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.setRootValueSeparator(null);
+				if (!ndjson) {
+					generator.writeStartArray();
+				}
+				for (T entity : entities) {
+					writer.writeValue(generator, mapping.apply(entity));
+					if (ndjson) {
+						generator.writeRaw('\n');
+					}
+				}
+				if (!ndjson) {
+					generator.writeEndArray();
+				}
+			}
+		};
+		return ResponseEntity.ok()
+						.contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+						.body(body);
+	}
+}
@@ -28,6 +28,7 @@ import java.util.List;
 import javax.validation.Valid;
 
 import org.isf.shared.exceptions.OHAPIException;
+import org.isf.shared.streaming.JsonListStreamer;
 import org.isf.sms.dto.SmsDTO;
 import org.isf.sms.manager.SmsManager;
 import org.isf.sms.mapper.SmsMapper;
@@ -36,14 +37,16 @@ import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.Authorization;
@@ -59,6 +62,9 @@ public class SmsController {
 
 	@Autowired
 	private SmsMapper smsMapper;
+
+	@Autowired
+	private JsonListStreamer jsonListStreamer;
 	
 	/**
 	 * Fetch the list of {@link Sms}s.
@@ -67,22 +73,21 @@ public class SmsController {
 	 * @return the found list
 	 * @throws OHServiceException
 	 */
-	@GetMapping(value = "/sms", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<SmsDTO>> getAll(
+	@GetMapping(value = "/sms", produces = { MediaType.APPLICATION_JSON_VALUE, JsonListStreamer.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<StreamingResponseBody> getAll(
 			@RequestParam(required = true) String dateFrom,
-			@RequestParam(required = true) String dateTo) throws OHServiceException {
+			@RequestParam(required = true) String dateTo,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws OHServiceException {
 		LOGGER.info("Fetching the list of sms");
 		LocalDateTime from = LocalDate.parse(dateFrom).atStartOfDay();
 		LocalDateTime to = LocalDate.parse(dateTo).atStartOfDay();
 		List<Sms> smsList = smsManager.getAll(from, to);
-		List<SmsDTO> mappedSmsList = smsMapper.map2DTOList(smsList);
-		if (mappedSmsList.isEmpty()) {
+		if (smsList.isEmpty()) {
 			LOGGER.info("No sms found");
-			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(mappedSmsList);
 		} else {
-			LOGGER.info("Found {} sms", mappedSmsList.size());
-			return ResponseEntity.ok(mappedSmsList);
+			LOGGER.info("Found {} sms", smsList.size());
 		}
+		return jsonListStreamer.stream(smsList, smsMapper::map2DTO, accept);
 	}
 	
 	/**
@@ -0,0 +1,104 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stats.dto;
+
+import java.time.LocalDateTime;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class ReportJobDTO {
+
+	@ApiModelProperty(notes = "the job id", example = "0b8e7f0c-6d5b-4bd4-a5b1-4c3d3c2f2a10")
+	private String id;
+
+	@ApiModelProperty(notes = "the report generated", example = "exams-list")
+	private String report;
+
+	private ReportJobStatus status;
+
+	private LocalDateTime created;
+
+	@ApiModelProperty(notes = "when the generation ended, null while it is running")
+	private LocalDateTime finished;
+
+	@ApiModelProperty(notes = "the reason of the failure, if any")
+	private String error;
+
+	@ApiModelProperty(notes = "where to download the report once done", example = "/reports/jobs/0b8e7f0c-6d5b-4bd4-a5b1-4c3d3c2f2a10/file")
+	private String downloadUrl;
+
+	public String getId() {
+		return this.id;
+	}
+
+	public String getReport() {
+		return this.report;
+	}
+
+	public ReportJobStatus getStatus() {
+		return this.status;
+	}
+
+	public LocalDateTime getCreated() {
+		return this.created;
+	}
+
+	public LocalDateTime getFinished() {
+		return this.finished;
+	}
+
+	public String getError() {
+		return this.error;
+	}
+
+	public String getDownloadUrl() {
+		return this.downloadUrl;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public void setReport(String report) {
+		this.report = report;
+	}
+
+	public void setStatus(ReportJobStatus status) {
+		this.status = status;
+	}
+
+	public void setCreated(LocalDateTime created) {
+		this.created = created;
+	}
+
+	public void setFinished(LocalDateTime finished) {
+		this.finished = finished;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	public void setDownloadUrl(String downloadUrl) {
+		this.downloadUrl = downloadUrl;
+	}
+}
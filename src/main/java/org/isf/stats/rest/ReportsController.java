@@ -21,26 +21,28 @@
  */
 package org.isf.stats.rest;
 
-import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.net.URI;
 
 import javax.servlet.http.HttpServletRequest;
 
-import org.apache.poi.util.IOUtils;
 import org.isf.shared.exceptions.OHAPIException;
-import org.isf.stat.dto.JasperReportResultDto;
-import org.isf.stat.manager.JasperReportsManager;
+import org.isf.stats.dto.ReportJobDTO;
+import org.isf.stats.dto.ReportJobStatus;
+import org.isf.stats.service.ReportGenerator;
+import org.isf.stats.service.ReportGenerator.Job;
+import org.isf.stats.service.ReportGenerator.Report;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
+import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.annotations.Api;
@@ -49,49 +51,114 @@ import io.swagger.annotations.Authorization;
 @RestController
 @Api(value = "/reports", produces = MediaType.APPLICATION_JSON_VALUE, authorizations = {@Authorization(value="apiKey")})
 public class ReportsController {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(ReportsController.class);
+
 	@Autowired
-	private JasperReportsManager reportsManager;
+	private ReportGenerator reportGenerator;
 
-	@GetMapping(value = "/reports/exams-list", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<byte[]> printExamsListPdf(HttpServletRequest request) throws OHServiceException, IOException {
-		return getReport(reportsManager.getExamsListPdf(), request);
+	public ReportsController(ReportGenerator reportGenerator) {
+		this.reportGenerator = reportGenerator;
 	}
 
-	@GetMapping(value = "/reports/diseases-list", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<byte[]> printDiseasesListPdf(HttpServletRequest request) throws OHServiceException, IOException {
-		return getReport(reportsManager.getDiseasesListPdf(), request);
+	/**
+	 * Get the exams list report: the PDF if it is ready, otherwise {@code 202 Accepted} with the job to poll.
+	 */
+	@GetMapping(value = "/reports/exams-list")
+	public ResponseEntity<?> printExamsListPdf(HttpServletRequest request) throws OHServiceException {
+		return getReport(Report.EXAMS_LIST, request);
 	}
 
-	private ResponseEntity<byte[]> getReport(JasperReportResultDto resultDto, HttpServletRequest request) throws OHServiceException, IOException {
-		Path report = Paths.get(resultDto.getFilename()).normalize();
-		Resource resource;
-		try {
-			resource = new UrlResource(report.toUri());
-			if (!resource.exists()) {
-				throw new OHAPIException(new OHExceptionMessage("File not found."));
-			}
-		} catch (MalformedURLException e) {
-			throw new OHAPIException(new OHExceptionMessage("File not found."));
+	/**
+	 * Get the diseases list report: the PDF if it is ready, otherwise {@code 202 Accepted} with the job to poll.
+	 */
+	@GetMapping(value = "/reports/diseases-list")
+	public ResponseEntity<?> printDiseasesListPdf(HttpServletRequest request) throws OHServiceException {
+		return getReport(Report.DISEASES_LIST, request);
+	}
+
+	/**
+	 * Get the status of a report job.
+	 *
+	 * @param id the job id
+	 * @return the job
+	 * @throws OHServiceException if the job is unknown or expired
+	 */
+	@GetMapping(value = "/reports/jobs/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable("id") String id) throws OHServiceException {
+		return ResponseEntity.ok(toDTO(findJob(id)));
+	}
+
+	/**
+	 * Download the report produced by a job. {@code Range} requests are honoured, so an interrupted download can be
+	 * resumed.
+	 *
+	 * @param id the job id
+	 * @param request the request
+	 * @return the report file
+	 * @throws OHServiceException if the job is unknown, expired or not done
+	 */
+	@GetMapping(value = "/reports/jobs/{id}/file")
+	public ResponseEntity<Resource> getReportFile(@PathVariable("id") String id, HttpServletRequest request) throws OHServiceException {
+		Job job = findJob(id);
+		if (job.getStatus() != ReportJobStatus.DONE) {
+			throw new OHAPIException(new OHExceptionMessage("Report not ready."), HttpStatus.CONFLICT);
+		}
+		return download(job, request);
+	}
+
+	private ResponseEntity<?> getReport(Report report, HttpServletRequest request) throws OHServiceException {
+		Job job = reportGenerator.submit(report);
+		if (job.getStatus() == ReportJobStatus.DONE) {
+			return download(job, request);
 		}
+		LOGGER.info("Report {} is being generated by job {}", report.getName(), job.getId());
+		return ResponseEntity.status(HttpStatus.ACCEPTED)
+				.location(URI.create(statusUrl(job)))
+				.body(toDTO(job));
+	}
 
-		String contentType;
-		try {
-			contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-		} catch (IOException ex) {
-			throw new OHAPIException(new OHExceptionMessage("Failed to load the file's type."));
+	private Job findJob(String id) throws OHAPIException {
+		Job job = reportGenerator.getJob(id);
+		if (job == null) {
+			throw new OHAPIException(new OHExceptionMessage("Report job not found."), HttpStatus.NOT_FOUND);
+		}
+		return job;
+	}
+
+	private static ResponseEntity<Resource> download(Job job, HttpServletRequest request) throws OHAPIException {
+		Resource resource = new FileSystemResource(job.getFile());
+		if (!resource.isReadable()) {
+			throw new OHAPIException(new OHExceptionMessage("File not found."));
 		}
+		String contentType = request.getServletContext().getMimeType(job.getFilename());
 
 		// Fallback to the default content type if type could not be determined
 		if (contentType == null) {
 			contentType = "application/octet-stream";
 		}
 
-		byte[] out = IOUtils.toByteArray(resource.getInputStream());
-
+		// the body is streamed from the file, and narrowed to the requested Range if any
 		return ResponseEntity.ok()
 				.contentType(MediaType.parseMediaType(contentType))
 				.header(HttpHeaders.CONTENT_DISPOSITION,
-						"attachment; filename=\"" + resource.getFilename() + '"')
-				.body(out);
+						"attachment; filename=\"" + job.getFilename() + '"')
+				.body(resource);
+	}
+
+	private static ReportJobDTO toDTO(Job job) {
+		ReportJobDTO dto = new ReportJobDTO();
+		dto.setId(job.getId());
+		dto.setReport(job.getReport().getName());
+		dto.setStatus(job.getStatus());
+		dto.setCreated(job.getCreated());
+		dto.setFinished(job.getFinished());
+		dto.setError(job.getError());
+		dto.setDownloadUrl(statusUrl(job) + "/file");
+		return dto;
+	}
+
+	private static String statusUrl(Job job) {
+		return "/reports/jobs/" + job.getId();
 	}
 }
@@ -0,0 +1,337 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stats.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.isf.shared.exceptions.OHAPIException;
+import org.isf.stat.dto.JasperReportResultDto;
+import org.isf.stat.manager.JasperReportsManager;
+import org.isf.stats.dto.ReportJobStatus;
+import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.exception.model.OHExceptionMessage;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates the Jasper reports in the background and keeps the resulting files on disk.
+ * <p>
+ * A report is generated at most once at a time: asking for it again while a job is running, or after it completed,
+ * returns the same job. The finished file is reused until it is older than {@code reports.cache.ttl} or until
+ * {@link #invalidate} is called by the controllers writing the catalogue the report lists; a job started before an
+ * invalidation still completes for the clients waiting on it, but is not handed out any more. The jobs of one report
+ * run one after the other, because the manager writes every report of a kind to the same file.
+ */
+@Component
+public class ReportGenerator {
+
+	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(ReportGenerator.class);
+
+	private static final int DEFAULT_THREADS = 2;
+	private static final int DEFAULT_QUEUE_SIZE = 8;
+	private static final long DEFAULT_TTL_SECONDS = 3600L;
+
+	/* the files of this class are named after the id of their job */
+	private static final Pattern JOB_FILE = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}-.+");
+
+	public enum Report {
+
+		EXAMS_LIST("exams-list"),
+		DISEASES_LIST("diseases-list");
+
+		private final String name;
+
+		Report(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	@Autowired
+	private Environment env;
+
+	@Autowired
+	private JasperReportsManager reportsManager;
+
+	private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+	private final Map<Report, Job> latest = new EnumMap<>(Report.class);
+
+	private final Map<Report, AtomicLong> generations = new EnumMap<>(Report.class);
+
+	private final Map<Report, Object> locks = new EnumMap<>(Report.class);
+
+	private Path directory;
+	private long ttlMillis;
+	private ThreadPoolExecutor executor;
+
+	public ReportGenerator(JasperReportsManager reportsManager) {
+		this.reportsManager = reportsManager;
+		for (Report report : Report.values()) {
+			generations.put(report, new AtomicLong());
+			locks.put(report, new Object());
+		}
+	}
+
+	@PostConstruct
+	public void init() {
+		String defaultDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "oh-reports").toString();
+		directory = Paths.get(env.getProperty("reports.dir", defaultDirectory));
+		ttlMillis = TimeUnit.SECONDS.toMillis(env.getProperty("reports.cache.ttl", Long.class, DEFAULT_TTL_SECONDS));
+		int threads = Math.max(1, env.getProperty("reports.threads", Integer.class, DEFAULT_THREADS));
+		int queueSize = Math.max(1, env.getProperty("reports.queue.size", Integer.class, DEFAULT_QUEUE_SIZE));
+		deleteLeftovers();
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+			Thread thread = new Thread(runnable, "oh-reports-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Get the job producing a report, starting a new one if there is no usable job.
+	 *
+	 * @param report the report wanted
+	 * @return the running or finished job
+	 * @throws OHAPIException if too many reports are already being generated
+	 */
+	public synchronized Job submit(Report report) throws OHAPIException {
+		Job current = latest.get(report);
+		if (current != null && isReusable(current)) {
+			return current;
+		}
+		purge();
+		Job job = new Job(report, generations.get(report).get());
+		try {
+			executor.execute(() -> run(job));
+		} catch (RejectedExecutionException e) {
+			throw new OHAPIException(new OHExceptionMessage("Too many reports are being generated, please retry later."),
+					HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		jobs.put(job.getId(), job);
+		latest.put(report, job);
+		LOGGER.debug("Report {} submitted as job {}", report.getName(), job.getId());
+		return job;
+	}
+
+	/**
+	 * @param id the job id
+	 * @return the job, or {@code null} if it is unknown or expired
+	 */
+	public Job getJob(String id) {
+		return jobs.get(id);
+	}
+
+	/**
+	 * Stop handing out the files of a report, because the data it lists changed.
+	 *
+	 * @param report the report to generate again next time
+	 */
+	public void invalidate(Report report) {
+		generations.get(report).incrementAndGet();
+	}
+
+	private boolean isReusable(Job job) {
+		if (job.generation != generations.get(job.report).get()) {
+			return false;
+		}
+		switch (job.status) {
+			case QUEUED:
+			case RUNNING:
+				return true;
+			case DONE:
+				return !isExpired(job) && Files.isReadable(job.file);
+			default:
+				return false;
+		}
+	}
+
+	private boolean isExpired(Job job) {
+		return job.finishedMillis != 0 && System.currentTimeMillis() - job.finishedMillis > ttlMillis;
+	}
+
+	/*
+	 * Forget the finished jobs that are no longer handed out once their clients had the time to download them.
+	 */
+	private void purge() {
+		jobs.values().removeIf(job -> {
+			if (latest.get(job.report) == job || !isExpired(job)) {
+				return false;
+			}
+			if (job.file != null) {
+				try {
+					Files.deleteIfExists(job.file);
+				} catch (IOException e) {
+					LOGGER.warn("Could not delete the report file {}", job.file);
+				}
+			}
+			return true;
+		});
+	}
+
+	/*
+	 * The jobs are forgotten at restart: their files would never be handed out nor deleted.
+	 */
+	private void deleteLeftovers() {
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			files.filter(file -> JOB_FILE.matcher(file.getFileName().toString()).matches()).forEach(file -> {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					LOGGER.warn("Could not delete the report file {}", file);
+				}
+			});
+		} catch (IOException e) {
+			LOGGER.warn("Could not list the report directory {}", directory);
+		}
+	}
+
+	private void run(Job job) {
+		ReportJobStatus status;
+		// a job started after an invalidation waits for the one it replaces
+		synchronized (locks.get(job.report)) {
+			job.status = ReportJobStatus.RUNNING;
+			status = generate(job);
+		}
+		job.finished = LocalDateTime.now();
+		job.finishedMillis = System.currentTimeMillis();
+		job.status = status;
+	}
+
+	private ReportJobStatus generate(Job job) {
+		try {
+			JasperReportResultDto result = generate(job.report);
+			Path source = Paths.get(result.getFilename()).normalize();
+			Files.createDirectories(directory);
+			// copied aside, the manager writes every report of a kind to the same file
+			Path file = directory.resolve(job.getId() + '-' + source.getFileName());
+			Files.copy(source, file, StandardCopyOption.REPLACE_EXISTING);
+			job.file = file;
+			job.filename = source.getFileName().toString();
+			return ReportJobStatus.DONE;
+		} catch (OHServiceException | IOException | RuntimeException e) {
+			LOGGER.error("Report {} failed", job.report.getName(), e);
+			job.error = "Report generation failed.";
+			return ReportJobStatus.FAILED;
+		}
+	}
+
+	private JasperReportResultDto generate(Report report) throws OHServiceException {
+		switch (report) {
+			case EXAMS_LIST:
+				return reportsManager.getExamsListPdf();
+			case DISEASES_LIST:
+				return reportsManager.getDiseasesListPdf();
+			default:
+				throw new IllegalArgumentException("Unknown report " + report);
+		}
+	}
+
+	public static final class Job {
+
+		private final String id = UUID.randomUUID().toString();
+		private final Report report;
+		private final long generation;
+		private final LocalDateTime created = LocalDateTime.now();
+		private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+		private volatile Path file;
+		private volatile String filename;
+		private volatile String error;
+		private volatile LocalDateTime finished;
+		private volatile long finishedMillis;
+
+		Job(Report report, long generation) {
+			this.report = report;
+			this.generation = generation;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public Report getReport() {
+			return report;
+		}
+
+		public ReportJobStatus getStatus() {
+			return status;
+		}
+
+		public LocalDateTime getCreated() {
+			return created;
+		}
+
+		public LocalDateTime getFinished() {
+			return finished;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		/**
+		 * @return the generated file, {@code null} unless the job is {@link ReportJobStatus#DONE}
+		 */
+		public Path getFile() {
+			return file;
+		}
+
+		public String getFilename() {
+			return filename;
+		}
+	}
+}
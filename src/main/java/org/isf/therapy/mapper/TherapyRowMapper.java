@@ -70,7 +70,7 @@ public class TherapyRowMapper extends GenericMapper<TherapyRow, TherapyRowDTO> {
 
 	@Override
 	public List<TherapyRowDTO> map2DTOList(List<TherapyRow> list) {
-		return list.stream().map(it -> map2DTO(it)).collect(Collectors.toList());
+		return mapList(list, this::map2DTO);
 	}
 
 	@Override
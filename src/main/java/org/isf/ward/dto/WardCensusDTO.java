@@ -0,0 +1,91 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.ward.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class WardCensusDTO {
+
+	private String code;
+
+	private String description;
+
+	@ApiModelProperty(notes = "bed capacity", example = "20")
+	private int beds;
+
+	@ApiModelProperty(notes = "patients currently admitted", example = "12")
+	private int occupiedBeds;
+
+	@ApiModelProperty(notes = "admissions started today", example = "3")
+	private int admissionsToday;
+
+	@ApiModelProperty(notes = "admissions ended today", example = "2")
+	private int dischargesToday;
+
+	public String getCode() {
+		return this.code;
+	}
+
+	public String getDescription() {
+		return this.description;
+	}
+
+	public int getBeds() {
+		return this.beds;
+	}
+
+	public int getOccupiedBeds() {
+		return this.occupiedBeds;
+	}
+
+	public int getAdmissionsToday() {
+		return this.admissionsToday;
+	}
+
+	public int getDischargesToday() {
+		return this.dischargesToday;
+	}
+
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public void setBeds(int beds) {
+		this.beds = beds;
+	}
+
+	public void setOccupiedBeds(int occupiedBeds) {
+		this.occupiedBeds = occupiedBeds;
+	}
+
+	public void setAdmissionsToday(int admissionsToday) {
+		this.admissionsToday = admissionsToday;
+	}
+
+	public void setDischargesToday(int dischargesToday) {
+		this.dischargesToday = dischargesToday;
+	}
+}
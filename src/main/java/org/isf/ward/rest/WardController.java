@@ -23,15 +23,19 @@ package org.isf.ward.rest;
 
 import java.util.List;
 
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.model.OHExceptionMessage;
+import org.isf.ward.dto.WardCensusDTO;
 import org.isf.ward.dto.WardDTO;
 import org.isf.ward.manager.WardBrowserManager;
 import org.isf.ward.mapper.WardMapper;
 import org.isf.ward.model.Ward;
+import org.isf.ward.service.WardCensusLoader;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -58,9 +62,18 @@ public class WardController {
     @Autowired
     protected WardMapper mapper;
 
-    public WardController(WardBrowserManager wardManager, WardMapper wardMapper) {
+    @Autowired
+    protected ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    protected WardCensusLoader wardCensusLoader;
+
+    public WardController(WardBrowserManager wardManager, WardMapper wardMapper, ReferenceDataCache referenceDataCache,
+                    WardCensusLoader wardCensusLoader) {
         this.wardManager = wardManager;
         this.mapper =  wardMapper;
+        this.referenceDataCache = referenceDataCache;
+        this.wardCensusLoader = wardCensusLoader;
     }
 
     /**
@@ -118,6 +131,25 @@ public class WardController {
         }
     }
 
+    /**
+     * Get the census of all the wards: bed capacity, current occupation, admissions and discharges of the day.
+     * The census is read with one query and shared by all the callers for a few seconds.
+     *
+     * @return NO_CONTENT if there aren't wards, {@code List<WardCensusDTO>} otherwise
+     */
+    @GetMapping(value = "/wards/census", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<WardCensusDTO>> getCensus() {
+        LOGGER.info("Get wards census");
+        WardCensusLoader.Snapshot census = wardCensusLoader.getCensus();
+        if (census.getWards().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
+        }
+        return ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .lastModified(census.getTakenAt())
+                        .body(census.getWards());
+    }
+
     /**
      * Create a new ward.
      *
@@ -129,6 +161,7 @@ public class WardController {
     public ResponseEntity<WardDTO> newWard(@RequestBody WardDTO newWard) throws OHServiceException {
 	    LOGGER.info("Create Ward: {}", newWard);
         Ward wardCreated = wardManager.newWard(mapper.map2Model(newWard));
+        referenceDataCache.invalidateWards();
         if (wardCreated == null) {
             throw new OHAPIException(new OHExceptionMessage("Ward not created."));
         }
@@ -148,6 +181,7 @@ public class WardController {
 	    Ward ward = mapper.map2Model(updateWard);
 	    ward.setLock(updateWard.getLock());
         Ward wardUpdated = wardManager.updateWard(ward);
+        referenceDataCache.invalidateWards();
         if (wardUpdated == null) {
             throw new OHAPIException(new OHExceptionMessage("Ward not updated."));
         }
@@ -169,6 +203,7 @@ public class WardController {
         Ward ward = wardManager.findWard(code);
         if (ward != null) {
             isDeleted = wardManager.deleteWard(ward);
+            referenceDataCache.invalidateWards();
             if (!isDeleted) {
                 throw new OHAPIException(new OHExceptionMessage("Ward not deleted."));
             }
@@ -203,6 +238,9 @@ public class WardController {
     public ResponseEntity<Boolean> checkWardMaternityCode(@PathVariable Boolean createIfNotExist) throws OHServiceException {
         LOGGER.info("Check ward maternity code");
         boolean check = wardManager.maternityControl(createIfNotExist);
+        if (createIfNotExist) {
+            referenceDataCache.invalidateWards();
+        }
         return ResponseEntity.ok(check);
     }
 
@@ -0,0 +1,138 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.ward.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.isf.ward.dto.WardCensusDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Occupancy, admissions and discharges of the day of every ward, read with one aggregated query and kept as a
+ * snapshot for a few seconds, so that dashboards polling all the wards cost one query per TTL whatever their number.
+ */
+@Component
+public class WardCensusLoader {
+
+	private static final long DEFAULT_TTL_SECONDS = 15L;
+
+	@Autowired
+	private Environment env;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private long ttlMillis;
+
+	private volatile Snapshot snapshot;
+
+	@PostConstruct
+	public void init() {
+		this.ttlMillis = TimeUnit.SECONDS.toMillis(env.getProperty("ward.census.ttl", Long.class, DEFAULT_TTL_SECONDS));
+	}
+
+	/**
+	 * @return the census of every ward, at most {@code ward.census.ttl} seconds old
+	 */
+	public Snapshot getCensus() {
+		Snapshot current = snapshot;
+		if (current != null && !current.isOlderThan(ttlMillis)) {
+			return current;
+		}
+		synchronized (this) {
+			// another request may have refreshed it while this one was waiting
+			current = snapshot;
+			if (current == null || current.isOlderThan(ttlMillis)) {
+				current = new Snapshot(load(), System.currentTimeMillis());
+				snapshot = current;
+			}
+			return current;
+		}
+	}
+
+	private List<WardCensusDTO> load() {
+		LocalDateTime today = LocalDate.now().atStartOfDay();
+		List<Object[]> rows = entityManager.createQuery("SELECT w.code, w.description, w.beds, "
+				+ "SUM(CASE WHEN a.admitted = 1 THEN 1 ELSE 0 END), "
+				+ "SUM(CASE WHEN a.admDate >= :today AND a.admDate < :tomorrow THEN 1 ELSE 0 END), "
+				+ "SUM(CASE WHEN a.disDate >= :today AND a.disDate < :tomorrow THEN 1 ELSE 0 END) "
+				+ "FROM Ward w LEFT JOIN Admission a ON a.ward = w AND a.deleted = 'N' "
+				+ "AND (a.admitted = 1 OR a.admDate >= :today OR a.disDate >= :today) "
+				+ "GROUP BY w.code, w.description, w.beds ORDER BY w.code", Object[].class)
+				.setParameter("today", today)
+				.setParameter("tomorrow", today.plusDays(1))
+				.getResultList();
+		List<WardCensusDTO> census = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			WardCensusDTO ward = new WardCensusDTO();
+			ward.setCode((String) row[0]);
+			ward.setDescription((String) row[1]);
+			ward.setBeds(intValue(row[2]));
+			ward.setOccupiedBeds(intValue(row[3]));
+			ward.setAdmissionsToday(intValue(row[4]));
+			ward.setDischargesToday(intValue(row[5]));
+			census.add(ward);
+		}
+		return Collections.unmodifiableList(census);
+	}
+
+	private static int intValue(Object value) {
+		return value == null ? 0 : ((Number) value).intValue();
+	}
+
+	public static final class Snapshot {
+
+		private final List<WardCensusDTO> wards;
+		private final long takenAt;
+
+		public Snapshot(List<WardCensusDTO> wards, long takenAt) {
+			this.wards = wards;
+			this.takenAt = takenAt;
+		}
+
+		public List<WardCensusDTO> getWards() {
+			return wards;
+		}
+
+		/**
+		 * @return the time the census has been read, in epoch milliseconds
+		 */
+		public long getTakenAt() {
+			return takenAt;
+		}
+
+		boolean isOlderThan(long millis) {
+			return System.currentTimeMillis() - takenAt >= millis;
+		}
+	}
+}
@@ -32,6 +32,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -39,6 +40,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDateTime;
@@ -77,6 +79,7 @@ import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
 import org.isf.shared.mapper.mappings.PatientMapping;
+import org.isf.shared.streaming.JsonListStreamer;
 import org.isf.testing.rest.ControllerBaseTest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -94,6 +97,8 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * @author Emerson Castaneda
  */
@@ -126,7 +131,8 @@ public class BillControllerTest extends ControllerBaseTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new BillController(billManagerMock, priceListManagerMock, patientManagerMock, billMapper, billItemsMapper, billPaymentsMapper))
+				.standaloneSetup(new BillController(billManagerMock, priceListManagerMock, patientManagerMock, billMapper, billItemsMapper, billPaymentsMapper,
+						new JsonListStreamer(new ObjectMapper().findAndRegisterModules())))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 
@@ -576,4 +582,37 @@ public class BillControllerTest extends ControllerBaseTest {
 				.andReturn();
 	}
 
+	@Test
+	public void when_get_searchBillsPayments_accepting_ndjson_then_one_payment_per_line() throws Exception {
+		String request = "/bills/payments?datefrom={dateFrom}&dateto={dateTo}";
+		String dateFrom = LocalDateTime.now().format(DateTimeFormatter.ofPattern(Constants.DATE_FORMAT_YYYY_MM_DD_T_HH_MM_SS_SSS_Z));
+		String dateTo = LocalDateTime.now().format(DateTimeFormatter.ofPattern(Constants.DATE_FORMAT_YYYY_MM_DD_T_HH_MM_SS_SSS_Z));
+
+		List<BillPaymentsDTO> billPaymentsDTOList = BillPaymentsDTOHelper.genList(3, billPaymentsMapper);
+
+		when(billManagerMock.getPayments(any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(BillPaymentsDTOHelper.toModelList(billPaymentsDTOList, billPaymentsMapper));
+
+		MvcResult result = this.mockMvc
+				.perform(
+						get(request, dateFrom, dateTo)
+								.accept(JsonListStreamer.APPLICATION_NDJSON_VALUE)
+				)
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = this.mockMvc
+				.perform(asyncDispatch(result))
+				.andDo(log())
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(JsonListStreamer.APPLICATION_NDJSON_VALUE))
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertThat(lines.length, equalTo(billPaymentsDTOList.size()));
+		for (String line : lines) {
+			assertThat(line.startsWith("{"), equalTo(true));
+		}
+	}
+
 }
@@ -30,9 +30,11 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 import org.isf.admission.data.AdmissionHelper;
@@ -42,6 +44,7 @@ import org.isf.admission.mapper.AdmissionMapper;
 import org.isf.admission.mapper.AdmittedPatientMapper;
 import org.isf.admission.model.Admission;
 import org.isf.admission.model.AdmittedPatient;
+import org.isf.admission.service.AdmissionKeysetLoader;
 import org.isf.admtype.data.AdmissionTypeDTOHelper;
 import org.isf.admtype.model.AdmissionType;
 import org.isf.disctype.data.DischargeTypeHelper;
@@ -53,6 +56,7 @@ import org.isf.disease.manager.DiseaseBrowserManager;
 import org.isf.disease.model.Disease;
 import org.isf.dlvrrestype.manager.DeliveryResultTypeBrowserManager;
 import org.isf.dlvrtype.manager.DeliveryTypeBrowserManager;
+import org.isf.events.service.WardEventBroadcaster;
 import org.isf.operation.data.OperationHelper;
 import org.isf.operation.manager.OperationBrowserManager;
 import org.isf.operation.model.Operation;
@@ -62,10 +66,13 @@ import org.isf.patient.model.Patient;
 import org.isf.pregtreattype.data.PregnantTreatmentTypeHelper;
 import org.isf.pregtreattype.manager.PregnantTreatmentTypeBrowserManager;
 import org.isf.pregtreattype.model.PregnantTreatmentType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
 import org.isf.shared.mapper.mappings.PatientMapping;
+import org.isf.shared.pagination.KeysetCursor;
+import org.isf.shared.pagination.KeysetPage;
 import org.isf.ward.data.WardHelper;
 import org.isf.ward.manager.WardBrowserManager;
 import org.isf.ward.model.Ward;
@@ -114,6 +121,12 @@ public class AdmissionControllerTest {
 	@Mock
 	private DischargeTypeBrowserManager dischargeTypeManagerMock;
 
+	@Mock
+	private AdmissionKeysetLoader admissionKeysetLoaderMock;
+
+	@Mock
+	private WardEventBroadcaster wardEventBroadcasterMock;
+
 	@Autowired
 	private AdmissionMapper admissionMapper = new AdmissionMapper();
 
@@ -137,7 +150,10 @@ public class AdmissionControllerTest {
 						.standaloneSetup(new AdmissionController(admissionManagerMock, patientManagerMock, wardManagerMock,
 										diseaseManagerMock, operationManagerMock, pregTraitTypeManagerMock,
 										dlvrTypeManagerMock, dlvrrestTypeManagerMock, admissionMapper,
-										admittedMapper, dischargeTypeManagerMock, dischargeMapper))
+										admittedMapper, dischargeTypeManagerMock, dischargeMapper,
+										new ReferenceDataCache(wardManagerMock, admissionManagerMock, diseaseManagerMock,
+														pregTraitTypeManagerMock, dlvrTypeManagerMock, dlvrrestTypeManagerMock),
+										admissionKeysetLoaderMock, wardEventBroadcasterMock))
 						.setControllerAdvice(new OHResponseEntityExceptionHandler())
 						.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -222,6 +238,46 @@ public class AdmissionControllerTest {
 		LOGGER.debug("result: {}", result);
 	}
 
+	@Test
+	public void testGetAdmissionsWithCursor_200() throws Exception {
+		String request = "/admissions";
+		LocalDateTime admDate = LocalDateTime.of(2023, 1, 1, 8, 0);
+		Admission first = AdmissionHelper.setup();
+		Admission second = AdmissionHelper.setup();
+		KeysetPage<Admission> admissionPage = KeysetPage.of(Arrays.asList(first, second), 1,
+						admission -> KeysetCursor.of(admDate, admission.getId()));
+
+		when(admissionKeysetLoaderMock.getAdmissions(any(LocalDateTime.class), any(LocalDateTime.class), any(), any(Integer.class)))
+						.thenReturn(admissionPage);
+
+		MvcResult result = this.mockMvc
+						.perform(get(request)
+										.param("admissionrange", "2023-01-01T00:00:00", "2023-02-01T00:00:00")
+										.param("size", "1")
+										.param("cursor", "")
+										.contentType(MediaType.APPLICATION_JSON))
+						.andDo(log())
+						.andExpect(status().isOk())
+						.andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER, KeysetCursor.of(admDate, first.getId()).encode()))
+						.andExpect(content().string(containsString(AdmissionHelper.asJsonString(admissionMapper.map2DTOList(Arrays.asList(first))))))
+						.andReturn();
+
+		LOGGER.debug("result: {}", result);
+	}
+
+	@Test
+	public void testGetAdmissionsWithInvalidCursor_400() throws Exception {
+		String request = "/admissions";
+
+		this.mockMvc
+						.perform(get(request)
+										.param("admissionrange", "2023-01-01T00:00:00", "2023-02-01T00:00:00")
+										.param("cursor", "not a cursor")
+										.contentType(MediaType.APPLICATION_JSON))
+						.andDo(log())
+						.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	public void testGetAdmittedPatientsSearch_200() throws Exception {
 		String request = "/admissions/admittedPatients?searchterms={searchTerms}";
@@ -0,0 +1,116 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.admission.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class InpatientStatusLoaderTest {
+
+	@Mock
+	private EntityManager entityManagerMock;
+
+	@Mock
+	private TypedQuery<Integer> queryMock;
+
+	private InpatientStatusLoader loader;
+
+	private AutoCloseable closeable;
+
+	/* the patients with a code multiple of 10 are admitted */
+	private List<Integer> lastCodes;
+
+	@BeforeEach
+	public void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		loader = new InpatientStatusLoader();
+		ReflectionTestUtils.setField(loader, "entityManager", entityManagerMock);
+		when(entityManagerMock.createQuery(anyString(), eq(Integer.class))).thenReturn(queryMock);
+		when(queryMock.setParameter(eq("codes"), anyList())).thenAnswer(invocation -> {
+			lastCodes = new ArrayList<>(invocation.getArgument(1));
+			return queryMock;
+		});
+		when(queryMock.getResultList()).thenAnswer(invocation -> lastCodes.stream()
+				.filter(code -> code % 10 == 0)
+				.collect(Collectors.toList()));
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		closeable.close();
+	}
+
+	@Test
+	public void testGetAdmittedPatientCodesInChunks() {
+		List<Integer> patientCodes = IntStream.range(1, 1201).boxed().collect(Collectors.toList());
+
+		Set<Integer> admitted = loader.getAdmittedPatientCodes(patientCodes);
+
+		verify(queryMock, times(3)).getResultList();
+		assertThat(admitted.size(), equalTo(120));
+		assertThat(admitted.contains(1200), equalTo(true));
+		assertThat(admitted.contains(1199), equalTo(false));
+	}
+
+	@Test
+	public void testGetAdmittedPatientCodesDuplicates() {
+		assertThat(loader.getAdmittedPatientCodes(List.of(10, 10, 11, 20)), containsInAnyOrder(10, 20));
+		verify(queryMock, times(1)).getResultList();
+	}
+
+	@Test
+	public void testGetAdmittedPatientCodesEmpty() {
+		assertThat(loader.getAdmittedPatientCodes(Collections.emptyList()), empty());
+		verify(entityManagerMock, never()).createQuery(anyString(), eq(Integer.class));
+	}
+
+	@Test
+	public void testGetAdmittedPatientCodesNoneAdmitted() {
+		assertThat(loader.getAdmittedPatientCodes(List.of(1, 2, 3)), empty());
+	}
+}
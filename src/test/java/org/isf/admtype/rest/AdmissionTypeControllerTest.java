@@ -37,6 +37,7 @@ import org.isf.admtype.dto.AdmissionTypeDTO;
 import org.isf.admtype.manager.AdmissionTypeBrowserManager;
 import org.isf.admtype.mapper.AdmissionTypeMapper;
 import org.isf.admtype.model.AdmissionType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
@@ -60,6 +61,9 @@ public class AdmissionTypeControllerTest {
 	@Mock
 	protected AdmissionTypeBrowserManager admtManagerMock;
 
+	@Mock
+	protected ReferenceDataCache referenceDataCacheMock;
+
 	protected AdmissionTypeMapper admissionTypemapper = new AdmissionTypeMapper();
 
 	private MockMvc mockMvc;
@@ -70,7 +74,7 @@ public class AdmissionTypeControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new AdmissionTypeController(admtManagerMock, admissionTypemapper))
+				.standaloneSetup(new AdmissionTypeController(admtManagerMock, admissionTypemapper, referenceDataCacheMock))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -39,6 +39,7 @@ import org.isf.disctype.dto.DischargeTypeDTO;
 import org.isf.disctype.manager.DischargeTypeBrowserManager;
 import org.isf.disctype.mapper.DischargeTypeMapper;
 import org.isf.disctype.model.DischargeType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
@@ -62,6 +63,9 @@ public class DischargeTypeControllerTest {
 	@Mock
 	protected DischargeTypeBrowserManager discTypeManagerMock;
 
+	@Mock
+	protected ReferenceDataCache referenceDataCacheMock;
+
 	protected DischargeTypeMapper dischargeTypeMapper = new DischargeTypeMapper();
 
 	private MockMvc mockMvc;
@@ -72,7 +76,7 @@ public class DischargeTypeControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new DischargeTypeController(discTypeManagerMock, dischargeTypeMapper))
+				.standaloneSetup(new DischargeTypeController(discTypeManagerMock, dischargeTypeMapper, referenceDataCacheMock))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
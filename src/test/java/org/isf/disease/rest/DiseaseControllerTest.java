@@ -38,9 +38,11 @@ import org.isf.disease.dto.DiseaseDTO;
 import org.isf.disease.manager.DiseaseBrowserManager;
 import org.isf.disease.mapper.DiseaseMapper;
 import org.isf.disease.model.Disease;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
+import org.isf.stats.service.ReportGenerator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -61,6 +63,12 @@ public class DiseaseControllerTest {
 	@Mock
 	private DiseaseBrowserManager diseaseBrowserManagerMock;
 
+	@Mock
+	private ReferenceDataCache referenceDataCacheMock;
+
+	@Mock
+	private ReportGenerator reportGeneratorMock;
+
 	private DiseaseMapper diseaseMapper = new DiseaseMapper();
 
 	private MockMvc mockMvc;
@@ -71,7 +79,7 @@ public class DiseaseControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new DiseaseController(diseaseBrowserManagerMock, diseaseMapper))
+				.standaloneSetup(new DiseaseController(diseaseBrowserManagerMock, diseaseMapper, referenceDataCacheMock, reportGeneratorMock))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -41,6 +41,7 @@ import org.isf.distype.model.DiseaseType;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
+import org.isf.stats.service.ReportGenerator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -61,6 +62,9 @@ public class DiseaseTypeControllerTest {
 	@Mock
 	protected DiseaseTypeBrowserManager diseaseTypeBrowserManager;
 
+	@Mock
+	protected ReportGenerator reportGenerator;
+
 	protected DiseaseTypeMapper diseaseTypeMapper = new DiseaseTypeMapper();
 
 	private MockMvc mockMvc;
@@ -71,7 +75,7 @@ public class DiseaseTypeControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new DiseaseTypeController(diseaseTypeBrowserManager, diseaseTypeMapper))
+				.standaloneSetup(new DiseaseTypeController(diseaseTypeBrowserManager, diseaseTypeMapper, reportGenerator))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -39,6 +39,7 @@ import org.isf.dlvrrestype.dto.DeliveryResultTypeDTO;
 import org.isf.dlvrrestype.manager.DeliveryResultTypeBrowserManager;
 import org.isf.dlvrrestype.mapper.DeliveryResultTypeMapper;
 import org.isf.dlvrrestype.model.DeliveryResultType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
@@ -62,6 +63,9 @@ public class DeliveryResultTypeControllerTest {
 	@Mock
 	protected DeliveryResultTypeBrowserManager deliveryResultTypeBrowserManagerMock;
 
+	@Mock
+	protected ReferenceDataCache referenceDataCacheMock;
+
 	protected DeliveryResultTypeMapper deliveryResultTypeMapper = new DeliveryResultTypeMapper();
 
 	private MockMvc mockMvc;
@@ -72,7 +76,7 @@ public class DeliveryResultTypeControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new DeliveryResultTypeController(deliveryResultTypeBrowserManagerMock, deliveryResultTypeMapper))
+				.standaloneSetup(new DeliveryResultTypeController(deliveryResultTypeBrowserManagerMock, deliveryResultTypeMapper, referenceDataCacheMock))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -39,6 +39,7 @@ import org.isf.dlvrtype.dto.DeliveryTypeDTO;
 import org.isf.dlvrtype.manager.DeliveryTypeBrowserManager;
 import org.isf.dlvrtype.mapper.DeliveryTypeMapper;
 import org.isf.dlvrtype.model.DeliveryType;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
@@ -62,6 +63,9 @@ public class DeliveryTypeControllerTest {
 	@Mock
 	protected DeliveryTypeBrowserManager deliveryTypeBrowserManagerMock;
 
+	@Mock
+	protected ReferenceDataCache referenceDataCacheMock;
+
 	protected DeliveryTypeMapper deliveryTypeMapper = new DeliveryTypeMapper();
 
 	private MockMvc mockMvc;
@@ -72,7 +76,7 @@ public class DeliveryTypeControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new DeliveryTypeController(deliveryTypeBrowserManagerMock, deliveryTypeMapper))
+				.standaloneSetup(new DeliveryTypeController(deliveryTypeBrowserManagerMock, deliveryTypeMapper, referenceDataCacheMock))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -0,0 +1,177 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.events.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.isf.events.dto.WardEventType;
+import org.isf.shared.exceptions.OHAPIException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class WardEventBroadcasterTest {
+
+	private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+	private WardEventBroadcaster broadcaster;
+
+	@AfterEach
+	void tearDown() {
+		broadcaster.shutdown();
+	}
+
+	private WardEventBroadcaster newBroadcaster(int maxSubscribers, boolean failingEmitters) {
+		WardEventBroadcaster newBroadcaster = new WardEventBroadcaster() {
+
+			@Override
+			SseEmitter newEmitter(long timeout) {
+				return new RecordingEmitter(timeout, failingEmitters);
+			}
+		};
+		ReflectionTestUtils.setField(newBroadcaster, "env", new MockEnvironment()
+						.withProperty("events.sse.max.subscribers", String.valueOf(maxSubscribers))
+						.withProperty("events.sse.heartbeat", "3600"));
+		newBroadcaster.init();
+		return newBroadcaster;
+	}
+
+	/**
+	 * Wait until the dispatcher has sent every event published so far.
+	 */
+	private void awaitDispatch() throws Exception {
+		((ThreadPoolExecutor) ReflectionTestUtils.getField(broadcaster, "dispatcher")).submit(() -> { }).get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testEventsFilteredByWardWithConsecutiveIds() throws Exception {
+		broadcaster = newBroadcaster(10, false);
+		RecordingEmitter wardA = (RecordingEmitter) broadcaster.subscribe(Set.of("A"));
+		RecordingEmitter all = (RecordingEmitter) broadcaster.subscribe(Collections.emptySet());
+
+		broadcaster.publish(WardEventType.ADMISSION_CREATED, "A", null, 1, 10);
+		broadcaster.publish(WardEventType.ADMISSION_CREATED, "B", null, 2, 11);
+		broadcaster.publish(WardEventType.WARD_MOVEMENT, "B", "A", 2, 11);
+		broadcaster.publish(WardEventType.OPD_CREATED, null, null, 3, 12);
+		awaitDispatch();
+
+		assertThat(wardA.ids, is(List.of(1L, 2L, 3L)));
+		assertThat(all.ids, is(List.of(1L, 2L, 3L, 4L)));
+	}
+
+	@Test
+	public void testSubscriberCap() throws Exception {
+		broadcaster = newBroadcaster(2, false);
+		broadcaster.subscribe(null);
+		broadcaster.subscribe(null);
+
+		OHAPIException exception = assertThrows(OHAPIException.class, () -> broadcaster.subscribe(null));
+
+		assertThat(exception.getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE));
+		assertThat(broadcaster.getSubscriberCount(), is(2));
+	}
+
+	@Test
+	public void testSubscriberCapUnderConcurrentSubscriptions() throws Exception {
+		broadcaster = newBroadcaster(10, false);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger refused = new AtomicInteger();
+		try {
+			for (int i = 0; i < 100; i++) {
+				executor.execute(() -> {
+					try {
+						start.await();
+						broadcaster.subscribe(null);
+					} catch (OHAPIException e) {
+						refused.incrementAndGet();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+			start.countDown();
+		} finally {
+			executor.shutdown();
+			assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+		}
+
+		assertThat(broadcaster.getSubscriberCount(), is(10));
+		assertThat(refused.get(), is(90));
+	}
+
+	@Test
+	public void testFailingEmitterRemovedAndSlotReleased() throws Exception {
+		broadcaster = newBroadcaster(1, true);
+		broadcaster.subscribe(null);
+
+		broadcaster.publish(WardEventType.DISCHARGE, "A", null, 1, 10);
+		awaitDispatch();
+
+		assertThat(broadcaster.getSubscriberCount(), is(0));
+		broadcaster.subscribe(null);
+		assertThat(broadcaster.getSubscriberCount(), is(1));
+	}
+
+	private static final class RecordingEmitter extends SseEmitter {
+
+		private final boolean failing;
+		private final List<Long> ids = new ArrayList<>();
+
+		RecordingEmitter(long timeout, boolean failing) {
+			super(timeout);
+			this.failing = failing;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (failing) {
+				throw new IOException("Broken pipe");
+			}
+			for (DataWithMediaType data : builder.build()) {
+				Matcher matcher = EVENT_ID.matcher(data.getData().toString());
+				if (matcher.find()) {
+					ids.add(Long.valueOf(matcher.group(1)));
+				}
+			}
+		}
+	}
+}
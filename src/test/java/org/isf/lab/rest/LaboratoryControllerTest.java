@@ -21,7 +21,13 @@
  */
 package org.isf.lab.rest;
 
+import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -32,8 +38,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import org.isf.exa.manager.ExamBrowsingManager;
+import org.isf.exa.model.Exam;
 import org.isf.lab.data.LaboratoryHelper;
 import org.isf.lab.dto.LaboratoryDTO;
 import org.isf.lab.manager.LabManager;
@@ -41,9 +48,13 @@ import org.isf.lab.mapper.LaboratoryForPrintMapper;
 import org.isf.lab.mapper.LaboratoryMapper;
 import org.isf.lab.mapper.LaboratoryRowMapper;
 import org.isf.lab.model.Laboratory;
+import org.isf.lab.service.LaboratoryKeysetLoader;
+import org.isf.lab.service.LaboratoryRowBatchLoader;
 import org.isf.patient.data.PatientHelper;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
+import org.isf.patient.service.PatientBatchLoader;
+import org.isf.shared.cache.ExamCatalogueCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
@@ -69,7 +80,7 @@ public class LaboratoryControllerTest {
     protected LabManager laboratoryManager;
 
 	@Mock
-    protected ExamBrowsingManager examManager;
+    protected ExamCatalogueCache examCatalogueCache;
 
 	@Mock
     private PatientBrowserManager patientBrowserManager;
@@ -82,6 +93,15 @@ public class LaboratoryControllerTest {
 
 	@Mock
     private LaboratoryForPrintMapper laboratoryForPrintMapper;
+
+	@Mock
+	private LaboratoryRowBatchLoader laboratoryRowBatchLoader;
+
+	@Mock
+	private LaboratoryKeysetLoader laboratoryKeysetLoader;
+
+	@Mock
+	private PatientBatchLoader patientBatchLoader;
 	
 	protected LaboratoryMapper labMapper = new LaboratoryMapper();
 
@@ -91,7 +111,8 @@ public class LaboratoryControllerTest {
 	public void setup() {
 		MockitoAnnotations.initMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new LaboratoryController(laboratoryManager, patientBrowserManager, examManager, laboratoryMapper, laboratoryRowMapper, laboratoryForPrintMapper))
+				.standaloneSetup(new LaboratoryController(laboratoryManager, patientBrowserManager, examCatalogueCache, laboratoryMapper, laboratoryRowMapper, laboratoryForPrintMapper,
+						laboratoryRowBatchLoader, laboratoryKeysetLoader, patientBatchLoader))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -168,4 +189,35 @@ public class LaboratoryControllerTest {
 		LOGGER.debug("result: {}", result);
 	}
 
+	@Test
+	public void testNewLaboratories_400_listsEveryInvalidItem() throws Exception {
+		String request = "/laboratories/insertList";
+		String body = "["
+				+ "{\"laboratoryDTO\": null},"
+				+ "{\"laboratoryDTO\": {\"patientCode\": 99, \"exam\": {\"code\": \"XX\"}, \"inOutPatient\": \"O\"}},"
+				+ "{\"laboratoryDTO\": {\"patientCode\": 1, \"exam\": {\"code\": \"01\"}}},"
+				+ "null"
+				+ "]";
+		when(patientBatchLoader.getPatients(any())).thenReturn(Map.of(1, PatientHelper.setup()));
+		when(examCatalogueCache.getExam("01")).thenReturn(mock(Exam.class));
+
+		MvcResult result = this.mockMvc
+				.perform(post(request)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body)
+				)
+				.andDo(log())
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string(allOf(
+						containsString("Item 0: laboratory missing."),
+						containsString("Item 1: patient 99 not found."),
+						containsString("Item 1: exam XX not found."),
+						containsString("Item 2: inOutPatient missing."),
+						containsString("Item 3: item missing."))))
+				.andReturn();
+
+		verify(laboratoryManager, never()).newLaboratory2(anyList(), anyList());
+		LOGGER.debug("result: {}", result);
+	}
+
 }
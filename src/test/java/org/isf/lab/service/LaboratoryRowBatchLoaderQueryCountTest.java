@@ -0,0 +1,211 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.lab.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.isf.testing.rest.QueryCountAssertions.assertMaxQueries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import org.isf.exa.model.Exam;
+import org.isf.exa.test.TestExam;
+import org.isf.exatype.model.ExamType;
+import org.isf.exatype.test.TestExamType;
+import org.isf.lab.model.Laboratory;
+import org.isf.lab.model.LaboratoryRow;
+import org.isf.lab.test.TestLaboratory;
+import org.isf.lab.test.TestLaboratoryRow;
+import org.isf.metrics.service.QueryCountInspector;
+import org.isf.patient.model.Patient;
+import org.isf.patient.test.TestPatient;
+import org.isf.shared.query.ChunkedInQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Counts the SQL statements the loader really runs, on an H2 database with the {@link QueryCountInspector}: the rows of
+ * the laboratories of a patient must take one statement per chunk of codes, whatever the number of laboratories.
+ * <p>
+ * As in {@code GET /laboratories/byPatientId/{patId}}, where the request shares one {@link EntityManager} (open in
+ * view), the laboratories are loaded before the loader is called, in the same transaction.
+ */
+@SpringJUnitConfig(LaboratoryRowBatchLoaderQueryCountTest.Config.class)
+public class LaboratoryRowBatchLoaderQueryCountTest {
+
+	private static final int LABORATORIES = 20;
+
+	private static final int ROWS_PER_LABORATORY = 3;
+
+	@Autowired
+	private LaboratoryRowBatchLoader loader;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/* a new patient for every test, the exam is shared */
+	private Patient patient;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		AtomicReference<Exception> failure = new AtomicReference<>();
+		patient = new TransactionTemplate(transactionManager).execute(status -> {
+			try {
+				ExamType examType = new TestExamType().setup(false);
+				Exam exam = new TestExam().setup(examType, 1, false);
+				if (entityManager.find(Exam.class, exam.getCode()) == null) {
+					entityManager.persist(examType);
+					entityManager.persist(exam);
+				} else {
+					exam = entityManager.find(Exam.class, exam.getCode());
+				}
+				Patient newPatient = new TestPatient().setup(false);
+				entityManager.persist(newPatient);
+				for (int i = 0; i < LABORATORIES; i++) {
+					Laboratory laboratory = new TestLaboratory().setup(exam, newPatient, false);
+					entityManager.persist(laboratory);
+					for (int j = 0; j < ROWS_PER_LABORATORY; j++) {
+						entityManager.persist(new TestLaboratoryRow().setup(laboratory, false));
+					}
+				}
+				return newPatient;
+			} catch (Exception e) {
+				failure.set(e);
+				status.setRollbackOnly();
+				return null;
+			}
+		});
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+	}
+
+	@Test
+	public void testGetLaboratoryRowsOfPatientInOneStatement() throws Throwable {
+		inRequest(codes -> {
+			Map<Integer, List<LaboratoryRow>> rows = loader.getLaboratoryRows(codes);
+
+			assertThat(rows.size(), equalTo(LABORATORIES));
+			rows.values().forEach(labRows -> assertThat(labRows.size(), equalTo(ROWS_PER_LABORATORY)));
+		}, 1);
+	}
+
+	@Test
+	public void testGetLaboratoryRowsOneStatementPerChunk() throws Throwable {
+		inRequest(codes -> {
+			List<Integer> manyCodes = new ArrayList<>(codes);
+			for (int code = -1; manyCodes.size() <= ChunkedInQuery.MAX_CODES_PER_QUERY; code--) {
+				manyCodes.add(code);
+			}
+
+			assertThat(loader.getLaboratoryRows(manyCodes).size(), equalTo(LABORATORIES));
+		}, 2);
+	}
+
+	/**
+	 * Load the laboratories of the patient, then run {@code call} on their codes checking its SQL statements, all in one
+	 * transaction.
+	 */
+	private void inRequest(LoaderCall call, int maxQueries) throws Throwable {
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			List<Integer> codes = new ArrayList<>();
+			for (Laboratory laboratory : entityManager
+							.createQuery("SELECT l FROM Laboratory l WHERE l.patient.code = :patient", Laboratory.class)
+							.setParameter("patient", patient.getCode())
+							.getResultList()) {
+				codes.add(laboratory.getCode());
+			}
+			try {
+				assertMaxQueries(maxQueries, () -> call.run(codes));
+			} catch (Throwable e) {
+				failure.set(e);
+			}
+		});
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+	}
+
+	private interface LoaderCall {
+
+		void run(List<Integer> codes) throws Throwable;
+	}
+
+	@Configuration
+	@EnableTransactionManagement
+	static class Config {
+
+		@Bean
+		public DataSource dataSource() {
+			return new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		}
+
+		@Bean
+		public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+			Properties properties = new Properties();
+			properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+			properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+			properties.setProperty("hibernate.session_factory.statement_inspector", QueryCountInspector.class.getName());
+			LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+			factory.setDataSource(dataSource);
+			factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+			factory.setPackagesToScan("org.isf");
+			factory.setJpaProperties(properties);
+			return factory;
+		}
+
+		@Bean
+		public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+			return new JpaTransactionManager(entityManagerFactory);
+		}
+
+		@Bean
+		public LaboratoryRowBatchLoader laboratoryRowBatchLoader() {
+			return new LaboratoryRowBatchLoader();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.lab.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.isf.lab.data.LaboratoryHelper;
+import org.isf.lab.model.LaboratoryRow;
+import org.isf.lab.test.TestLaboratoryRow;
+import org.isf.shared.query.ChunkedInQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class LaboratoryRowBatchLoaderTest {
+
+	@Mock
+	private EntityManager entityManagerMock;
+
+	@Mock
+	private TypedQuery<LaboratoryRow> queryMock;
+
+	private LaboratoryRowBatchLoader loader;
+
+	private AutoCloseable closeable;
+
+	/* two rows per even laboratory code, none for the odd ones */
+	private List<Integer> lastCodes;
+
+	@BeforeEach
+	public void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		loader = new LaboratoryRowBatchLoader();
+		ReflectionTestUtils.setField(loader, "entityManager", entityManagerMock);
+		when(entityManagerMock.createQuery(anyString(), eq(LaboratoryRow.class))).thenReturn(queryMock);
+		when(queryMock.setParameter(eq("codes"), anyList())).thenAnswer(invocation -> {
+			lastCodes = new ArrayList<>(invocation.getArgument(1));
+			return queryMock;
+		});
+		when(queryMock.getResultList()).thenAnswer(invocation -> {
+			List<LaboratoryRow> rows = new ArrayList<>();
+			for (Integer code : lastCodes) {
+				if (code % 2 == 0) {
+					rows.add(new TestLaboratoryRow().setup(LaboratoryHelper.setup(code), true));
+					rows.add(new TestLaboratoryRow().setup(LaboratoryHelper.setup(code), true));
+				}
+			}
+			return rows;
+		});
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		closeable.close();
+	}
+
+	@Test
+	public void testGetLaboratoryRowsInChunks() {
+		List<Integer> labCodes = IntStream.range(0, 1100).boxed().collect(Collectors.toList());
+
+		Map<Integer, List<LaboratoryRow>> rows = loader.getLaboratoryRows(labCodes);
+
+		ArgumentCaptor<List<Integer>> chunks = ArgumentCaptor.forClass(List.class);
+		verify(queryMock, times(3)).setParameter(eq("codes"), chunks.capture());
+		assertThat(chunks.getAllValues().get(0).size(), equalTo(ChunkedInQuery.MAX_CODES_PER_QUERY));
+		assertThat(chunks.getAllValues().get(2).size(), equalTo(100));
+		assertThat(rows.size(), equalTo(550));
+		assertThat(rows.get(1098).size(), equalTo(2));
+		assertThat(rows, not(hasKey(1099)));
+	}
+
+	@Test
+	public void testGetLaboratoryRowsEmpty() {
+		assertThat(loader.getLaboratoryRows(Collections.emptyList()), anEmptyMap());
+		verify(entityManagerMock, never()).createQuery(anyString(), eq(LaboratoryRow.class));
+	}
+
+	@Test
+	public void testGetLaboratoryRowsMissing() {
+		Map<Integer, List<LaboratoryRow>> rows = loader.getLaboratoryRows(List.of(1, 3));
+
+		assertThat(rows, anEmptyMap());
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.login.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.isf.login.service.SessionAuditRecorder.Entry;
+import org.isf.sessionaudit.manager.SessionAuditManager;
+import org.isf.sessionaudit.model.SessionAudit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SessionAuditBatchWriterTest {
+
+	private static final LocalDateTime LOGIN_DATE = LocalDateTime.of(2023, 5, 4, 10, 30, 15);
+
+	@Mock
+	private EntityManager entityManagerMock;
+
+	@Mock
+	private TypedQuery<SessionAudit> queryMock;
+
+	@Mock
+	private SessionAuditManager sessionAuditManagerMock;
+
+	private SessionAuditBatchWriter writer;
+
+	private AutoCloseable closeable;
+
+	@BeforeEach
+	public void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		writer = new SessionAuditBatchWriter(sessionAuditManagerMock);
+		ReflectionTestUtils.setField(writer, "entityManager", entityManagerMock);
+		when(entityManagerMock.createQuery(anyString(), eq(SessionAudit.class))).thenReturn(queryMock);
+		when(queryMock.setParameter(anyString(), any())).thenReturn(queryMock);
+		when(queryMock.setMaxResults(anyInt())).thenReturn(queryMock);
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		closeable.close();
+	}
+
+	@Test
+	public void testWriteLogin() throws Exception {
+		writer.write(List.of(new Entry("admin", LOGIN_DATE, null)));
+
+		ArgumentCaptor<SessionAudit> sessionAudit = ArgumentCaptor.forClass(SessionAudit.class);
+		verify(sessionAuditManagerMock).newSessionAudit(sessionAudit.capture());
+		assertThat(sessionAudit.getValue().getUserName(), equalTo("admin"));
+		assertThat(sessionAudit.getValue().getLoginDate(), equalTo(LOGIN_DATE));
+		assertThat(sessionAudit.getValue().getLogoutDate(), nullValue());
+	}
+
+	@Test
+	public void testWriteLogoutClosesTheOldestOpenSession() throws Exception {
+		SessionAudit open = new SessionAudit("admin", LOGIN_DATE, null);
+		when(queryMock.getResultList()).thenReturn(List.of(open));
+		LocalDateTime logoutDate = LOGIN_DATE.plusHours(1);
+
+		writer.write(List.of(new Entry("admin", LOGIN_DATE, logoutDate)));
+
+		ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+		verify(entityManagerMock).createQuery(jpql.capture(), eq(SessionAudit.class));
+		assertThat(jpql.getValue(), containsString("s.logoutDate IS NULL ORDER BY s.code"));
+		verify(queryMock).setParameter("userName", "admin");
+		verify(queryMock).setParameter("loginDate", LOGIN_DATE);
+		assertThat(open.getLogoutDate(), equalTo(logoutDate));
+	}
+
+	@Test
+	public void testWriteLogoutWithoutOpenSession() throws Exception {
+		when(queryMock.getResultList()).thenReturn(Collections.emptyList());
+
+		writer.write(List.of(new Entry("admin", LOGIN_DATE, LOGIN_DATE.plusHours(1))));
+
+		verify(sessionAuditManagerMock, never()).newSessionAudit(any());
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.login.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.isf.login.service.SessionAuditRecorder.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SessionAuditRecorderTest {
+
+	@Mock
+	private SessionAuditBatchWriter sessionAuditBatchWriterMock;
+
+	private SessionAuditRecorder recorder;
+
+	private AutoCloseable closeable;
+
+	@BeforeEach
+	public void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		recorder = new SessionAuditRecorder(sessionAuditBatchWriterMock);
+		ReflectionTestUtils.setField(recorder, "env", new MockEnvironment().withProperty("session.audit.mode", "sync"));
+		recorder.init();
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		recorder.shutdown();
+		closeable.close();
+	}
+
+	@Test
+	public void testLoginDatesOfAUserAreUnique() {
+		LocalDateTime first = recorder.login("admin");
+		LocalDateTime second = recorder.login("admin");
+		LocalDateTime third = recorder.login("admin");
+
+		assertThat(second.isAfter(first), equalTo(true));
+		assertThat(third.isAfter(second), equalTo(true));
+		assertThat(first.getNano(), equalTo(0));
+	}
+
+	@Test
+	public void testLoginAndLogoutOfASession() throws Exception {
+		LocalDateTime loginDate = recorder.login("admin");
+		recorder.logout("admin", loginDate);
+
+		ArgumentCaptor<List<Entry>> entries = ArgumentCaptor.forClass(List.class);
+		verify(sessionAuditBatchWriterMock, times(2)).write(entries.capture());
+		Entry login = entries.getAllValues().get(0).get(0);
+		Entry logout = entries.getAllValues().get(1).get(0);
+		assertThat(login.isLogin(), equalTo(true));
+		assertThat(logout.isLogin(), equalTo(false));
+		assertThat(logout.getUserName(), equalTo("admin"));
+		assertThat(logout.getLoginDate(), equalTo(loginDate));
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.menu.rest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.isf.menu.dto.UserMenuItemDTO;
+import org.isf.menu.manager.UserBrowsingManager;
+import org.isf.menu.mapper.UserMenuItemMapper;
+import org.isf.menu.model.User;
+import org.isf.menu.model.UserGroup;
+import org.isf.shared.cache.GroupMenuCache;
+import org.isf.shared.cache.UserAuthorityCache;
+import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class UserControllerTest {
+
+	@Mock
+	private UserBrowsingManager userManagerMock;
+
+	@Mock
+	private UserMenuItemMapper userMenuItemMapperMock;
+
+	@Mock
+	private UserAuthorityCache userAuthorityCacheMock;
+
+	private GroupMenuCache groupMenuCache;
+
+	private MockMvc mockMvc;
+
+	private AutoCloseable closeable;
+
+	@BeforeEach
+	void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		groupMenuCache = new GroupMenuCache(userManagerMock, userMenuItemMapperMock, new ObjectMapper());
+		ReflectionTestUtils.setField(groupMenuCache, "env", new MockEnvironment());
+		groupMenuCache.init();
+		UserController userController = new UserController();
+		ReflectionTestUtils.setField(userController, "userManager", userManagerMock);
+		ReflectionTestUtils.setField(userController, "userMenuItemMapper", userMenuItemMapperMock);
+		ReflectionTestUtils.setField(userController, "userAuthorityCache", userAuthorityCacheMock);
+		ReflectionTestUtils.setField(userController, "groupMenuCache", groupMenuCache);
+		this.mockMvc = MockMvcBuilders
+						.standaloneSetup(userController)
+						.setControllerAdvice(new OHResponseEntityExceptionHandler())
+						.build();
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		closeable.close();
+	}
+
+	/**
+	 * Test method for {@link org.isf.menu.rest.UserController#getMenu(String, org.springframework.web.context.request.WebRequest)}.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void when_get_menu_with_current_ETag_then_not_modified_until_group_rights_change() throws Exception {
+		String request = "/users/menus/{username}";
+		UserGroup group = mock(UserGroup.class);
+		when(group.getCode()).thenReturn("admin");
+		User user = mock(User.class);
+		when(user.getUserGroupName()).thenReturn(group);
+		when(userAuthorityCacheMock.getUser("admin")).thenReturn(user);
+		when(userMenuItemMapperMock.map2DTOList(any()))
+						.thenReturn(List.of(new UserMenuItemDTO("admtype", "Admission Type", "Admission Type", null, 'A', "types",
+										"org.isf.admtype.gui.AdmissionTypeBrowser", false, 5)))
+						.thenReturn(List.of(new UserMenuItemDTO("disctype", "Discharge Type", "Discharge Type", null, 'D', "types",
+										"org.isf.disctype.gui.DischargeTypeBrowser", false, 6)));
+
+		MvcResult result = this.mockMvc
+						.perform(get(request, "admin"))
+						.andDo(log())
+						.andExpect(status().isOk())
+						.andExpect(header().exists(HttpHeaders.ETAG))
+						.andReturn();
+		String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+		this.mockMvc
+						.perform(get(request, "admin").header(HttpHeaders.IF_NONE_MATCH, eTag))
+						.andDo(log())
+						.andExpect(status().isNotModified());
+		verify(userManagerMock, times(1)).getMenu(user);
+
+		groupMenuCache.invalidate("admin");
+
+		this.mockMvc
+						.perform(get(request, "admin").header(HttpHeaders.IF_NONE_MATCH, eTag))
+						.andDo(log())
+						.andExpect(status().isOk());
+	}
+}
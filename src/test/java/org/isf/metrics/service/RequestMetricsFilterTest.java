@@ -0,0 +1,134 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.metrics.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.isf.testing.rest.QueryCountAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RequestMetricsFilterTest {
+
+	private final QueryCountInspector inspector = new QueryCountInspector();
+
+	private SimpleMeterRegistry registry;
+
+	private RequestMetricsFilter filter;
+
+	@BeforeEach
+	public void setup() {
+		registry = new SimpleMeterRegistry();
+		filter = new RequestMetricsFilter(registry);
+		ReflectionTestUtils.setField(filter, "env", new MockEnvironment().withProperty("metrics.queries.budget", "2"));
+		filter.init();
+	}
+
+	@Test
+	public void testQueryCountHeaderAndSummary() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/opds/patient/1");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp)
+							throws IOException {
+				req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/opds/patient/{pcode}");
+				for (int i = 0; i < 3; i++) {
+					inspector.inspect("select 1");
+				}
+				resp.getWriter().write("[]");
+				inspector.inspect("select 1");
+			}
+		}));
+
+		assertThat(response.getHeader(RequestMetricsFilter.QUERY_COUNT_HEADER), equalTo("3"));
+		DistributionSummary summary = registry.find(RequestMetricsFilter.QUERIES_METRIC)
+						.tag("method", "GET")
+						.tag("uri", "/opds/patient/{pcode}")
+						.tag("status", "200")
+						.summary();
+		assertThat(summary.count(), equalTo(1L));
+		assertThat(summary.totalAmount(), equalTo(4.0));
+	}
+
+	@Test
+	public void testQueryCountHeaderWithoutBody() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/opds/1");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) {
+				inspector.inspect("delete from OPD where OPD_ID = ?");
+			}
+		}));
+
+		assertThat(response.getHeader(RequestMetricsFilter.QUERY_COUNT_HEADER), equalTo("1"));
+	}
+
+	@Test
+	public void testStatementsOutsideRequestsAreNotCounted() throws Throwable {
+		inspector.inspect("select 1");
+		assertThat(QueryCounter.get(), equalTo(0));
+
+		assertThat(assertMaxQueries(2, () -> {
+			inspector.inspect("select 1");
+			inspector.inspect("select 2");
+		}), equalTo(2));
+		assertThrows(AssertionError.class, () -> assertMaxQueries(1, () -> {
+			inspector.inspect("select 1");
+			inspector.inspect("select 2");
+		}));
+	}
+
+	@Test
+	public void testNoHeaderWhenDisabled() throws Exception {
+		ReflectionTestUtils.setField(filter, "env", new MockEnvironment().withProperty("metrics.queries.header", "false"));
+		filter.init();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/opds"), response, new MockFilterChain());
+
+		assertThat(response.getHeader(RequestMetricsFilter.QUERY_COUNT_HEADER), nullValue());
+	}
+}
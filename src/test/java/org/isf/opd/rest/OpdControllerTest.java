@@ -21,25 +21,34 @@
  */
 package org.isf.opd.rest;
 
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.Collections;
+
+import org.isf.events.service.WardEventBroadcaster;
 import org.isf.opd.data.OpdHelper;
 import org.isf.opd.dto.OpdDTO;
 import org.isf.opd.manager.OpdBrowserManager;
 import org.isf.opd.mapper.OpdMapper;
 import org.isf.opd.model.Opd;
+import org.isf.opd.service.OpdWithOperationRowsWriter;
 import org.isf.operation.manager.OperationRowBrowserManager;
 import org.isf.operation.mapper.OperationRowMapper;
+import org.isf.operation.service.OperationRowBatchLoader;
 import org.isf.patient.data.PatientHelper;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
-import org.isf.ward.manager.WardBrowserManager;
+import org.isf.shared.streaming.JsonListStreamer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +62,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class OpdControllerTest {
 	
 	private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(OpdControllerTest.class);
@@ -63,13 +74,23 @@ public class OpdControllerTest {
 	@Mock
 	protected PatientBrowserManager patientBrowserManagerMock;
 
+	@Mock
+	protected WardEventBroadcaster wardEventBroadcasterMock;
+
+	@Mock
+	protected OperationRowBatchLoader operationRowBatchLoaderMock;
+
+	@Mock
+	protected OpdWithOperationRowsWriter opdWithOperationRowsWriterMock;
+
 	protected OpdMapper opdMapper = new OpdMapper();
 	
 	protected OperationRowBrowserManager operationRowManager = new OperationRowBrowserManager();
 	
 	protected OperationRowMapper opRowMapper = new OperationRowMapper();
 	
-	protected WardBrowserManager wardManager = new WardBrowserManager();
+	@Mock
+	protected ReferenceDataCache referenceDataCacheMock;
 
 	private MockMvc mockMvc;
 
@@ -79,7 +100,9 @@ public class OpdControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new OpdController(opdBrowserManagerMock, opdMapper, patientBrowserManagerMock, operationRowManager, opRowMapper, wardManager))
+				.standaloneSetup(new OpdController(opdBrowserManagerMock, opdMapper, patientBrowserManagerMock, operationRowManager, opRowMapper, referenceDataCacheMock,
+						new JsonListStreamer(new ObjectMapper().findAndRegisterModules()), wardEventBroadcasterMock, operationRowBatchLoaderMock,
+						opdWithOperationRowsWriterMock))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -122,5 +145,28 @@ public class OpdControllerTest {
 		LOGGER.debug("result: {}", result);
 	}
 
-}
+	@Test
+	public void testGetOpdByPatient_200() throws Exception {
+		Integer patientCode = 1;
+		String request = "/opds/patient/{pcode}";
+		Patient patient = PatientHelper.setup();
+		patient.setCode(patientCode);
+
+		Opd opd = OpdHelper.setup();
+		opd.setPatient(patient);
 
+		when(opdBrowserManagerMock.getOpdList(patientCode)).thenReturn(Collections.singletonList(opd));
+		when(operationRowBatchLoaderMock.getOperationRowsByOpd(anyCollection())).thenReturn(Collections.emptyMap());
+
+		MvcResult result = this.mockMvc
+				.perform(get(request, patientCode))
+				.andDo(log())
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].operationRows").isEmpty())
+				.andReturn();
+
+		LOGGER.debug("result: {}", result);
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.opd.service;
+
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.isf.opd.manager.OpdBrowserManager;
+import org.isf.opd.model.Opd;
+import org.isf.operation.manager.OperationRowBrowserManager;
+import org.isf.operation.model.OperationRow;
+import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.exception.model.OHExceptionMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Runs the writer behind the transactional proxy of Spring, with a mocked transaction manager that records whether the
+ * transaction joined by the managers is committed or rolled back.
+ */
+@SpringJUnitConfig(OpdWithOperationRowsWriterTest.Config.class)
+public class OpdWithOperationRowsWriterTest {
+
+	@Autowired
+	private OpdWithOperationRowsWriter writer;
+
+	@Autowired
+	private OpdBrowserManager opdManagerMock;
+
+	@Autowired
+	private OperationRowBrowserManager operationRowManagerMock;
+
+	@Autowired
+	private PlatformTransactionManager transactionManagerMock;
+
+	@BeforeEach
+	void setup() {
+		reset(opdManagerMock, operationRowManagerMock, transactionManagerMock);
+		when(transactionManagerMock.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+	}
+
+	@Test
+	public void testFailingOperationRowRollsBackTheOpd() throws Exception {
+		Opd opd = mock(Opd.class);
+		OperationRow valid = mock(OperationRow.class);
+		OperationRow invalid = mock(OperationRow.class);
+		when(opdManagerMock.newOpd(opd)).thenReturn(opd);
+		when(operationRowManagerMock.newOperationRow(valid)).thenReturn(valid);
+		when(operationRowManagerMock.newOperationRow(invalid)).thenThrow(new OHServiceException(new OHExceptionMessage("Invalid operation row.")));
+
+		assertThrows(OHServiceException.class, () -> writer.newOpd(opd, List.of(valid, invalid)));
+
+		verify(opdManagerMock).newOpd(opd);
+		verify(transactionManagerMock).rollback(any());
+		verify(transactionManagerMock, never()).commit(any());
+	}
+
+	@Test
+	public void testOpdAndOperationRowsCommittedTogether() throws Exception {
+		Opd opd = mock(Opd.class);
+		OperationRow row = mock(OperationRow.class);
+		when(opdManagerMock.newOpd(opd)).thenReturn(opd);
+		when(operationRowManagerMock.newOperationRow(row)).thenReturn(row);
+
+		OpdWithOperationRowsWriter.Result result = writer.newOpd(opd, List.of(row));
+
+		assertThat(result.getOpd(), sameInstance(opd));
+		verify(row).setOpd(opd);
+		verify(transactionManagerMock).commit(any());
+		verify(transactionManagerMock, never()).rollback(any());
+	}
+
+	@Configuration
+	@EnableTransactionManagement
+	static class Config {
+
+		@Bean
+		PlatformTransactionManager transactionManager() {
+			return mock(PlatformTransactionManager.class);
+		}
+
+		@Bean
+		OpdBrowserManager opdManager() {
+			return mock(OpdBrowserManager.class);
+		}
+
+		@Bean
+		OperationRowBrowserManager operationRowManager() {
+			return mock(OperationRowBrowserManager.class);
+		}
+
+		@Bean
+		OpdWithOperationRowsWriter opdWithOperationRowsWriter(OpdBrowserManager opdManager, OperationRowBrowserManager operationRowManager) {
+			return new OpdWithOperationRowsWriter(opdManager, operationRowManager);
+		}
+	}
+}
@@ -30,6 +30,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -38,6 +42,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.List;
@@ -46,6 +51,7 @@ import java.util.Optional;
 import org.isf.admission.data.AdmissionHelper;
 import org.isf.admission.manager.AdmissionBrowserManager;
 import org.isf.admission.model.Admission;
+import org.isf.admission.service.InpatientStatusLoader;
 import org.isf.patconsensus.manager.PatientConsensusBrowserManager;
 import org.isf.patconsensus.model.PatientConsensus;
 import org.isf.patient.data.PatientHelper;
@@ -54,6 +60,9 @@ import org.isf.patient.dto.PatientSTATUS;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.mapper.PatientMapper;
 import org.isf.patient.model.Patient;
+import org.isf.patient.service.PatientKeysetLoader;
+import org.isf.patient.service.PatientPhotoLoader;
+import org.isf.patient.service.PatientPhotoThumbnails;
 import org.isf.shared.exceptions.OHAPIException;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
@@ -66,6 +75,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -90,6 +100,18 @@ public class PatientControllerTest {
 	@Mock
 	private PatientConsensusBrowserManager patientConsensusManagerMock;
 
+	@Mock
+	private PatientPhotoThumbnails patientPhotoThumbnailsMock;
+
+	@Mock
+	private InpatientStatusLoader inpatientStatusLoaderMock;
+
+	@Mock
+	private PatientKeysetLoader patientKeysetLoaderMock;
+
+	@Mock
+	private PatientPhotoLoader patientPhotoLoaderMock;
+
 	private PatientMapper patientMapper = new PatientMapper();
 
 	private MockMvc mockMvc;
@@ -101,7 +123,8 @@ public class PatientControllerTest {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
 						.standaloneSetup(new PatientController(patientBrowserManagerMock, admissionBrowserManagerMock, patientMapper,
-										patientConsensusManagerMock))
+										patientConsensusManagerMock, patientPhotoThumbnailsMock,
+										inpatientStatusLoaderMock, patientKeysetLoaderMock, patientPhotoLoaderMock))
 						.setControllerAdvice(new OHResponseEntityExceptionHandler())
 						.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -363,6 +386,7 @@ public class PatientControllerTest {
 		List<Patient> patientList = PatientHelper.setupPatientList(expectedPageSize);
 
 		List<PatientDTO> expectedPatientDTOList = patientMapper.map2DTOList(patientList);
+		expectedPatientDTOList.forEach(patientDTO -> patientDTO.setStatus(PatientSTATUS.O));
 
 		when(patientBrowserManagerMock.getPatient(anyInt(), anyInt()))
 						.thenReturn(patientList);
@@ -580,4 +604,124 @@ public class PatientControllerTest {
 		oHAPIException.ifPresent(se -> assertThat(se, instanceOf(OHAPIException.class)));
 	}
 
+	/**
+	 * Test method for {@link org.isf.patient.rest.PatientController#getPatientPhoto(int, Integer, org.springframework.web.context.request.WebRequest)}.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void when_get_patient_photo_then_photo_with_ETag_and_not_modified_on_revalidation() throws Exception {
+		int code = 123;
+		String request = "/patients/{code}/photo";
+		byte[] photo = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3 };
+
+		when(patientPhotoLoaderMock.getPhotoVersion(code)).thenReturn("1-5-7");
+		when(patientPhotoLoaderMock.getPhoto(code)).thenReturn(photo);
+
+		MvcResult result = this.mockMvc
+						.perform(get(request, code))
+						.andDo(log())
+						.andExpect(status().isOk())
+						.andExpect(header().string(HttpHeaders.ETAG, "\"1-5-7\""))
+						.andExpect(content().bytes(photo))
+						.andReturn();
+
+		this.mockMvc
+						.perform(get(request, code).header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+						.andDo(log())
+						.andExpect(status().isNotModified());
+
+		// the revalidation loads neither the photo nor the patient
+		verify(patientPhotoLoaderMock, times(1)).getPhoto(code);
+		verify(patientBrowserManagerMock, never()).getPatientById(code);
+	}
+
+	/**
+	 * Test method for {@link org.isf.patient.rest.PatientController#getPatientPhoto(int, Integer, org.springframework.web.context.request.WebRequest)}.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void when_get_patient_photo_thumbnail_on_disk_then_photo_not_loaded() throws Exception {
+		int code = 123;
+		String request = "/patients/{code}/photo?size=64";
+		byte[] thumbnail = { (byte) 0xFF, (byte) 0xD8, 1 };
+
+		when(patientPhotoLoaderMock.getPhotoVersion(code)).thenReturn("1-5-7");
+		when(patientPhotoThumbnailsMock.getThumbnail(eq("123-1-5-7"), any(), eq(64))).thenReturn(thumbnail);
+
+		this.mockMvc
+						.perform(get(request, code))
+						.andDo(log())
+						.andExpect(status().isOk())
+						.andExpect(header().string(HttpHeaders.ETAG, "\"1-5-7-64\""))
+						.andExpect(content().bytes(thumbnail));
+
+		verify(patientPhotoLoaderMock, never()).getPhoto(code);
+	}
+
+	/**
+	 * Test method for {@link org.isf.patient.rest.PatientController#getPatientPhoto(int, Integer, org.springframework.web.context.request.WebRequest)}.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void when_get_patient_photo_of_patient_without_photo_then_NotFound() throws Exception {
+		int code = 123;
+		String request = "/patients/{code}/photo";
+		Patient patient = PatientHelper.setup();
+		patient.setCode(code);
+
+		when(patientPhotoLoaderMock.getPhotoVersion(code)).thenReturn(null);
+		when(patientBrowserManagerMock.getPatientById(code)).thenReturn(patient);
+
+		this.mockMvc
+						.perform(get(request, code))
+						.andDo(log())
+						.andExpect(status().isNotFound());
+	}
+
+	/**
+	 * Test method for {@link org.isf.patient.rest.PatientController#getPatientPhoto(int, Integer, org.springframework.web.context.request.WebRequest)}.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void when_get_patient_photo_of_non_existent_patient_then_NotFound() throws Exception {
+		int code = 123;
+		String request = "/patients/{code}/photo";
+
+		when(patientBrowserManagerMock.getPatientById(code)).thenReturn(null);
+
+		this.mockMvc
+						.perform(get(request, code))
+						.andDo(log())
+						.andExpect(status().isNotFound());
+	}
+
+	/**
+	 * Test method for {@link org.isf.patient.rest.PatientController#deletePatientPhoto(int)}.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void when_delete_patient_photo_then_patient_saved_without_photo() throws Exception {
+		int code = 123;
+		String request = "/patients/{code}/photo";
+		Patient patient = PatientHelper.setup();
+		patient.setCode(code);
+		patient.getPatientProfilePhoto().setPhoto(new byte[] { 1, 2, 3 });
+
+		when(patientBrowserManagerMock.getPatientById(code)).thenReturn(patient);
+		when(patientBrowserManagerMock.savePatient(any(Patient.class))).thenReturn(patient);
+
+		this.mockMvc
+						.perform(delete(request, code))
+						.andDo(log())
+						.andExpect(status().isOk())
+						.andExpect(content().string("true"));
+
+		assertThat(patient.getPatientProfilePhoto().getPhoto(), nullValue());
+	}
+
 }
@@ -0,0 +1,119 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.patient.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class PatientPhotoThumbnailsTest {
+
+	@TempDir
+	Path directory;
+
+	private PatientPhotoThumbnails thumbnails;
+
+	@AfterEach
+	void tearDown() {
+		if (thumbnails != null) {
+			thumbnails.shutdown();
+		}
+	}
+
+	private PatientPhotoThumbnails newThumbnails(String maxSize) {
+		PatientPhotoThumbnails newThumbnails = new PatientPhotoThumbnails();
+		ReflectionTestUtils.setField(newThumbnails, "env", new MockEnvironment()
+						.withProperty("patient.photo.thumbnail.dir", directory.toString())
+						.withProperty("patient.photo.thumbnail.max.size", maxSize)
+						.withProperty("patient.photo.thumbnail.ttl", "30"));
+		newThumbnails.init();
+		return newThumbnails;
+	}
+
+	private Path thumbnail(String name, int bytes, long daysAgo) throws Exception {
+		Path file = Files.write(directory.resolve(name), new byte[bytes]);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)));
+		return file;
+	}
+
+	@Test
+	public void testThumbnailOnDiskServedWithoutReadingThePhoto() throws Exception {
+		thumbnails = newThumbnails("100");
+		BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+		ByteArrayOutputStream photo = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", photo);
+		AtomicInteger reads = new AtomicInteger();
+		Supplier<byte[]> original = () -> {
+			reads.incrementAndGet();
+			return photo.toByteArray();
+		};
+
+		byte[] created = thumbnails.getThumbnail("123-1-5-7", original, 64);
+		byte[] served = thumbnails.getThumbnail("123-1-5-7", original, 64);
+
+		assertThat(reads.get(), is(1));
+		assertThat(served, is(created));
+		assertThat(Files.exists(directory.resolve("123-1-5-7-64.jpg")), is(true));
+	}
+
+	@Test
+	public void testEvictRemovesExpiredThumbnails() throws Exception {
+		thumbnails = newThumbnails("100");
+		Path expired = thumbnail("a-64.jpg", 10, 31);
+		Path recent = thumbnail("b-64.jpg", 10, 1);
+
+		thumbnails.evict();
+
+		assertThat(Files.exists(expired), is(false));
+		assertThat(Files.exists(recent), is(true));
+	}
+
+	@Test
+	public void testEvictRemovesLeastRecentlyUsedAboveMaxSize() throws Exception {
+		thumbnails = newThumbnails("1");
+		Path oldest = thumbnail("a-64.jpg", 600 * 1024, 3);
+		Path older = thumbnail("b-64.jpg", 300 * 1024, 2);
+		Path newest = thumbnail("c-64.jpg", 300 * 1024, 1);
+
+		thumbnails.evict();
+
+		assertThat(Files.exists(oldest), is(false));
+		assertThat(Files.exists(older), is(true));
+		assertThat(Files.exists(newest), is(true));
+	}
+}
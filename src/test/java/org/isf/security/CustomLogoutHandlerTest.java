@@ -0,0 +1,145 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.security;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.isf.login.service.SessionAuditRecorder;
+import org.isf.security.jwt.JWTFilter;
+import org.isf.security.jwt.TokenProvider;
+import org.isf.security.jwt.TokenRevocationList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class CustomLogoutHandlerTest {
+
+	@Mock
+	private SessionAuditRecorder sessionAuditRecorderMock;
+
+	private TokenProvider tokenProvider;
+
+	private TokenRevocationList tokenRevocationList;
+
+	private CustomLogoutHandler logoutHandler;
+
+	private Authentication authentication;
+
+	private AutoCloseable closeable;
+
+	@BeforeEach
+	public void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		tokenProvider = new TokenProvider();
+		ReflectionTestUtils.setField(tokenProvider, "env", new MockEnvironment().withProperty("jwt.token.secret",
+						"a-test-secret-long-enough-for-the-hs512-signature-of-the-tokens-0123456789"));
+		tokenProvider.init();
+		tokenRevocationList = new TokenRevocationList();
+		ReflectionTestUtils.setField(tokenRevocationList, "env", new MockEnvironment());
+		tokenRevocationList.init();
+		logoutHandler = new CustomLogoutHandler();
+		ReflectionTestUtils.setField(logoutHandler, "tokenProvider", tokenProvider);
+		ReflectionTestUtils.setField(logoutHandler, "tokenRevocationList", tokenRevocationList);
+		ReflectionTestUtils.setField(logoutHandler, "sessionAuditRecorder", sessionAuditRecorderMock);
+		authentication = new UsernamePasswordAuthenticationToken("admin", "", List.of(new SimpleGrantedAuthority("admin")));
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		tokenRevocationList.shutdown();
+		closeable.close();
+	}
+
+	@Test
+	public void testLogoutClosesTheSessionOfTheToken() {
+		LocalDateTime loginDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+		String token = tokenProvider.generateJwtToken(authentication, false, loginDate);
+
+		logoutHandler.logout(request(token), new MockHttpServletResponse(), null);
+
+		verify(sessionAuditRecorderMock).logout("admin", loginDate);
+		assertThat(tokenRevocationList.isRevoked(tokenProvider.verifyToken(token).getTokenId()), equalTo(true));
+	}
+
+	@Test
+	public void testLogoutTwice() {
+		LocalDateTime loginDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+		String token = tokenProvider.generateJwtToken(authentication, false, loginDate);
+
+		logoutHandler.logout(request(token), new MockHttpServletResponse(), null);
+		logoutHandler.logout(request(token), new MockHttpServletResponse(), null);
+
+		verify(sessionAuditRecorderMock, times(1)).logout("admin", loginDate);
+	}
+
+	@Test
+	public void testLogoutExpiredToken() {
+		LocalDateTime loginDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+		ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -60_000L);
+		String token = tokenProvider.generateJwtToken(authentication, false, loginDate);
+
+		logoutHandler.logout(request(token), new MockHttpServletResponse(), null);
+
+		verify(sessionAuditRecorderMock).logout("admin", loginDate);
+		assertThat(tokenRevocationList.getRevokedCount(), equalTo(0));
+	}
+
+	@Test
+	public void testLogoutTokenWithoutLoginDate() {
+		logoutHandler.logout(request(tokenProvider.generateJwtToken(authentication, false)), new MockHttpServletResponse(), null);
+
+		verify(sessionAuditRecorderMock, never()).logout(anyString(), any());
+		assertThat(tokenRevocationList.getRevokedCount(), equalTo(1));
+	}
+
+	@Test
+	public void testLogoutWithoutToken() {
+		logoutHandler.logout(new MockHttpServletRequest(), new MockHttpServletResponse(), null);
+
+		verify(sessionAuditRecorderMock, never()).logout(anyString(), any());
+	}
+
+	private static MockHttpServletRequest request(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/logout");
+		request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token);
+		return request;
+	}
+}
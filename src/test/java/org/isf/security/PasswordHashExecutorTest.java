@@ -0,0 +1,164 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.security;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashExecutorTest {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private PasswordHashExecutor passwordHashExecutor;
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		if (passwordHashExecutor != null) {
+			passwordHashExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * An encoder whose checks block until {@link #release} is counted down.
+	 */
+	private PasswordEncoder blockingEncoder() {
+		return new PasswordEncoder() {
+
+			@Override
+			public String encode(CharSequence rawPassword) {
+				return rawPassword.toString();
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return rawPassword.toString().equals(encodedPassword);
+			}
+		};
+	}
+
+	private PasswordHashExecutor newPasswordHashExecutor(String timeout) {
+		PasswordHashExecutor executor = new PasswordHashExecutor(blockingEncoder());
+		ReflectionTestUtils.setField(executor, "env", new MockEnvironment()
+						.withProperty("security.bcrypt.threads", "1")
+						.withProperty("security.bcrypt.queue.size", "1")
+						.withProperty("security.bcrypt.timeout", timeout)
+						.withProperty("security.bcrypt.retry.after", "7"));
+		executor.init();
+		return executor;
+	}
+
+	@Test
+	public void testMatches() {
+		passwordHashExecutor = newPasswordHashExecutor("10");
+		release.countDown();
+
+		assertThat(passwordHashExecutor.matches("secret", "secret"), is(true));
+		assertThat(passwordHashExecutor.asPasswordEncoder().matches("secret", "other"), is(false));
+		assertThat(passwordHashExecutor.getHashCount(), is(2L));
+	}
+
+	@Test
+	public void testChecksTimedWithHistograms() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		Metrics.addRegistry(registry);
+		try {
+			passwordHashExecutor = newPasswordHashExecutor("10");
+			release.countDown();
+
+			passwordHashExecutor.matches("secret", "secret");
+
+			for (String name : new String[] { "oh.password.checks", "oh.password.checks.wait" }) {
+				Timer timer = registry.get(name).timer();
+				assertThat(name, timer.count(), is(1L));
+				assertThat(name, timer.takeSnapshot().histogramCounts().length, greaterThan(0));
+			}
+		} finally {
+			Metrics.removeRegistry(registry);
+		}
+	}
+
+	@Test
+	public void testSaturatedPoolRejectsAtOnce() throws Exception {
+		passwordHashExecutor = newPasswordHashExecutor("10");
+		CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordHashExecutor.matches("secret", "secret"));
+		assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+		CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordHashExecutor.matches("secret", "secret"));
+		while (passwordHashExecutor.getQueuedCount() == 0) {
+			Thread.sleep(1);
+		}
+
+		PasswordHashRejectedException rejected = assertThrows(PasswordHashRejectedException.class,
+						() -> passwordHashExecutor.matches("secret", "secret"));
+
+		assertThat(rejected.getRetryAfterSeconds(), is(7));
+		assertThat(passwordHashExecutor.getRejectedCount(), is(1L));
+		release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS), is(true));
+		assertThat(queued.get(5, TimeUnit.SECONDS), is(true));
+	}
+
+	@Test
+	public void testCheckNotCompletedInTimeIsRejected() {
+		passwordHashExecutor = newPasswordHashExecutor("1");
+
+		assertThrows(PasswordHashRejectedException.class, () -> passwordHashExecutor.matches("secret", "secret"));
+
+		assertThat(passwordHashExecutor.getRejectedCount(), is(1L));
+	}
+
+	@Test
+	public void testRejectedBasicLoginIsServiceUnavailable() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		new RestAuthenticationEntryPoint().commence(new MockHttpServletRequest(), response, new PasswordHashRejectedException(7));
+
+		assertThat(response.getStatus(), is(503));
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), is("7"));
+	}
+}
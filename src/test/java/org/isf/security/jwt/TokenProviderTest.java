@@ -0,0 +1,109 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.security.jwt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TokenProviderTest {
+
+	private static final String SECRET = "a-test-secret-long-enough-for-the-hs512-signature-of-the-tokens-0123456789";
+
+	private TokenProvider tokenProvider;
+
+	private Authentication authentication;
+
+	@BeforeEach
+	public void setup() {
+		tokenProvider = new TokenProvider();
+		ReflectionTestUtils.setField(tokenProvider, "env", new MockEnvironment().withProperty("jwt.token.secret", SECRET));
+		tokenProvider.init();
+		authentication = new UsernamePasswordAuthenticationToken("admin", "", List.of(new SimpleGrantedAuthority("admin")));
+	}
+
+	@Test
+	public void testLoginDateClaim() {
+		LocalDateTime loginDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+		TokenPrincipal principal = tokenProvider.verifyToken(tokenProvider.generateJwtToken(authentication, false, loginDate));
+
+		assertThat(principal.getUsername(), equalTo("admin"));
+		assertThat(principal.getLoginDate(), equalTo(loginDate));
+		assertThat(principal.getTokenId(), notNullValue());
+	}
+
+	@Test
+	public void testTokenIdUniquePerToken() {
+		LocalDateTime loginDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+		TokenPrincipal first = tokenProvider.verifyToken(tokenProvider.generateJwtToken(authentication, false, loginDate));
+		TokenPrincipal second = tokenProvider.verifyToken(tokenProvider.generateJwtToken(authentication, false, loginDate));
+
+		assertThat(first.getTokenId(), not(equalTo(second.getTokenId())));
+	}
+
+	@Test
+	public void testWithoutLoginDateClaim() {
+		TokenPrincipal principal = tokenProvider.verifyToken(tokenProvider.generateJwtToken(authentication, false));
+
+		assertThat(principal.getLoginDate(), nullValue());
+	}
+
+	@Test
+	public void testVerifyExpiredToken() {
+		LocalDateTime loginDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+		ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -60_000L);
+		String token = tokenProvider.generateJwtToken(authentication, false, loginDate);
+
+		assertThat(tokenProvider.verifyToken(token), nullValue());
+
+		TokenPrincipal principal = tokenProvider.verifyTokenIgnoringExpiration(token);
+		assertThat(principal.isExpired(), equalTo(true));
+		assertThat(principal.getUsername(), equalTo("admin"));
+		assertThat(principal.getLoginDate(), equalTo(loginDate));
+	}
+
+	@Test
+	public void testVerifyTamperedToken() {
+		ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -60_000L);
+		String token = tokenProvider.generateJwtToken(authentication, false, LocalDateTime.now());
+		String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+		assertThat(tokenProvider.verifyToken(tampered), nullValue());
+		assertThat(tokenProvider.verifyTokenIgnoringExpiration(tampered), nullValue());
+	}
+}
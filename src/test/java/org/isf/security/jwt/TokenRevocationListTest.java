@@ -0,0 +1,132 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.security.jwt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TokenRevocationListTest {
+
+	private static final long NOW = 1_700_000_000_000L;
+
+	@TempDir
+	Path tempDir;
+
+	private TokenRevocationList tokenRevocationList;
+
+	private static TokenRevocationList newTokenRevocationList(MockEnvironment env) {
+		TokenRevocationList list = new TokenRevocationList();
+		ReflectionTestUtils.setField(list, "env", env);
+		setTime(list, NOW);
+		list.init();
+		return list;
+	}
+
+	private static void setTime(TokenRevocationList list, long millis) {
+		ReflectionTestUtils.setField(list, "clock", Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+	}
+
+	@AfterEach
+	void closeService() {
+		tokenRevocationList.shutdown();
+	}
+
+	@Test
+	public void testRevoke() {
+		tokenRevocationList = newTokenRevocationList(new MockEnvironment().withProperty("jwt.revocation.expected", "10"));
+		long expiresAt = NOW + 60_000L;
+
+		for (int i = 0; i < 100; i++) {
+			tokenRevocationList.revoke("revoked-" + i, expiresAt);
+		}
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(tokenRevocationList.isRevoked("revoked-" + i), equalTo(true));
+			assertThat(tokenRevocationList.isRevoked("valid-" + i), equalTo(false));
+		}
+		assertThat(tokenRevocationList.isRevoked(null), equalTo(false));
+		assertThat(tokenRevocationList.getRevokedCount(), equalTo(100));
+	}
+
+	@Test
+	public void testRevokeExpired() {
+		tokenRevocationList = newTokenRevocationList(new MockEnvironment());
+
+		tokenRevocationList.revoke("expired", NOW);
+
+		assertThat(tokenRevocationList.isRevoked("expired"), equalTo(false));
+		assertThat(tokenRevocationList.getRevokedCount(), equalTo(0));
+	}
+
+	@Test
+	public void testEvictExpired() {
+		tokenRevocationList = newTokenRevocationList(new MockEnvironment());
+		tokenRevocationList.revoke("expiring", NOW + 50L);
+		tokenRevocationList.revoke("revoked", NOW + 60_000L);
+		assertThat(tokenRevocationList.isRevoked("expiring"), equalTo(true));
+
+		setTime(tokenRevocationList, NOW + 50L);
+		tokenRevocationList.evictExpired();
+
+		assertThat(tokenRevocationList.isRevoked("expiring"), equalTo(false));
+		assertThat(tokenRevocationList.isRevoked("revoked"), equalTo(true));
+		assertThat(tokenRevocationList.getRevokedCount(), equalTo(1));
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		Path file = tempDir.resolve("revoked-tokens");
+		MockEnvironment env = new MockEnvironment().withProperty("jwt.revocation.file", file.toString());
+		tokenRevocationList = newTokenRevocationList(env);
+		tokenRevocationList.revoke("expiring", NOW + 50L);
+		tokenRevocationList.revoke("revoked", NOW + 60_000L);
+		tokenRevocationList.shutdown();
+
+		TokenRevocationList restarted = new TokenRevocationList();
+		ReflectionTestUtils.setField(restarted, "env", env);
+		setTime(restarted, NOW + 100L);
+		restarted.init();
+		tokenRevocationList = restarted;
+
+		assertThat(tokenRevocationList.isRevoked("revoked"), equalTo(true));
+		assertThat(tokenRevocationList.isRevoked("expiring"), equalTo(false));
+
+		tokenRevocationList.evictExpired();
+		assertThat(Files.readAllLines(file).size(), equalTo(2));
+		tokenRevocationList.revoke("other", NOW + 150L);
+		setTime(tokenRevocationList, NOW + 200L);
+		tokenRevocationList.evictExpired();
+		assertThat(Files.readAllLines(file).size(), equalTo(1));
+	}
+}
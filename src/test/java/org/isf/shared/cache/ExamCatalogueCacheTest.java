@@ -0,0 +1,122 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.isf.exa.manager.ExamBrowsingManager;
+import org.isf.exa.model.Exam;
+import org.isf.exatype.manager.ExamTypeBrowserManager;
+import org.isf.exatype.model.ExamType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ExamCatalogueCacheTest {
+
+	@Mock
+	private ExamBrowsingManager examManagerMock;
+
+	@Mock
+	private ExamTypeBrowserManager examTypeManagerMock;
+
+	private ExamCatalogueCache examCatalogueCache;
+
+	private AutoCloseable closeable;
+
+	@BeforeEach
+	void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		examCatalogueCache = new ExamCatalogueCache(examManagerMock, examTypeManagerMock);
+		ReflectionTestUtils.setField(examCatalogueCache, "env", new MockEnvironment());
+		examCatalogueCache.init();
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		closeable.close();
+	}
+
+	private static ExamType examType(String code, String description) {
+		ExamType examType = mock(ExamType.class);
+		when(examType.getCode()).thenReturn(code);
+		when(examType.getDescription()).thenReturn(description);
+		return examType;
+	}
+
+	private static Exam exam(String code, ExamType examType) {
+		Exam exam = mock(Exam.class);
+		when(exam.getCode()).thenReturn(code);
+		when(exam.getExamtype()).thenReturn(examType);
+		return exam;
+	}
+
+	@Test
+	public void testExamsByTypeDescriptionKeepTheDatabaseOrder() throws Exception {
+		// the lists are in the order of the database, which the cache must not change
+		ExamType haematology = examType("H", "Haematology");
+		ExamType urine = examType("U", "Urine");
+		ExamType biochemistry = examType("B", "Blood chemistry");
+		Exam elan = exam("02", haematology);
+		Exam zinc = exam("01", haematology);
+		Exam sugar = exam("03", urine);
+		Exam glucose = exam("04", biochemistry);
+		when(examTypeManagerMock.getExamType()).thenReturn(List.of(haematology, urine, biochemistry));
+		when(examManagerMock.getExams()).thenReturn(List.of(elan, glucose, sugar, zinc));
+
+		assertThat(examCatalogueCache.getExamsByTypeDescription("H"), is(List.of(elan, zinc, glucose)));
+		assertThat(examCatalogueCache.getExamsByTypeDescription("urine"), is(List.of(sugar)));
+		assertThat(examCatalogueCache.getExamsByTypeDescription("x"), is(List.of()));
+	}
+
+	@Test
+	public void testCataloguesReloadedAfterInvalidation() throws Exception {
+		ExamType haematology = examType("H", "Haematology");
+		Exam exam = exam("01", haematology);
+		when(examTypeManagerMock.getExamType()).thenReturn(List.of(haematology));
+		when(examManagerMock.getExams()).thenReturn(List.of(exam));
+
+		assertThat(examCatalogueCache.getExam("01"), sameInstance(exam));
+		assertThat(examCatalogueCache.getExamType("H"), sameInstance(haematology));
+		examCatalogueCache.getExam("01");
+		verify(examManagerMock, times(1)).getExams();
+
+		examCatalogueCache.invalidate();
+
+		examCatalogueCache.getExam("01");
+		examCatalogueCache.getExamType("H");
+		verify(examManagerMock, times(2)).getExams();
+		verify(examTypeManagerMock, times(2)).getExamType();
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.isf.menu.manager.UserBrowsingManager;
+import org.isf.menu.model.User;
+import org.isf.permissions.manager.PermissionManager;
+import org.isf.permissions.model.Permission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class UserAuthorityCacheTest {
+
+	@Mock
+	private UserBrowsingManager userManagerMock;
+
+	@Mock
+	private PermissionManager permissionManagerMock;
+
+	private UserAuthorityCache userAuthorityCache;
+
+	private AutoCloseable closeable;
+
+	@BeforeEach
+	void setup() {
+		closeable = MockitoAnnotations.openMocks(this);
+		userAuthorityCache = new UserAuthorityCache(userManagerMock, permissionManagerMock);
+		ReflectionTestUtils.setField(userAuthorityCache, "env", new MockEnvironment());
+		userAuthorityCache.init();
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		closeable.close();
+	}
+
+	@Test
+	public void testUserCachedUntilInvalidated() throws Exception {
+		User user = mock(User.class);
+		when(userManagerMock.getUserByName("admin")).thenReturn(user);
+
+		assertThat(userAuthorityCache.getUser("admin"), sameInstance(user));
+		assertThat(userAuthorityCache.getUser("admin"), sameInstance(user));
+		verify(userManagerMock, times(1)).getUserByName("admin");
+
+		userAuthorityCache.invalidateUser("admin");
+
+		assertThat(userAuthorityCache.getUser("admin"), sameInstance(user));
+		verify(userManagerMock, times(2)).getUserByName("admin");
+	}
+
+	@Test
+	public void testPermissionsCachedUntilInvalidateAll() throws Exception {
+		Permission permission = mock(Permission.class);
+		when(permissionManagerMock.retrievePermissionsByUsername("admin")).thenReturn(List.of(permission));
+
+		assertThat(userAuthorityCache.getPermissions("admin"), is(List.of(permission)));
+		userAuthorityCache.getPermissions("admin");
+		verify(permissionManagerMock, times(1)).retrievePermissionsByUsername("admin");
+
+		userAuthorityCache.invalidateAll();
+
+		userAuthorityCache.getPermissions("admin");
+		verify(permissionManagerMock, times(2)).retrievePermissionsByUsername("admin");
+	}
+
+	@Test
+	public void testUnknownUserNotCached() throws Exception {
+		assertThat(userAuthorityCache.getUser("nobody"), is((User) null));
+		userAuthorityCache.getUser("nobody");
+
+		verify(userManagerMock, times(2)).getUserByName("nobody");
+	}
+
+	@Test
+	public void testLoadRacingWithInvalidationNotStored() throws Exception {
+		User before = mock(User.class);
+		User after = mock(User.class);
+		when(userManagerMock.getUserByName("admin")).thenAnswer(invocation -> {
+			// the account is changed while its previous state is being read
+			userAuthorityCache.invalidateUser("admin");
+			return before;
+		}).thenReturn(after);
+
+		assertThat(userAuthorityCache.getUser("admin"), sameInstance(before));
+		assertThat(userAuthorityCache.getUser("admin"), sameInstance(after));
+		assertThat(userAuthorityCache.getUser("admin"), sameInstance(after));
+		verify(userManagerMock, times(2)).getUserByName("admin");
+	}
+}
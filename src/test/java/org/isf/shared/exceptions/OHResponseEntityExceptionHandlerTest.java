@@ -0,0 +1,44 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.exceptions;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.isf.security.PasswordHashRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class OHResponseEntityExceptionHandlerTest {
+
+	@Test
+	public void testPasswordHashRejectedIsServiceUnavailableWithRetryAfter() {
+		ResponseEntity<Object> response = new OHResponseEntityExceptionHandler()
+						.handlePasswordHashRejectedException(new PasswordHashRejectedException(5));
+
+		assertThat(response.getStatusCode(), is(HttpStatus.SERVICE_UNAVAILABLE));
+		assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), is("5"));
+		assertThat(((OHAPIError) response.getBody()).getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE));
+	}
+}
@@ -0,0 +1,294 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.mapper;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.isf.accounting.data.BillHelper;
+import org.isf.accounting.dto.BillDTO;
+import org.isf.accounting.model.Bill;
+import org.isf.admission.data.AdmissionHelper;
+import org.isf.admission.dto.AdmissionDTO;
+import org.isf.admission.model.Admission;
+import org.isf.opd.data.OpdHelper;
+import org.isf.opd.dto.OpdDTO;
+import org.isf.opd.model.Opd;
+import org.isf.patient.data.PatientHelper;
+import org.isf.patient.dto.PatientDTO;
+import org.isf.patient.model.Patient;
+import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
+import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
+import org.isf.shared.mapper.mappings.PatientMapping;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.module.jsr310.Jsr310Module;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Every mapping must give the same result as ModelMapper, whether it is compiled or delegated.
+ */
+public class CompiledTypeMapTest {
+
+	private ModelMapper modelMapper;
+
+	@BeforeEach
+	void setUp() {
+		modelMapper = new ModelMapper();
+		modelMapper.addConverter(new BlobToByteArrayConverter());
+		modelMapper.addConverter(new ByteArrayToBlobConverter());
+		modelMapper.registerModule(new Jsr310Module());
+		PatientMapping.addMapping(modelMapper);
+	}
+
+	private <S, D> void assertSameAsModelMapper(S source, Class<S> sourceType, Class<D> destinationType) {
+		CompiledTypeMap<S, D> compiled = CompiledTypeMap.compile(modelMapper, sourceType, destinationType);
+		ObjectMapper objectMapper = AdmissionHelper.getObjectMapper();
+		assertThat(objectMapper.valueToTree(compiled.map(source)), equalTo(objectMapper.valueToTree(modelMapper.map(source, destinationType))));
+	}
+
+	@Test
+	public void testAdmission() throws Exception {
+		assertSameAsModelMapper(AdmissionHelper.setup(), Admission.class, AdmissionDTO.class);
+	}
+
+	@Test
+	public void testPatient() throws Exception {
+		assertSameAsModelMapper(PatientHelper.setup(), Patient.class, PatientDTO.class);
+	}
+
+	@Test
+	public void testBill() throws Exception {
+		assertSameAsModelMapper(BillHelper.setup(1), Bill.class, BillDTO.class);
+	}
+
+	@Test
+	public void testOpd() throws Exception {
+		assertSameAsModelMapper(OpdHelper.setup(), Opd.class, OpdDTO.class);
+	}
+
+	@Test
+	public void testNestedObjectAndEnum() {
+		Person person = new Person();
+		person.setName("Mario");
+		person.setAge(42);
+		person.setSex("F");
+		person.setTags(List.of("a", "b"));
+		Address address = new Address();
+		address.setCity("Rome");
+		address.setZip("00100");
+		person.setAddress(address);
+
+		CompiledTypeMap<Person, PersonDTO> compiled = CompiledTypeMap.compile(modelMapper, Person.class, PersonDTO.class);
+		PersonDTO dto = compiled.map(person);
+
+		assertThat(compiled.isCompiled(), is(true));
+		assertThat(dto.getSex(), is(Sex.F));
+		assertThat(dto.getAddress().getCity(), is("Rome"));
+		assertThat(dto.getTags(), equalTo(person.getTags()));
+		assertThat(dto.getTags(), not(sameInstance(person.getTags())));
+		assertSameAsModelMapper(person, Person.class, PersonDTO.class);
+	}
+
+	@Test
+	public void testNullValues() {
+		Person person = new Person();
+
+		CompiledTypeMap<Person, PersonDTO> compiled = CompiledTypeMap.compile(modelMapper, Person.class, PersonDTO.class);
+		PersonDTO dto = compiled.map(person);
+
+		assertThat(dto.getAge(), is(0));
+		assertThat(dto.getSex(), nullValue());
+		assertThat(dto.getAddress(), nullValue());
+		assertSameAsModelMapper(person, Person.class, PersonDTO.class);
+	}
+
+	@Test
+	public void testConvertedPairDelegatesToModelMapper() {
+		modelMapper.typeMap(Person.class, PersonDTO.class).setPostConverter(context -> {
+			context.getDestination().setName(context.getSource().getName().toUpperCase());
+			return context.getDestination();
+		});
+		Person person = new Person();
+		person.setName("Mario");
+
+		CompiledTypeMap<Person, PersonDTO> compiled = CompiledTypeMap.compile(modelMapper, Person.class, PersonDTO.class);
+
+		assertThat(compiled.isCompiled(), is(false));
+		assertThat(compiled.map(person).getName(), is("MARIO"));
+		assertSameAsModelMapper(person, Person.class, PersonDTO.class);
+	}
+
+	public enum Sex {
+		F, M
+	}
+
+	public static class Address {
+
+		private String city;
+		private String zip;
+
+		public String getCity() {
+			return city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+
+		public String getZip() {
+			return zip;
+		}
+
+		public void setZip(String zip) {
+			this.zip = zip;
+		}
+	}
+
+	public static class AddressDTO {
+
+		private String city;
+		private String zip;
+
+		public String getCity() {
+			return city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+
+		public String getZip() {
+			return zip;
+		}
+
+		public void setZip(String zip) {
+			this.zip = zip;
+		}
+	}
+
+	public static class Person {
+
+		private String name;
+		private Integer age;
+		private String sex;
+		private List<String> tags;
+		private Address address;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Integer getAge() {
+			return age;
+		}
+
+		public void setAge(Integer age) {
+			this.age = age;
+		}
+
+		public String getSex() {
+			return sex;
+		}
+
+		public void setSex(String sex) {
+			this.sex = sex;
+		}
+
+		public List<String> getTags() {
+			return tags;
+		}
+
+		public void setTags(List<String> tags) {
+			this.tags = tags;
+		}
+
+		public Address getAddress() {
+			return address;
+		}
+
+		public void setAddress(Address address) {
+			this.address = address;
+		}
+	}
+
+	public static class PersonDTO {
+
+		private String name;
+		private int age;
+		private Sex sex;
+		private List<String> tags;
+		private AddressDTO address;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public Sex getSex() {
+			return sex;
+		}
+
+		public void setSex(Sex sex) {
+			this.sex = sex;
+		}
+
+		public List<String> getTags() {
+			return tags;
+		}
+
+		public void setTags(List<String> tags) {
+			this.tags = tags;
+		}
+
+		public AddressDTO getAddress() {
+			return address;
+		}
+
+		public void setAddress(AddressDTO address) {
+			this.address = address;
+		}
+	}
+}
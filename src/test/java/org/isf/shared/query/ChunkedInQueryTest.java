@@ -0,0 +1,77 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.query;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ChunkedInQueryTest {
+
+	@Test
+	public void testChunks() {
+		List<Integer> codes = IntStream.range(0, 1201).boxed().collect(Collectors.toList());
+		List<List<Integer>> chunks = new ArrayList<>();
+
+		List<Integer> results = ChunkedInQuery.getResultList(codes, chunk -> {
+			chunks.add(new ArrayList<>(chunk));
+			return chunk;
+		});
+
+		assertThat(chunks.size(), equalTo(3));
+		assertThat(chunks.get(0).size(), equalTo(ChunkedInQuery.MAX_CODES_PER_QUERY));
+		assertThat(chunks.get(1).size(), equalTo(ChunkedInQuery.MAX_CODES_PER_QUERY));
+		assertThat(chunks.get(2).size(), equalTo(201));
+		assertThat(results, equalTo(codes));
+	}
+
+	@Test
+	public void testDuplicatesQueriedOnce() {
+		List<List<Integer>> chunks = new ArrayList<>();
+
+		ChunkedInQuery.getResultList(Arrays.asList(3, 1, 3, 2, 1), 2, chunk -> {
+			chunks.add(new ArrayList<>(chunk));
+			return Collections.emptyList();
+		});
+
+		assertThat(chunks, contains(Arrays.asList(3, 1), Collections.singletonList(2)));
+	}
+
+	@Test
+	public void testNoCodes() {
+		List<Integer> results = ChunkedInQuery.getResultList(Collections.<Integer> emptyList(), chunk -> {
+			throw new AssertionError("no query expected");
+		});
+
+		assertThat(results, empty());
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.shared.streaming;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams through a real Jetty, whose default async timeout is 30 seconds, with the MVC stack of Spring Boot and the
+ * async timeout of {@code rsc/application.properties.dist}.
+ */
+public class JsonListStreamerTest {
+
+	private static final String ASYNC_TIMEOUT = "spring.mvc.async.request-timeout";
+
+	/* past the 30 seconds of Jetty at one item per second */
+	private static final int SLOW_ITEMS = 32;
+
+	@Test
+	public void testStreamSlowerThanTheContainerDefaultCompletes() throws Exception {
+		String timeout = distProperty(ASYNC_TIMEOUT);
+		assertThat(ASYNC_TIMEOUT + " in application.properties.dist", timeout, notNullValue());
+
+		try (ConfigurableApplicationContext context = run(ASYNC_TIMEOUT + '=' + timeout)) {
+			HttpResponse<String> response = get(context, "/items?count=" + SLOW_ITEMS + "&delay=1000");
+
+			assertThat(response.statusCode(), equalTo(200));
+			assertThat(new ObjectMapper().readValue(response.body(), List.class).size(), equalTo(SLOW_ITEMS));
+		}
+	}
+
+	@Test
+	public void testStreamCutOffAtTheTimeout() throws Exception {
+		try (ConfigurableApplicationContext context = run(ASYNC_TIMEOUT + "=1s")) {
+			HttpResponse<String> response = get(context, "/items?count=3&delay=1000");
+
+			assertThat(response.statusCode(), equalTo(503));
+		}
+	}
+
+	private static String distProperty(String key) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(Paths.get("rsc", "application.properties.dist"))) {
+			properties.load(reader);
+		}
+		return properties.getProperty(key);
+	}
+
+	private static ConfigurableApplicationContext run(String asyncTimeout) {
+		return new SpringApplicationBuilder(Config.class).properties("server.address=localhost", "server.port=0", asyncTimeout).run();
+	}
+
+	private static HttpResponse<String> get(ConfigurableApplicationContext context, String path) throws Exception {
+		int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+		return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@RestController
+	public static class ItemController {
+
+		private final JsonListStreamer jsonListStreamer;
+
+		public ItemController(JsonListStreamer jsonListStreamer) {
+			this.jsonListStreamer = jsonListStreamer;
+		}
+
+		/* every item takes delay milliseconds to map */
+		@GetMapping("/items")
+		public ResponseEntity<StreamingResponseBody> getItems(@RequestParam int count, @RequestParam long delay) {
+			return jsonListStreamer.stream(Collections.nCopies(count, "item"), item -> {
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return Map.of("name", item);
+			}, null);
+		}
+	}
+
+	@Configuration
+	@ImportAutoConfiguration({ ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+					WebMvcAutoConfiguration.class, JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class })
+	static class Config {
+
+		@Bean
+		public JsonListStreamer jsonListStreamer(ObjectMapper objectMapper) {
+			return new JsonListStreamer(objectMapper);
+		}
+
+		@Bean
+		public ItemController itemController(JsonListStreamer jsonListStreamer) {
+			return new ItemController(jsonListStreamer);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stats.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.isf.shared.exceptions.OHAPIException;
+import org.isf.stat.dto.JasperReportResultDto;
+import org.isf.stat.manager.JasperReportsManager;
+import org.isf.stats.dto.ReportJobStatus;
+import org.isf.stats.service.ReportGenerator.Job;
+import org.isf.stats.service.ReportGenerator.Report;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ReportGeneratorTest {
+
+	@TempDir
+	Path directory;
+
+	@Mock
+	private JasperReportsManager reportsManagerMock;
+
+	private ReportGenerator reportGenerator;
+
+	private AutoCloseable closeable;
+
+	/* counted down to let the mocked reports complete */
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	@BeforeEach
+	void setup() throws Exception {
+		closeable = MockitoAnnotations.openMocks(this);
+		Path output = Files.write(directory.resolve("examsList.pdf"), new byte[] { 1, 2, 3 });
+		JasperReportResultDto result = mock(JasperReportResultDto.class);
+		when(result.getFilename()).thenReturn(output.toString());
+		when(reportsManagerMock.getExamsListPdf()).thenAnswer(invocation -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				release.await(5, TimeUnit.SECONDS);
+				return result;
+			} finally {
+				running.decrementAndGet();
+			}
+		});
+		when(reportsManagerMock.getDiseasesListPdf()).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return result;
+		});
+	}
+
+	@AfterEach
+	void closeService() throws Exception {
+		release.countDown();
+		if (reportGenerator != null) {
+			reportGenerator.shutdown();
+		}
+		closeable.close();
+	}
+
+	private ReportGenerator newReportGenerator(String threads, String queueSize) {
+		ReportGenerator generator = new ReportGenerator(reportsManagerMock);
+		ReflectionTestUtils.setField(generator, "env", new MockEnvironment()
+						.withProperty("reports.dir", directory.resolve("reports").toString())
+						.withProperty("reports.threads", threads)
+						.withProperty("reports.queue.size", queueSize)
+						.withProperty("reports.cache.ttl", "60"));
+		generator.init();
+		return generator;
+	}
+
+	private static void awaitFinished(Job job) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (job.getStatus() != ReportJobStatus.DONE && job.getStatus() != ReportJobStatus.FAILED && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(job.getStatus(), is(ReportJobStatus.DONE));
+	}
+
+	@Test
+	public void testRunningJobIsShared() throws Exception {
+		reportGenerator = newReportGenerator("2", "8");
+
+		Job job = reportGenerator.submit(Report.EXAMS_LIST);
+
+		assertThat(reportGenerator.submit(Report.EXAMS_LIST), sameInstance(job));
+		release.countDown();
+		awaitFinished(job);
+		assertThat(reportGenerator.submit(Report.EXAMS_LIST), sameInstance(job));
+		verify(reportsManagerMock, times(1)).getExamsListPdf();
+	}
+
+	@Test
+	public void testInvalidatedReportGeneratedAgainAfterTheRunningJob() throws Exception {
+		reportGenerator = newReportGenerator("2", "8");
+		Job first = reportGenerator.submit(Report.EXAMS_LIST);
+
+		reportGenerator.invalidate(Report.EXAMS_LIST);
+		Job second = reportGenerator.submit(Report.EXAMS_LIST);
+
+		assertThat(second, not(sameInstance(first)));
+		release.countDown();
+		awaitFinished(first);
+		awaitFinished(second);
+		assertThat(maxRunning.get(), is(1));
+		assertThat(Files.exists(first.getFile()), is(true));
+		assertThat(Files.exists(second.getFile()), is(true));
+	}
+
+	@Test
+	public void testFullQueueIsServiceUnavailable() throws Exception {
+		reportGenerator = newReportGenerator("1", "1");
+		reportGenerator.submit(Report.EXAMS_LIST);
+		reportGenerator.submit(Report.DISEASES_LIST);
+		reportGenerator.invalidate(Report.EXAMS_LIST);
+
+		OHAPIException exception = assertThrows(OHAPIException.class, () -> reportGenerator.submit(Report.EXAMS_LIST));
+
+		assertThat(exception.getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE));
+	}
+
+	@Test
+	public void testFinishedJobReusedUntilExpired() throws Exception {
+		reportGenerator = newReportGenerator("2", "8");
+		release.countDown();
+		Job job = reportGenerator.submit(Report.EXAMS_LIST);
+		awaitFinished(job);
+
+		assertThat(reportGenerator.submit(Report.EXAMS_LIST), sameInstance(job));
+
+		ReflectionTestUtils.setField(job, "finishedMillis", System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(61));
+		Job next = reportGenerator.submit(Report.EXAMS_LIST);
+
+		assertThat(next, not(sameInstance(job)));
+		awaitFinished(next);
+		verify(reportsManagerMock, times(2)).getExamsListPdf();
+	}
+
+	@Test
+	public void testFilesOfPreviousRunDeletedAtStartup() throws Exception {
+		Path reports = Files.createDirectories(directory.resolve("reports"));
+		Path leftover = Files.write(reports.resolve(UUID.randomUUID() + "-examsList.pdf"), new byte[] { 1 });
+		Path other = Files.write(reports.resolve("readme.txt"), new byte[] { 1 });
+
+		reportGenerator = newReportGenerator("2", "8");
+
+		assertThat(Files.exists(leftover), is(false));
+		assertThat(Files.exists(other), is(true));
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.testing.rest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.isf.metrics.service.QueryCounter;
+import org.isf.metrics.service.RequestMetricsFilter;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Assertions on the number of SQL statements, to catch N+1 query patterns in tests.
+ * <p>
+ * With {@code MockMvc}, add a {@link RequestMetricsFilter} to the setup ({@code .addFilters(filter)}) and check the
+ * {@value RequestMetricsFilter#QUERY_COUNT_HEADER} header with {@link #maxQueryCount(int)}; around direct calls use
+ * {@link #assertMaxQueries(int, Executable)}. Statements are only counted when Hibernate is configured with the
+ * {@code QueryCountInspector}.
+ */
+public final class QueryCountAssertions {
+
+	private QueryCountAssertions() {
+	}
+
+	/**
+	 * @param max the maximum number of SQL statements of the request
+	 * @return a {@link ResultMatcher} failing if the {@value RequestMetricsFilter#QUERY_COUNT_HEADER} header is
+	 *         missing or above {@code max}
+	 */
+	public static ResultMatcher maxQueryCount(int max) {
+		return result -> {
+			String header = result.getResponse().getHeader(RequestMetricsFilter.QUERY_COUNT_HEADER);
+			assertThat("Response header " + RequestMetricsFilter.QUERY_COUNT_HEADER, header, notNullValue());
+			assertThat("SQL statements of the request", Integer.parseInt(header), lessThanOrEqualTo(max));
+		};
+	}
+
+	/**
+	 * Run {@code call} counting its SQL statements.
+	 *
+	 * @param max the maximum number of SQL statements
+	 * @param call the code to run
+	 * @return the number of SQL statements run by {@code call}
+	 * @throws Throwable thrown by {@code call}
+	 */
+	public static int assertMaxQueries(int max, Executable call) throws Throwable {
+		QueryCounter.start();
+		int queries;
+		try {
+			call.execute();
+		} finally {
+			queries = QueryCounter.stop();
+		}
+		assertThat("SQL statements", queries, lessThanOrEqualTo(max));
+		return queries;
+	}
+}
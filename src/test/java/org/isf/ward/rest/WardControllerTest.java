@@ -29,18 +29,23 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.Collections;
 import java.util.List;
 
+import org.isf.shared.cache.ReferenceDataCache;
 import org.isf.shared.exceptions.OHResponseEntityExceptionHandler;
 import org.isf.shared.mapper.converter.BlobToByteArrayConverter;
 import org.isf.shared.mapper.converter.ByteArrayToBlobConverter;
 import org.isf.ward.data.WardHelper;
+import org.isf.ward.dto.WardCensusDTO;
 import org.isf.ward.dto.WardDTO;
 import org.isf.ward.manager.WardBrowserManager;
 import org.isf.ward.mapper.WardMapper;
 import org.isf.ward.model.Ward;
+import org.isf.ward.service.WardCensusLoader;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -61,6 +66,12 @@ public class WardControllerTest {
 	@Mock
 	protected WardBrowserManager wardBrowserManagerMock;
 
+	@Mock
+	protected ReferenceDataCache referenceDataCacheMock;
+
+	@Mock
+	protected WardCensusLoader wardCensusLoaderMock;
+
 	protected WardMapper wardMapper = new WardMapper();
 
 	private MockMvc mockMvc;
@@ -71,7 +82,7 @@ public class WardControllerTest {
 	public void setup() {
 		closeable = MockitoAnnotations.openMocks(this);
 		this.mockMvc = MockMvcBuilders
-				.standaloneSetup(new WardController(wardBrowserManagerMock, wardMapper))
+				.standaloneSetup(new WardController(wardBrowserManagerMock, wardMapper, referenceDataCacheMock, wardCensusLoaderMock))
 				.setControllerAdvice(new OHResponseEntityExceptionHandler())
 				.build();
 		ModelMapper modelMapper = new ModelMapper();
@@ -130,6 +141,33 @@ public class WardControllerTest {
 		LOGGER.debug("result: {}", result);
 	}
 
+	@Test
+	public void testGetCensus_200() throws Exception {
+		String request = "/wards/census";
+
+		WardCensusDTO ward = new WardCensusDTO();
+		ward.setCode("M");
+		ward.setDescription("Maternity");
+		ward.setBeds(20);
+		ward.setOccupiedBeds(12);
+		ward.setAdmissionsToday(3);
+		ward.setDischargesToday(2);
+		when(wardCensusLoaderMock.getCensus())
+				.thenReturn(new WardCensusLoader.Snapshot(Collections.singletonList(ward), System.currentTimeMillis()));
+
+		MvcResult result = this.mockMvc
+				.perform(get(request))
+				.andDo(log())
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].code").value("M"))
+				.andExpect(jsonPath("$[0].occupiedBeds").value(12))
+				.andExpect(jsonPath("$[0].admissionsToday").value(3))
+				.andExpect(jsonPath("$[0].dischargesToday").value(2))
+				.andReturn();
+
+		LOGGER.debug("result: {}", result);
+	}
+
 	@Test
 	public void testGetCurrentOccupation() throws Exception {
 		String request = "/wards/occupation/{code}";